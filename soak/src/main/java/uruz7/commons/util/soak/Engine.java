@@ -0,0 +1,58 @@
+package uruz7.commons.util.soak;
+
+import uruz7.commons.util.time.Iso8601TimeUtil;
+import uruz7.commons.util.time.JdkIso8601TimeUtil;
+import uruz7.commons.util.time.TimeFormat;
+
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Conversion engines under test, every one runs the kind of sample the dataset generates for it.
+ * <p>
+ */
+public enum Engine {
+
+    /**
+     * TimeFormat.convert() between two formats of the mix.
+     */
+    CONVERT {
+        @Override
+        String run(final Sample sample) {
+            return TimeFormat.convert(sample.getInput(), sample.getFromFormat(), sample.getToFormat());
+        }
+    },
+    /**
+     * Iso8601TimeUtil, ISO-8601 into Unix time and back into the zone of the sample.
+     */
+    ISO8601_UTIL {
+        @Override
+        String run(final Sample sample) throws ParseException {
+            if (sample.isUnixTimeInput()) {
+                return Iso8601TimeUtil.convertUnixTimestampToIso8601(sample.getInput(), ISO8601_PATTERN, Locale.TAIWAN,
+                        TimeZone.getTimeZone(sample.getZoneId()));
+            }
+            return Iso8601TimeUtil.convertIso8601ToUnixTimestamp(sample.getInput());
+        }
+    },
+    /**
+     * JdkIso8601TimeUtil, Unix time into the zone of the sample and ISO-8601 zone shifting.
+     */
+    JDK_ISO8601_UTIL {
+        @Override
+        String run(final Sample sample) {
+            if (sample.isUnixTimeInput()) {
+                return JdkIso8601TimeUtil.convertUnixTimestampToIso8601(sample.getInput(), sample.getZoneId());
+            }
+            return JdkIso8601TimeUtil.shiftTimeZoneForIso8601Timestamp(sample.getInput(), sample.getZoneId());
+        }
+    };
+
+    private static final String ISO8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
+    abstract String run(Sample sample) throws Exception;
+
+}
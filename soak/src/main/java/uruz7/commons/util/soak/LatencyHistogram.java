@@ -0,0 +1,93 @@
+package uruz7.commons.util.soak;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Log-linear histogram of latencies in nanoseconds: every power of two is split into 16 linear sub-buckets, so any
+ * reported percentile is within 1/16 (about 6%) of the recorded value. Recording is allocation free and not thread
+ * safe, every worker records into its own histogram and the results are merged afterwards.
+ * <p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * Record one latency.
+     *
+     * @param nanos latency in nanoseconds, negative values count as zero
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        counts[indexOf(value)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Add the counts of another histogram.
+     *
+     * @param another another histogram
+     */
+    public void merge(final LatencyHistogram another) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += another.counts[i];
+        }
+        totalCount += another.totalCount;
+        maxValue = Math.max(maxValue, another.maxValue);
+    }
+
+    /**
+     * Latency at the percentile, as the upper bound of its bucket.
+     *
+     * @param percentile percentile within [0, 100]
+     * @return latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(final int index) {
+        final int group = index / SUB_BUCKETS;
+        final long subBucket = index % SUB_BUCKETS;
+        if (group == 0) {
+            return subBucket;
+        }
+        final int shift = group - 1;
+        return ((SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1L;
+    }
+
+}
@@ -0,0 +1,62 @@
+package uruz7.commons.util.soak;
+
+import uruz7.commons.util.time.TimeFormat;
+
+import java.time.ZoneId;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * One pre-generated operation of the synthetic dataset.
+ * <p>
+ */
+public final class Sample {
+
+    private final Engine engine;
+    private final String input;
+    private final TimeFormat fromFormat;
+    private final TimeFormat toFormat;
+    private final ZoneId zoneId;
+    private final boolean unixTimeInput;
+    private final boolean malformed;
+
+    Sample(final Engine engine, final String input, final TimeFormat fromFormat, final TimeFormat toFormat,
+            final ZoneId zoneId, final boolean unixTimeInput, final boolean malformed) {
+        this.engine = engine;
+        this.input = input;
+        this.fromFormat = fromFormat;
+        this.toFormat = toFormat;
+        this.zoneId = zoneId;
+        this.unixTimeInput = unixTimeInput;
+        this.malformed = malformed;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public TimeFormat getFromFormat() {
+        return fromFormat;
+    }
+
+    public TimeFormat getToFormat() {
+        return toFormat;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public boolean isUnixTimeInput() {
+        return unixTimeInput;
+    }
+
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+}
@@ -0,0 +1,196 @@
+package uruz7.commons.util.soak;
+
+import uruz7.commons.util.time.TimeFormat;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Settings of a soak run, parsed from "--name=value" arguments:
+ * <pre>
+ * --threads=4                     worker threads
+ * --duration-seconds=60           measured duration
+ * --warmup-seconds=10             unmeasured warm-up before it
+ * --dataset-size=100000           synthetic samples replayed by every thread
+ * --engines=CONVERT,ISO8601_UTIL,JDK_ISO8601_UTIL
+ * --format-mix=ISO8601UTC:4,UNIX_TIME:3,MYSQL_DATE_TIME:2,DB_DATE_TIME:1,ISO8601TW:1
+ * --zones=Asia/Taipei,UTC,America/New_York
+ * --millisecond-share=0.2         share of ISO-8601 inputs with milliseconds
+ * --error-rate=0.01               share of malformed inputs
+ * --seed=1022
+ * --output=soak-result.json
+ * </pre>
+ * <p>
+ */
+public final class SoakConfig {
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+    private int datasetSize = 100000;
+    private Set<Engine> engines = EnumSet.allOf(Engine.class);
+    private Map<TimeFormat, Integer> formatMix = parseFormatMix(
+            "ISO8601UTC:4,UNIX_TIME:3,MYSQL_DATE_TIME:2,DB_DATE_TIME:1,ISO8601TW:1");
+    private List<ZoneId> zones = parseZones("Asia/Taipei,UTC,America/New_York");
+    private double millisecondShare = 0.2;
+    private double errorRate = 0.01;
+    private long seed = 1022L;
+    private Path output = Paths.get("soak-result.json");
+
+    /**
+     * Parse the arguments, unknown names and invalid values are rejected.
+     *
+     * @param args command line arguments
+     * @return settings
+     */
+    public static SoakConfig parse(final String... args) {
+        final SoakConfig config = new SoakConfig();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            final String name = arg.substring(2, separator);
+            final String value = arg.substring(separator + 1);
+            switch (name) {
+                case "threads":
+                    config.threads = positive(name, Integer.parseInt(value));
+                    break;
+                case "duration-seconds":
+                    config.durationSeconds = positive(name, Integer.parseInt(value));
+                    break;
+                case "warmup-seconds":
+                    config.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "dataset-size":
+                    config.datasetSize = positive(name, Integer.parseInt(value));
+                    break;
+                case "engines":
+                    config.engines = parseEngines(value);
+                    break;
+                case "format-mix":
+                    config.formatMix = parseFormatMix(value);
+                    break;
+                case "zones":
+                    config.zones = parseZones(value);
+                    break;
+                case "millisecond-share":
+                    config.millisecondShare = share(name, Double.parseDouble(value));
+                    break;
+                case "error-rate":
+                    config.errorRate = share(name, Double.parseDouble(value));
+                    break;
+                case "seed":
+                    config.seed = Long.parseLong(value);
+                    break;
+                case "output":
+                    config.output = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (config.warmupSeconds < 0) {
+            throw new IllegalArgumentException("warmup-seconds must not be negative: " + config.warmupSeconds);
+        }
+        return config;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDatasetSize() {
+        return datasetSize;
+    }
+
+    public Set<Engine> getEngines() {
+        return Collections.unmodifiableSet(engines);
+    }
+
+    public Map<TimeFormat, Integer> getFormatMix() {
+        return Collections.unmodifiableMap(formatMix);
+    }
+
+    public List<ZoneId> getZones() {
+        return Collections.unmodifiableList(zones);
+    }
+
+    public double getMillisecondShare() {
+        return millisecondShare;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    private static Set<Engine> parseEngines(final String value) {
+        final Set<Engine> engines = EnumSet.noneOf(Engine.class);
+        for (final String name : value.split(",")) {
+            engines.add(Engine.valueOf(name.trim()));
+        }
+        return engines;
+    }
+
+    private static Map<TimeFormat, Integer> parseFormatMix(final String value) {
+        final Map<TimeFormat, Integer> mix = new EnumMap<>(TimeFormat.class);
+        for (final String entry : value.split(",")) {
+            final String[] pair = entry.trim().split(":");
+            final int weight = pair.length == 1 ? 1 : Integer.parseInt(pair[1]);
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight must be positive: " + entry);
+            }
+            mix.put(TimeFormat.valueOf(pair[0]), weight);
+        }
+        return mix;
+    }
+
+    private static List<ZoneId> parseZones(final String value) {
+        final List<ZoneId> zones = new ArrayList<>();
+        for (final String zone : value.split(",")) {
+            zones.add(ZoneId.of(zone.trim()));
+        }
+        return zones;
+    }
+
+    private static int positive(final String name, final int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    private static double share(final String name, final double value) {
+        if (value < 0.0 || value > 1.0) {
+            throw new IllegalArgumentException(name + " must be within [0, 1]: " + value);
+        }
+        return value;
+    }
+
+}
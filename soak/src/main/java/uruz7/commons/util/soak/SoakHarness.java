@@ -0,0 +1,171 @@
+package uruz7.commons.util.soak;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Replays a synthetic dataset against the conversion engines from several threads for a fixed duration and writes
+ * throughput, latency percentiles, GC time and allocation rate into a JSON file, e.g.
+ * <pre>
+ * java -cp soak/target/uruz7-util-soak.jar:target/uruz7-util.jar uruz7.commons.util.soak.SoakHarness \
+ *     --threads=8 --duration-seconds=300 --output=release-1.0.0.json
+ * </pre>
+ * The soak jar does not bundle the library, so both jars go on the class path. See SoakConfig for all options.
+ * <p>
+ */
+public final class SoakHarness {
+
+    private final SoakConfig config;
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    public SoakHarness(final SoakConfig config) {
+        this.config = config;
+    }
+
+    public static void main(final String[] args) throws InterruptedException, IOException {
+        final SoakConfig config = SoakConfig.parse(args);
+        final SoakResult result = new SoakHarness(config).run();
+        Files.write(config.getOutput(), result.toJson().getBytes(StandardCharsets.UTF_8));
+        System.out.println(result.toJson());
+    }
+
+    /**
+     * Run the warm-up and the measured phase.
+     *
+     * @return measured result
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public SoakResult run() throws InterruptedException {
+        final Sample[] samples = SyntheticDataset.generate(config);
+        final Worker[] workers = new Worker[config.getThreads()];
+        final CountDownLatch done = new CountDownLatch(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(samples, samples.length * i / workers.length, done);
+            workers[i].setName("soak-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        Thread.sleep(config.getWarmupSeconds() * 1000L);
+
+        final long gcCountBefore = gcCount();
+        final long gcTimeMillisBefore = gcTimeMillis();
+        final long allocatedBefore = allocatedBytes(workers);
+        final long startNanos = System.nanoTime();
+        measuring = true;
+        Thread.sleep(config.getDurationSeconds() * 1000L);
+        measuring = false;
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long allocatedAfter = allocatedBytes(workers);
+        final long gcCountAfter = gcCount();
+        final long gcTimeMillisAfter = gcTimeMillis();
+        stopped = true;
+        done.await();
+
+        final SoakResult result = new SoakResult(config, elapsedNanos, gcCountAfter - gcCountBefore,
+                gcTimeMillisAfter - gcTimeMillisBefore, allocatedBefore < 0L || allocatedAfter < 0L
+                ? -1L : allocatedAfter - allocatedBefore);
+        for (final Worker worker : workers) {
+            result.add(worker.histograms, worker.expectedErrors, worker.unexpectedErrors, worker.checksum);
+        }
+        return result;
+    }
+
+    private static long gcCount() {
+        long count = 0L;
+        for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long millis = 0L;
+        for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0L, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Bytes allocated by the workers so far, -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes(final Worker[] workers) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1L;
+        }
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) {
+            return -1L;
+        }
+        long bytes = 0L;
+        for (final Worker worker : workers) {
+            bytes += Math.max(0L, threadBean.getThreadAllocatedBytes(worker.getId()));
+        }
+        return bytes;
+    }
+
+    /**
+     * Replays the samples from its own starting point until the harness stops.
+     */
+    private final class Worker extends Thread {
+
+        private final Sample[] samples;
+        private final int start;
+        private final CountDownLatch done;
+        private final LatencyHistogram[] histograms = new LatencyHistogram[Engine.values().length];
+        private long expectedErrors;
+        private long unexpectedErrors;
+        private long checksum;
+
+        private Worker(final Sample[] samples, final int start, final CountDownLatch done) {
+            this.samples = samples;
+            this.start = start;
+            this.done = done;
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                int index = start;
+                while (!stopped) {
+                    final Sample sample = samples[index];
+                    index = index + 1 == samples.length ? 0 : index + 1;
+                    final boolean measured = measuring;
+                    final long startNanos = System.nanoTime();
+                    boolean failed = false;
+                    try {
+                        final String converted = sample.getEngine().run(sample);
+                        checksum += null == converted ? 0 : converted.hashCode();
+                    } catch (Exception e) {
+                        failed = true;
+                    }
+                    final long latency = System.nanoTime() - startNanos;
+                    if (measured) {
+                        histograms[sample.getEngine().ordinal()].record(latency);
+                        if (failed && sample.isMalformed()) {
+                            expectedErrors++;
+                        } else if (failed) {
+                            unexpectedErrors++;
+                        }
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package uruz7.commons.util.soak;
+
+import uruz7.commons.util.time.TimeFormat;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Outcome of a soak run, rendered as a flat JSON document so that runs of different releases can be compared by
+ * scripts. Latencies are in nanoseconds, allocation figures are -1 on JVMs that cannot measure them. The GC time is
+ * the collection time the collectors report, which includes concurrent work and so is not stop-the-world pause time.
+ * <p>
+ */
+public final class SoakResult {
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final SoakConfig config;
+    private final long elapsedNanos;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final long allocatedBytes;
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram[] perEngine = new LatencyHistogram[Engine.values().length];
+    private long expectedErrors;
+    private long unexpectedErrors;
+    private long checksum;
+
+    SoakResult(final SoakConfig config, final long elapsedNanos, final long gcCount, final long gcTimeMillis,
+            final long allocatedBytes) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.allocatedBytes = allocatedBytes;
+        for (int i = 0; i < perEngine.length; i++) {
+            perEngine[i] = new LatencyHistogram();
+        }
+    }
+
+    void add(final LatencyHistogram[] histograms, final long expectedErrors, final long unexpectedErrors,
+            final long checksum) {
+        for (int i = 0; i < histograms.length; i++) {
+            perEngine[i].merge(histograms[i]);
+            total.merge(histograms[i]);
+        }
+        this.expectedErrors += expectedErrors;
+        this.unexpectedErrors += unexpectedErrors;
+        this.checksum += checksum;
+    }
+
+    public long getOperations() {
+        return total.getTotalCount();
+    }
+
+    public double getOperationsPerSecond() {
+        return total.getTotalCount() * 1e9 / elapsedNanos;
+    }
+
+    public long getUnexpectedErrors() {
+        return unexpectedErrors;
+    }
+
+    public LatencyHistogram getLatency() {
+        return total;
+    }
+
+    /**
+     * Render the result as JSON.
+     *
+     * @return JSON document
+     */
+    public String toJson() {
+        final double seconds = elapsedNanos / 1e9;
+        final StringBuilder json = new StringBuilder(1024).append("{\n");
+        field(json, "javaVersion", System.getProperty("java.version"));
+        field(json, "availableProcessors", Runtime.getRuntime().availableProcessors());
+        field(json, "threads", config.getThreads());
+        field(json, "durationSeconds", round(seconds));
+        field(json, "warmupSeconds", config.getWarmupSeconds());
+        field(json, "datasetSize", config.getDatasetSize());
+        field(json, "engines", join(config.getEngines()));
+        final StringBuilder mix = new StringBuilder();
+        for (final Map.Entry<TimeFormat, Integer> entry : config.getFormatMix().entrySet()) {
+            mix.append(mix.length() == 0 ? "" : ",").append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        field(json, "formatMix", mix.toString());
+        field(json, "zones", join(config.getZones()));
+        field(json, "millisecondShare", config.getMillisecondShare());
+        field(json, "errorRate", config.getErrorRate());
+        field(json, "seed", config.getSeed());
+        field(json, "operations", total.getTotalCount());
+        field(json, "operationsPerSecond", round(getOperationsPerSecond()));
+        field(json, "expectedErrors", expectedErrors);
+        field(json, "unexpectedErrors", unexpectedErrors);
+        latency(json, "latencyNanos", total);
+        for (final Engine engine : Engine.values()) {
+            if (perEngine[engine.ordinal()].getTotalCount() > 0L) {
+                field(json, "operations." + engine, perEngine[engine.ordinal()].getTotalCount());
+                latency(json, "latencyNanos." + engine, perEngine[engine.ordinal()]);
+            }
+        }
+        field(json, "gcCount", gcCount);
+        field(json, "gcTimeMillis", gcTimeMillis);
+        field(json, "gcTimeShare", round(gcTimeMillis / 1000.0 / seconds));
+        field(json, "allocatedBytes", allocatedBytes);
+        field(json, "allocationBytesPerSecond", allocatedBytes < 0L ? -1.0 : round(allocatedBytes / seconds));
+        field(json, "allocationBytesPerOperation", allocatedBytes < 0L || total.getTotalCount() == 0L
+                ? -1.0 : round((double) allocatedBytes / total.getTotalCount()));
+        json.append("  \"checksum\": ").append(checksum).append("\n}\n");
+        return json.toString();
+    }
+
+    private static void latency(final StringBuilder json, final String name, final LatencyHistogram histogram) {
+        for (final double percentile : PERCENTILES) {
+            field(json, name + ".p" + String.valueOf(percentile).replace(".0", "").replace('.', '_'),
+                    histogram.getValueAtPercentile(percentile));
+        }
+        field(json, name + ".max", histogram.getMaxValue());
+    }
+
+    private static void field(final StringBuilder json, final String name, final Object value) {
+        json.append("  \"").append(name).append("\": ");
+        if (value instanceof Number) {
+            json.append(value);
+        } else {
+            json.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        json.append(",\n");
+    }
+
+    private static String join(final Collection<?> values) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Object value : values) {
+            builder.append(builder.length() == 0 ? "" : ",").append(value);
+        }
+        return builder.toString();
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+}
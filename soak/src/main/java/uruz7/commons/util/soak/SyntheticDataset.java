@@ -0,0 +1,91 @@
+package uruz7.commons.util.soak;
+
+import uruz7.commons.util.time.TimeFormat;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Generates the samples of a soak run up front, so the measured loop only replays them. Instants are spread over
+ * 2000 to 2030, malformed samples have one character replaced.
+ * <p>
+ */
+public final class SyntheticDataset {
+
+    private static final long FROM_EPOCH_SECOND = 946684800L;
+    private static final long TO_EPOCH_SECOND = 1893456000L;
+    private static final DateTimeFormatter ISO8601 = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+    private static final DateTimeFormatter ISO8601_WITH_MILLISECOND =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    /**
+     * Constructor
+     */
+    private SyntheticDataset() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Generate the samples described by the settings.
+     *
+     * @param config settings
+     * @return samples
+     */
+    public static Sample[] generate(final SoakConfig config) {
+        final Random random = new Random(config.getSeed());
+        final List<Engine> engines = new ArrayList<>(config.getEngines());
+        final List<TimeFormat> formats = weighted(config.getFormatMix());
+        final List<ZoneId> zones = config.getZones();
+        final Sample[] samples = new Sample[config.getDatasetSize()];
+        for (int i = 0; i < samples.length; i++) {
+            final Engine engine = engines.get(random.nextInt(engines.size()));
+            final Instant instant = Instant.ofEpochSecond(FROM_EPOCH_SECOND
+                    + (long) (random.nextDouble() * (TO_EPOCH_SECOND - FROM_EPOCH_SECOND)),
+                    random.nextInt(1000) * 1000000L);
+            final ZoneId zoneId = zones.get(random.nextInt(zones.size()));
+            final boolean withMillisecond = random.nextDouble() < config.getMillisecondShare();
+            final boolean malformed = random.nextDouble() < config.getErrorRate();
+            final TimeFormat fromFormat = formats.get(random.nextInt(formats.size()));
+            final TimeFormat toFormat = formats.get(random.nextInt(formats.size()));
+            final boolean unixTimeInput;
+            String input;
+            if (engine == Engine.CONVERT) {
+                unixTimeInput = fromFormat == TimeFormat.UNIX_TIME;
+                input = fromFormat.getTimestampString(Instant.ofEpochSecond(instant.getEpochSecond()));
+                if (withMillisecond && fromFormat == TimeFormat.ISO8601UTC) {
+                    input = input.substring(0, input.length() - 1) + String.format(".%03dZ",
+                            instant.getNano() / 1000000);
+                }
+            } else {
+                unixTimeInput = random.nextBoolean();
+                input = unixTimeInput ? String.valueOf(instant.getEpochSecond())
+                        : (withMillisecond ? ISO8601_WITH_MILLISECOND : ISO8601).format(instant.atZone(zoneId));
+            }
+            if (malformed) {
+                final char[] chars = input.toCharArray();
+                chars[random.nextInt(chars.length)] = 'x';
+                input = new String(chars);
+            }
+            samples[i] = new Sample(engine, input, fromFormat, toFormat, zoneId, unixTimeInput, malformed);
+        }
+        return samples;
+    }
+
+    private static List<TimeFormat> weighted(final Map<TimeFormat, Integer> mix) {
+        final List<TimeFormat> formats = new ArrayList<>();
+        for (final Map.Entry<TimeFormat, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                formats.add(entry.getKey());
+            }
+        }
+        return formats;
+    }
+
+}
@@ -0,0 +1,59 @@
+package uruz7.commons.util.soak;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1L; value <= 100000L; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100000L, histogram.getTotalCount());
+        assertEquals(100000L, histogram.getMaxValue());
+        assertWithin(50000L, histogram.getValueAtPercentile(50.0));
+        assertWithin(99000L, histogram.getValueAtPercentile(99.0));
+        assertEquals(100000L, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testBucketBoundsAreContiguous() {
+        for (long value = 0L; value < 5000L; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(index));
+            assertTrue(index == 0 || value > LatencyHistogram.upperBoundOf(index - 1));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10L);
+        second.record(1000000L);
+        second.record(-5L);
+        first.merge(second);
+        assertEquals(3L, first.getTotalCount());
+        assertEquals(1000000L, first.getMaxValue());
+        assertEquals(0L, first.getValueAtPercentile(0.0));
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99.0));
+        assertEquals(0L, histogram.getMaxValue());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " is not close to " + expected, Math.abs(actual - expected) <= expected / 16);
+    }
+
+}
@@ -0,0 +1,68 @@
+package uruz7.commons.util.soak;
+
+import org.junit.Test;
+import uruz7.commons.util.time.TimeFormat;
+
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class SoakHarnessTest {
+
+    @Test
+    public void testParseConfig() {
+        SoakConfig config = SoakConfig.parse("--threads=3", "--duration-seconds=7", "--warmup-seconds=0",
+                "--engines=CONVERT", "--format-mix=ISO8601UTC:3,UNIX_TIME:1", "--zones=UTC", "--error-rate=0",
+                "--output=out.json");
+        assertEquals(3, config.getThreads());
+        assertEquals(7, config.getDurationSeconds());
+        assertEquals(0, config.getWarmupSeconds());
+        assertEquals(EnumSet.of(Engine.CONVERT), config.getEngines());
+        assertEquals(Integer.valueOf(3), config.getFormatMix().get(TimeFormat.ISO8601UTC));
+        assertEquals(ZoneId.of("UTC"), config.getZones().get(0));
+        assertEquals(0.0, config.getErrorRate(), 0.0);
+        assertEquals(Paths.get("out.json"), config.getOutput());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() {
+        SoakConfig.parse("--speed=fast");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidShare() {
+        SoakConfig.parse("--error-rate=2");
+    }
+
+    @Test
+    public void testDatasetIsReproducible() {
+        SoakConfig config = SoakConfig.parse("--dataset-size=500", "--seed=7");
+        Sample[] first = SyntheticDataset.generate(config);
+        Sample[] second = SyntheticDataset.generate(config);
+        assertEquals(500, first.length);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i].getInput(), second[i].getInput());
+            assertEquals(first[i].getEngine(), second[i].getEngine());
+        }
+    }
+
+    @Test
+    public void testShortRun() throws InterruptedException {
+        SoakConfig config = SoakConfig.parse("--threads=2", "--duration-seconds=1", "--warmup-seconds=0",
+                "--dataset-size=1000");
+        SoakResult result = new SoakHarness(config).run();
+        assertTrue(result.getOperations() > 0L);
+        assertTrue(result.getOperationsPerSecond() > 0.0);
+        assertEquals(0L, result.getUnexpectedErrors());
+        String json = result.toJson();
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"latencyNanos.p99_9\": "));
+        assertTrue(json.contains("\"allocationBytesPerSecond\": "));
+    }
+
+}
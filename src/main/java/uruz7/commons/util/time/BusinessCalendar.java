@@ -0,0 +1,323 @@
+package uruz7.commons.util.time;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Answers working day questions of a zone, Asia/Taipei by default, in constant time. The working days of the covered
+ * years are precomputed into one bitset from the weekend rule, the holidays and the make-up working days, along with
+ * the number of working days before every 64-day word and a sampled select index, so that checking a day is a bit
+ * test, counting is two popcounts and adding working days is a select over a word or two. Immutable and thread safe.
+ * <p>
+ */
+public final class BusinessCalendar {
+
+    public static final int DEFAULT_FIRST_YEAR = 1970;
+    public static final int DEFAULT_LAST_YEAR = 2099;
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final Set<DayOfWeek> DEFAULT_WEEKEND = Collections.unmodifiableSet(
+            EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+    private static final int WORD_BITS = 6;
+    private static final int SAMPLE_BITS = 6;
+
+    private final ZoneId zoneId;
+    private final int firstYear;
+    private final int lastYear;
+    private final long firstEpochDay;
+    private final int dayCount;
+    private final long[] words;
+    private final int[] ranks;
+    private final int[] samples;
+
+    /**
+     * Constructor, with the Saturday and Sunday weekend of Asia/Taipei from 1970 to 2099.
+     *
+     * @param holidays non-working days
+     */
+    public BusinessCalendar(final Collection<LocalDate> holidays) {
+        this(DEFAULT_ZONE_ID, DEFAULT_WEEKEND, holidays, Collections.emptyList(), DEFAULT_FIRST_YEAR,
+                DEFAULT_LAST_YEAR);
+    }
+
+    /**
+     * Constructor, days outside the covered years are ignored.
+     *
+     * @param zoneId      zone the days of epoch values and timestamps are taken in
+     * @param weekend     days of week that are not working days
+     * @param holidays    non-working days
+     * @param workingDays working days overriding the weekend, e.g. make-up working days
+     * @param firstYear   first covered year
+     * @param lastYear    last covered year
+     */
+    public BusinessCalendar(final ZoneId zoneId, final Set<DayOfWeek> weekend, final Collection<LocalDate> holidays,
+            final Collection<LocalDate> workingDays, final int firstYear, final int lastYear) {
+        if (firstYear > lastYear || firstYear < -999999 || lastYear > 999999) {
+            throw new IllegalArgumentException("Invalid year range: " + firstYear + " to " + lastYear);
+        }
+        this.zoneId = zoneId;
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstEpochDay = CivilCalendar.toEpochDay(firstYear, 1, 1);
+        final long days = CivilCalendar.toEpochDay(lastYear + 1L, 1, 1) - firstEpochDay;
+        if (days > Integer.MAX_VALUE - Long.SIZE) {
+            throw new IllegalArgumentException("Year range is too large: " + firstYear + " to " + lastYear);
+        }
+        this.dayCount = (int) days;
+        this.words = new long[(dayCount + Long.SIZE - 1) >>> WORD_BITS];
+        final boolean[] weekendDays = new boolean[8];
+        for (final DayOfWeek dayOfWeek : weekend) {
+            weekendDays[dayOfWeek.getValue()] = true;
+        }
+        for (int index = 0; index < dayCount; index++) {
+            if (!weekendDays[CivilCalendar.dayOfWeek(firstEpochDay + index)]) {
+                words[index >>> WORD_BITS] |= 1L << index;
+            }
+        }
+        for (final LocalDate holiday : holidays) {
+            final long index = holiday.toEpochDay() - firstEpochDay;
+            if (index >= 0L && index < dayCount) {
+                words[(int) index >>> WORD_BITS] &= ~(1L << index);
+            }
+        }
+        for (final LocalDate workingDay : workingDays) {
+            final long index = workingDay.toEpochDay() - firstEpochDay;
+            if (index >= 0L && index < dayCount) {
+                words[(int) index >>> WORD_BITS] |= 1L << index;
+            }
+        }
+        this.ranks = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            ranks[i + 1] = ranks[i] + Long.bitCount(words[i]);
+        }
+        this.samples = new int[(ranks[words.length] >>> SAMPLE_BITS) + 1];
+        int word = 0;
+        for (int i = 0; i < samples.length; i++) {
+            final int rank = i << SAMPLE_BITS;
+            while (word < words.length - 1 && ranks[word + 1] <= rank) {
+                word++;
+            }
+            samples[i] = word;
+        }
+    }
+
+    /**
+     * Load a calendar of the default zone, weekend and years from a list of days, one yyyy-MM-dd per line. Days
+     * prefixed with + are make-up working days, blank lines and lines starting with # are skipped.
+     *
+     * @param reader holiday list
+     * @return calendar
+     * @throws IOException if the list cannot be read
+     */
+    public static BusinessCalendar load(final Reader reader) throws IOException {
+        final List<LocalDate> holidays = new ArrayList<>();
+        final List<LocalDate> workingDays = new ArrayList<>();
+        final BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        for (String line = lines.readLine(); null != line; line = lines.readLine()) {
+            final String day = line.trim();
+            if (day.isEmpty() || day.charAt(0) == '#') {
+                continue;
+            }
+            if (day.charAt(0) == '+') {
+                workingDays.add(LocalDate.parse(day.substring(1).trim()));
+            } else {
+                holidays.add(LocalDate.parse(day));
+            }
+        }
+        return new BusinessCalendar(DEFAULT_ZONE_ID, DEFAULT_WEEKEND, holidays, workingDays, DEFAULT_FIRST_YEAR,
+                DEFAULT_LAST_YEAR);
+    }
+
+    /**
+     * Distinguish the epoch day is a working day or not.
+     *
+     * @param epochDay epoch day
+     * @return is working day?
+     */
+    public boolean isBusinessDay(final long epochDay) {
+        final int index = indexOf(epochDay);
+        return (words[index >>> WORD_BITS] & 1L << index) != 0L;
+    }
+
+    /**
+     * Distinguish the instant falls on a working day of the zone or not.
+     *
+     * @param epochSecond epoch seconds
+     * @return is working day?
+     */
+    public boolean isBusinessDayAt(final long epochSecond) {
+        return isBusinessDay(epochDayOf(epochSecond, new ZoneOffsetLookup(zoneId)));
+    }
+
+    /**
+     * Distinguish the timestamp falls on a working day of the zone or not.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @return is working day?
+     */
+    public boolean isBusinessDay(final String timestamp, final TimeFormat format) {
+        return isBusinessDayAt(format.getEpochSecond(timestamp));
+    }
+
+    /**
+     * Count the working days in [fromEpochDay, toEpochDay), negative if the range is reversed.
+     *
+     * @param fromEpochDay first epoch day, inclusive
+     * @param toEpochDay   last epoch day, exclusive
+     * @return working day count
+     */
+    public int countBusinessDays(final long fromEpochDay, final long toEpochDay) {
+        return rank(boundIndexOf(toEpochDay)) - rank(boundIndexOf(fromEpochDay));
+    }
+
+    /**
+     * Count the working days from the day of one timestamp, inclusive, to the day of another, exclusive.
+     *
+     * @param from   first timestamp
+     * @param to     last timestamp
+     * @param format format of the timestamps
+     * @return working day count
+     */
+    public int countBusinessDays(final String from, final String to, final TimeFormat format) {
+        final ZoneOffsetLookup lookup = new ZoneOffsetLookup(zoneId);
+        return countBusinessDays(epochDayOf(format.getEpochSecond(from), lookup),
+                epochDayOf(format.getEpochSecond(to), lookup));
+    }
+
+    /**
+     * Move the epoch day by working days: for positive n the n-th working day after the day, for negative n the
+     * n-th working day before it, for zero the day itself.
+     *
+     * @param epochDay epoch day
+     * @param n        working days to move by
+     * @return epoch day
+     */
+    public long addBusinessDays(final long epochDay, final int n) {
+        final int index = indexOf(epochDay);
+        if (n == 0) {
+            return epochDay;
+        }
+        final long target = n > 0 ? (long) rank(index + 1) + n - 1L : (long) rank(index) + n;
+        if (target < 0L || target >= ranks[words.length]) {
+            throw new DateTimeException("Moving " + LocalDate.ofEpochDay(epochDay) + " by " + n
+                    + " business days leaves the calendar years " + firstYear + " to " + lastYear);
+        }
+        return firstEpochDay + select((int) target);
+    }
+
+    /**
+     * Move the timestamp by working days, keeping its wall clock time in the zone.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @param n         working days to move by
+     * @return timestamp string in the same format
+     */
+    public String addBusinessDays(final String timestamp, final TimeFormat format, final int n) {
+        final ZoneOffsetLookup lookup = new ZoneOffsetLookup(zoneId);
+        final long epochSecond = format.getEpochSecond(timestamp);
+        final long localEpochSecond = epochSecond + lookup.offsetAt(epochSecond);
+        final long epochDay = Math.floorDiv(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+        final long secondOfDay = localEpochSecond - epochDay * CivilCalendar.SECONDS_PER_DAY;
+        final long targetDay = addBusinessDays(epochDay, n);
+        return format.getTimestampString(lookup.toEpochSecond(targetDay * CivilCalendar.SECONDS_PER_DAY
+                + secondOfDay));
+    }
+
+    /**
+     * Working day on or after the epoch day.
+     *
+     * @param epochDay epoch day
+     * @return epoch day
+     */
+    public long nextOrSameBusinessDay(final long epochDay) {
+        return isBusinessDay(epochDay) ? epochDay : addBusinessDays(epochDay, 1);
+    }
+
+    /**
+     * Working day on or before the epoch day.
+     *
+     * @param epochDay epoch day
+     * @return epoch day
+     */
+    public long previousOrSameBusinessDay(final long epochDay) {
+        return isBusinessDay(epochDay) ? epochDay : addBusinessDays(epochDay, -1);
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    private int indexOf(final long epochDay) {
+        final long index = epochDay - firstEpochDay;
+        if (index < 0L || index >= dayCount) {
+            throw outOfRange(epochDay);
+        }
+        return (int) index;
+    }
+
+    private int boundIndexOf(final long epochDay) {
+        final long index = epochDay - firstEpochDay;
+        if (index < 0L || index > dayCount) {
+            throw outOfRange(epochDay);
+        }
+        return (int) index;
+    }
+
+    private DateTimeException outOfRange(final long epochDay) {
+        return new DateTimeException("Epoch day " + epochDay + " is outside the calendar years " + firstYear + " to "
+                + lastYear);
+    }
+
+    /**
+     * Number of working days before the day index.
+     */
+    private int rank(final int index) {
+        final int word = index >>> WORD_BITS;
+        final int bit = index & (Long.SIZE - 1);
+        return bit == 0 ? ranks[word] : ranks[word] + Long.bitCount(words[word] & (1L << bit) - 1L);
+    }
+
+    /**
+     * Day index of the working day with the rank.
+     */
+    private int select(final int rank) {
+        int word = samples[rank >>> SAMPLE_BITS];
+        while (ranks[word + 1] <= rank) {
+            word++;
+        }
+        long bits = words[word];
+        for (int skip = rank - ranks[word]; skip > 0; skip--) {
+            bits &= bits - 1L;
+        }
+        return (word << WORD_BITS) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private static long epochDayOf(final long epochSecond, final ZoneOffsetLookup lookup) {
+        return Math.floorDiv(epochSecond + lookup.offsetAt(epochSecond), (long) CivilCalendar.SECONDS_PER_DAY);
+    }
+
+}
@@ -0,0 +1,209 @@
+package uruz7.commons.util.time;
+
+import java.time.ZoneId;
+import java.util.stream.IntStream;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Extracts local calendar fields from arrays of epoch seconds straight into primitive columns, without rendering and
+ * substringing timestamp strings. Consecutive values usually share a day, so the civil date and day of week are only
+ * recomputed when the local day changes and the zone offset is served from a cached transition window. Large arrays
+ * are split into chunks that are extracted in parallel, each chunk with its own caches.
+ * <p>
+ */
+public final class CalendarFields {
+
+    static final int CHUNK_SIZE = 1 << 13;
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+
+    /**
+     * Constructor
+     */
+    private CalendarFields() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Fill the requested columns with the local fields of the epoch seconds in the specified zone. A null column is
+     * not extracted, every other column must be at least as long as the input.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @param years        year column, nullable
+     * @param months       month column, 1 to 12, nullable
+     * @param days         day of month column, 1 to 31, nullable
+     * @param hours        hour column, 0 to 23, nullable
+     * @param daysOfWeek   ISO day of week column, 1 (Monday) to 7 (Sunday), nullable
+     */
+    public static void extract(final long[] epochSeconds, final ZoneId zoneId, final int[] years, final byte[] months,
+            final byte[] days, final byte[] hours, final byte[] daysOfWeek) {
+        final int length = epochSeconds.length;
+        if (null != years && years.length < length || null != months && months.length < length
+                || null != days && days.length < length || null != hours && hours.length < length
+                || null != daysOfWeek && daysOfWeek.length < length) {
+            throw new IllegalArgumentException("Every column must hold at least " + length + " values");
+        }
+        final int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            extractChunk(epochSeconds, 0, length, zoneId, years, months, days, hours, daysOfWeek);
+            return;
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> extractChunk(epochSeconds, chunk * CHUNK_SIZE,
+                Math.min(length, (chunk + 1) * CHUNK_SIZE), zoneId, years, months, days, hours, daysOfWeek));
+    }
+
+    /**
+     * Extract the local years in the default zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @return year column
+     */
+    public static int[] years(final long[] epochSeconds) {
+        return years(epochSeconds, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Extract the local years in the specified zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @return year column
+     */
+    public static int[] years(final long[] epochSeconds, final ZoneId zoneId) {
+        final int[] years = new int[epochSeconds.length];
+        extract(epochSeconds, zoneId, years, null, null, null, null);
+        return years;
+    }
+
+    /**
+     * Extract the local months in the default zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @return month column, 1 to 12
+     */
+    public static byte[] months(final long[] epochSeconds) {
+        return months(epochSeconds, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Extract the local months in the specified zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @return month column, 1 to 12
+     */
+    public static byte[] months(final long[] epochSeconds, final ZoneId zoneId) {
+        final byte[] months = new byte[epochSeconds.length];
+        extract(epochSeconds, zoneId, null, months, null, null, null);
+        return months;
+    }
+
+    /**
+     * Extract the local days of month in the default zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @return day of month column, 1 to 31
+     */
+    public static byte[] days(final long[] epochSeconds) {
+        return days(epochSeconds, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Extract the local days of month in the specified zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @return day of month column, 1 to 31
+     */
+    public static byte[] days(final long[] epochSeconds, final ZoneId zoneId) {
+        final byte[] days = new byte[epochSeconds.length];
+        extract(epochSeconds, zoneId, null, null, days, null, null);
+        return days;
+    }
+
+    /**
+     * Extract the local hours in the default zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @return hour column, 0 to 23
+     */
+    public static byte[] hours(final long[] epochSeconds) {
+        return hours(epochSeconds, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Extract the local hours in the specified zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @return hour column, 0 to 23
+     */
+    public static byte[] hours(final long[] epochSeconds, final ZoneId zoneId) {
+        final byte[] hours = new byte[epochSeconds.length];
+        extract(epochSeconds, zoneId, null, null, null, hours, null);
+        return hours;
+    }
+
+    /**
+     * Extract the local ISO days of week in the default zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @return day of week column, 1 (Monday) to 7 (Sunday)
+     */
+    public static byte[] daysOfWeek(final long[] epochSeconds) {
+        return daysOfWeek(epochSeconds, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Extract the local ISO days of week in the specified zone.
+     *
+     * @param epochSeconds epoch seconds
+     * @param zoneId       zone of the local fields
+     * @return day of week column, 1 (Monday) to 7 (Sunday)
+     */
+    public static byte[] daysOfWeek(final long[] epochSeconds, final ZoneId zoneId) {
+        final byte[] daysOfWeek = new byte[epochSeconds.length];
+        extract(epochSeconds, zoneId, null, null, null, null, daysOfWeek);
+        return daysOfWeek;
+    }
+
+    private static void extractChunk(final long[] epochSeconds, final int from, final int to, final ZoneId zoneId,
+            final int[] years, final byte[] months, final byte[] days, final byte[] hours,
+            final byte[] daysOfWeek) {
+        final ZoneOffsetLookup lookup = new ZoneOffsetLookup(zoneId);
+        final boolean needsCivil = null != years || null != months || null != days;
+        long cachedEpochDay = Long.MIN_VALUE;
+        long civil = 0L;
+        int dayOfWeek = 0;
+        for (int i = from; i < to; i++) {
+            final long localEpochSecond = epochSeconds[i] + lookup.offsetAt(epochSeconds[i]);
+            final long epochDay = Math.floorDiv(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+            if (epochDay != cachedEpochDay) {
+                cachedEpochDay = epochDay;
+                if (needsCivil) {
+                    civil = CivilCalendar.toCivil(epochDay);
+                }
+                dayOfWeek = CivilCalendar.dayOfWeek(epochDay);
+            }
+            if (null != years) {
+                years[i] = CivilCalendar.year(civil);
+            }
+            if (null != months) {
+                months[i] = (byte) CivilCalendar.month(civil);
+            }
+            if (null != days) {
+                days[i] = (byte) CivilCalendar.day(civil);
+            }
+            if (null != hours) {
+                hours[i] = (byte) ((localEpochSecond - epochDay * CivilCalendar.SECONDS_PER_DAY)
+                        / CivilCalendar.SECONDS_PER_HOUR);
+            }
+            if (null != daysOfWeek) {
+                daysOfWeek[i] = (byte) dayOfWeek;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+package uruz7.commons.util.time;
+
+import java.time.format.DateTimeParseException;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Proleptic Gregorian arithmetic on epoch days and the fixed-width digit helpers shared by the fast parsers and
+ * formatters of this package. Civil dates are packed into a single long as (year << 9) | (month << 5) | day.
+ * <p>
+ */
+final class CivilCalendar {
+
+    static final int SECONDS_PER_DAY = 86400;
+    static final int SECONDS_PER_HOUR = 3600;
+    static final int SECONDS_PER_MINUTE = 60;
+    static final int NANOS_PER_SECOND = 1000000000;
+
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int DAYS_FROM_CIVIL_ZERO_TO_EPOCH = 719468;
+
+    /**
+     * Constructor
+     */
+    private CivilCalendar() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Convert a civil date to the count of days since 1970-01-01.
+     *
+     * @param year  proleptic year
+     * @param month month of year, 1 to 12
+     * @param day   day of month, 1 to 31
+     * @return epoch day
+     */
+    static long toEpochDay(final long year, final int month, final int day) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400L);
+        final long yearOfEra = y - era * 400L;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365L + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_FROM_CIVIL_ZERO_TO_EPOCH;
+    }
+
+    /**
+     * Convert the count of days since 1970-01-01 to a packed civil date.
+     *
+     * @param epochDay epoch day
+     * @return packed civil date
+     */
+    static long toCivil(final long epochDay) {
+        final long shifted = epochDay + DAYS_FROM_CIVIL_ZERO_TO_EPOCH;
+        final long era = Math.floorDiv(shifted, (long) DAYS_PER_ERA);
+        final long dayOfEra = shifted - era * DAYS_PER_ERA;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+        final long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+        final long shiftedMonth = (5L * dayOfYear + 2L) / 153L;
+        final int day = (int) (dayOfYear - (153L * shiftedMonth + 2L) / 5L + 1L);
+        final int month = (int) (shiftedMonth < 10L ? shiftedMonth + 3L : shiftedMonth - 9L);
+        final long year = yearOfEra + era * 400L + (month <= 2 ? 1L : 0L);
+        return (year << 9) | ((long) month << 5) | day;
+    }
+
+    static int year(final long civil) {
+        return (int) (civil >> 9);
+    }
+
+    static int month(final long civil) {
+        return (int) ((civil >> 5) & 0xF);
+    }
+
+    static int day(final long civil) {
+        return (int) (civil & 0x1F);
+    }
+
+    /**
+     * ISO day of week of the epoch day, 1 (Monday) to 7 (Sunday).
+     *
+     * @param epochDay epoch day
+     * @return day of week
+     */
+    static int dayOfWeek(final long epochDay) {
+        return (int) Math.floorMod(epochDay + 3L, 7L) + 1;
+    }
+
+    static boolean isLeapYear(final long year) {
+        return (year & 3L) == 0L && (year % 100L != 0L || year % 400L == 0L);
+    }
+
+    static int lengthOfMonth(final long year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Read a fixed count of decimal digits.
+     *
+     * @param text  input text
+     * @param from  index of the first digit
+     * @param count number of digits
+     * @return the value, or -1 if the text is too short or any character is not a digit
+     */
+    static int digits(final CharSequence text, final int from, final int count) {
+        if (from + count > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parse the fixed "yyyy-MM-dd?HH:mm:ss" layout into local epoch seconds.
+     *
+     * @param text      input text
+     * @param from      index of the first year digit
+     * @param separator the character between the date and the time
+     * @return local epoch seconds, i.e. seconds since 1970-01-01T00:00:00 on the wall clock
+     */
+    static long parseLocalDateTime(final CharSequence text, final int from, final char separator) {
+        final int year = digits(text, from, 4);
+        final int month = digits(text, from + 5, 2);
+        final int day = digits(text, from + 8, 2);
+        final int hour = digits(text, from + 11, 2);
+        final int minute = digits(text, from + 14, 2);
+        final int second = digits(text, from + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59 || text.charAt(from + 4) != '-' || text.charAt(from + 7) != '-'
+                || text.charAt(from + 10) != separator || text.charAt(from + 13) != ':'
+                || text.charAt(from + 16) != ':' || day > lengthOfMonth(year, month)) {
+            throw parseError(text, from);
+        }
+        return toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * SECONDS_PER_HOUR + minute * SECONDS_PER_MINUTE
+                + second;
+    }
+
+    /**
+     * Append "yyyy-MM-dd?HH:mm:ss" for the given local epoch seconds.
+     *
+     * @param buffer             output buffer
+     * @param localEpochSecond   seconds since 1970-01-01T00:00:00 on the wall clock
+     * @param separator          the character between the date and the time
+     * @return false if the year cannot be written as four digits, in which case nothing is appended
+     */
+    static boolean appendLocalDateTime(final StringBuilder buffer, final long localEpochSecond, final char separator) {
+        final long epochDay = Math.floorDiv(localEpochSecond, (long) SECONDS_PER_DAY);
+        final int secondOfDay = (int) (localEpochSecond - epochDay * SECONDS_PER_DAY);
+        final long civil = toCivil(epochDay);
+        final int year = year(civil);
+        if (year < 1 || year > 9999) {
+            return false;
+        }
+        append4(buffer, year);
+        buffer.append('-');
+        append2(buffer, month(civil));
+        buffer.append('-');
+        append2(buffer, day(civil));
+        buffer.append(separator);
+        append2(buffer, secondOfDay / SECONDS_PER_HOUR);
+        buffer.append(':');
+        append2(buffer, secondOfDay / SECONDS_PER_MINUTE % 60);
+        buffer.append(':');
+        append2(buffer, secondOfDay % 60);
+        return true;
+    }
+
+    /**
+     * Append an offset the way the "XXX" pattern does: "Z" for zero, otherwise "+HH:mm" or "-HH:mm".
+     *
+     * @param buffer        output buffer
+     * @param offsetSeconds total offset in seconds
+     */
+    static void appendOffset(final StringBuilder buffer, final int offsetSeconds) {
+        if (offsetSeconds == 0) {
+            buffer.append('Z');
+            return;
+        }
+        final int absolute = Math.abs(offsetSeconds);
+        buffer.append(offsetSeconds < 0 ? '-' : '+');
+        append2(buffer, absolute / SECONDS_PER_HOUR);
+        buffer.append(':');
+        append2(buffer, absolute / SECONDS_PER_MINUTE % 60);
+    }
+
+    static void append2(final StringBuilder buffer, final int value) {
+        buffer.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    static void append4(final StringBuilder buffer, final int value) {
+        append2(buffer, value / 100);
+        append2(buffer, value % 100);
+    }
+
+    static DateTimeParseException parseError(final CharSequence text, final int index) {
+        return new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index, text, index);
+    }
+
+}
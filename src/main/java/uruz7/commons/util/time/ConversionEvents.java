@@ -0,0 +1,165 @@
+package uruz7.commons.util.time;
+
+import java.time.Duration;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Emits a JDK Flight Recorder event, uruz7.TimestampConversion, for every conversion of TimeFormat.convert() and
+ * Iso8601TimeUtil that fails or takes longer than the threshold (1 ms unless the system property
+ * uruz7.time.jfr.thresholdMicros or setThreshold() says otherwise). The event carries the operation, both formats,
+ * the input length and shape (digits as 9, letters other than T and Z as a), the duration, the failure and whether
+ * a fallback parse ran.
+ * <p>
+ * While no recording is running the conversion paths only read a volatile flag, and on JVMs without JFR nothing is
+ * ever recorded. Start a recording as usual, e.g. -XX:StartFlightRecording or jcmd JFR.start.
+ * <p>
+ * The event itself lives in JfrSupport, which is compiled from src/main/jfr by the jfr profile on JDK 11 and later
+ * and loaded reflectively, so that the library still builds against JDKs without jdk.jfr.
+ * <p>
+ */
+public final class ConversionEvents {
+
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(1L);
+
+    static final String EVENT_NAME = "uruz7.TimestampConversion";
+    static final long NOT_RECORDING = Long.MIN_VALUE;
+    static final int MAX_SHAPE_LENGTH = 64;
+
+    private static final String JFR_SUPPORT_CLASS = "uruz7.commons.util.time.JfrSupport";
+    private static volatile boolean recording;
+    private static volatile long thresholdNanos = Long.getLong("uruz7.time.jfr.thresholdMicros",
+            DEFAULT_THRESHOLD.toNanos() / 1000L) * 1000L;
+    private static final Sink SINK = loadSink(JFR_SUPPORT_CLASS);
+
+    /**
+     * Constructor
+     */
+    private ConversionEvents() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Distinguish the events can be emitted or not, false on JVMs without JFR and for jars built without the jfr
+     * profile, i.e. on JDK 8, which have no JfrSupport.
+     *
+     * @return is JFR available?
+     */
+    public static boolean isAvailable() {
+        return null != SINK;
+    }
+
+    /**
+     * Distinguish a flight recording is running or not, conversions are only timed while one is.
+     *
+     * @return is recording?
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    public static Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * Set the duration from which successful conversions are recorded, failed conversions are always recorded.
+     *
+     * @param threshold threshold, zero records every conversion
+     */
+    public static void setThreshold(final Duration threshold) {
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+        }
+        thresholdNanos = threshold.toNanos();
+    }
+
+    static void setRecording(final boolean recording) {
+        ConversionEvents.recording = recording;
+    }
+
+    /**
+     * Start timing a conversion.
+     *
+     * @return start in nanos, NOT_RECORDING if no recording is running
+     */
+    static long start() {
+        return recording ? System.nanoTime() : NOT_RECORDING;
+    }
+
+    /**
+     * Finish timing a conversion and emit the event if it failed or was slow.
+     *
+     * @param startNanos value of start()
+     * @param operation  name of the conversion path
+     * @param fromFormat format of the input
+     * @param toFormat   format of the output
+     * @param input      input timestamp
+     * @param failure    failure of the conversion, null if it succeeded
+     * @param fallback   did a fallback parse run?
+     */
+    static void end(final long startNanos, final String operation, final String fromFormat, final String toFormat,
+            final String input, final Throwable failure, final boolean fallback) {
+        if (startNanos == NOT_RECORDING || null == SINK) {
+            return;
+        }
+        final long durationNanos = System.nanoTime() - startNanos;
+        if (null == failure && durationNanos < thresholdNanos) {
+            return;
+        }
+        SINK.commit(operation, fromFormat, toFormat, null == input ? -1 : input.length(), shapeOf(input),
+                durationNanos, failure, fallback);
+    }
+
+    /**
+     * Load the JFR side, which registers itself for the recording state.
+     *
+     * @param className name of the Sink implementation
+     * @return the sink, null if the class is missing or JFR is not usable on this JVM
+     */
+    static Sink loadSink(final String className) {
+        try {
+            return (Sink) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Describe the layout of the input without its value, e.g. 9999-99-99T99:99:99+99:99.
+     *
+     * @param input input timestamp
+     * @return shape, at most MAX_SHAPE_LENGTH characters
+     */
+    static String shapeOf(final String input) {
+        if (null == input) {
+            return null;
+        }
+        final int length = Math.min(input.length(), MAX_SHAPE_LENGTH);
+        final char[] shape = new char[length];
+        for (int i = 0; i < length; i++) {
+            final char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                shape[i] = '9';
+            } else if (c == 'T' || c == 'Z') {
+                shape[i] = c;
+            } else if (Character.isLetter(c)) {
+                shape[i] = 'a';
+            } else {
+                shape[i] = c;
+            }
+        }
+        return new String(shape);
+    }
+
+    /**
+     * Receiver of the recorded conversions, implemented by JfrSupport.
+     */
+    interface Sink {
+
+        void commit(String operation, String fromFormat, String toFormat, int inputLength, String inputShape,
+                long durationNanos, Throwable failure, boolean fallback);
+
+    }
+
+}
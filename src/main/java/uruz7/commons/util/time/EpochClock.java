@@ -0,0 +1,26 @@
+package uruz7.commons.util.time;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Source of the current time in epoch milliseconds. The system clock is the default, tests and simulations can
+ * inject their own.
+ * <p>
+ */
+@FunctionalInterface
+public interface EpochClock {
+
+    EpochClock SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+
+    /**
+     * Get current epoch second.
+     *
+     * @return current epoch second
+     */
+    default long currentEpochSecond() {
+        return Math.floorDiv(currentTimeMillis(), 1000L);
+    }
+
+}
@@ -0,0 +1,295 @@
+package uruz7.commons.util.time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Hierarchical hashed timing wheel for large numbers of short-lived deadlines. Every level has 64 slots and covers 64
+ * times the span of the level below it, a deadline is hashed into the lowest level that can hold it and is cascaded
+ * down as the wheel turns. Slots are intrusive doubly linked lists, so insert and cancel are O(1).
+ * <p>
+ * schedule() and Timeout.cancel() may be called from any thread, they only enqueue the request. advance() must be
+ * driven by a single thread: it applies the queued requests, turns the wheel up to the current time of the clock and
+ * hands the expired tasks of every tick over as one batch.
+ * <p>
+ */
+public final class HashedTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final long tickMillis;
+    private final EpochClock clock;
+    private final long originMillis;
+    private final Timeout<T>[][] slots;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final List<T> batch = new ArrayList<>();
+    private long currentTick;
+
+    /**
+     * Constructor
+     *
+     * @param tickMillis length of a tick in milliseconds
+     * @param clock      clock source
+     */
+    public HashedTimingWheel(final long tickMillis, final EpochClock clock) {
+        if (tickMillis <= 0L) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.originMillis = clock.currentTimeMillis();
+        @SuppressWarnings("unchecked")
+        final Timeout<T>[][] emptySlots = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+        this.slots = emptySlots;
+    }
+
+    /**
+     * Constructor with one second ticks on the system clock.
+     */
+    public HashedTimingWheel() {
+        this(1000L, EpochClock.SYSTEM);
+    }
+
+    /**
+     * Schedule a task at a deadline in epoch milliseconds.
+     *
+     * @param task           task
+     * @param deadlineMillis deadline in epoch milliseconds
+     * @return handle to cancel the task
+     */
+    public Timeout<T> schedule(final T task, final long deadlineMillis) {
+        final Timeout<T> timeout = new Timeout<>(this, task, deadlineMillis);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Schedule a task at a deadline in epoch seconds.
+     *
+     * @param task        task
+     * @param epochSecond deadline in epoch seconds
+     * @return handle to cancel the task
+     */
+    public Timeout<T> scheduleAtEpochSecond(final T task, final long epochSecond) {
+        return schedule(task, epochSecond * 1000L);
+    }
+
+    /**
+     * Schedule a task at a deadline given as a timestamp string.
+     *
+     * @param task     task
+     * @param deadline deadline timestamp string
+     * @param format   format of the deadline
+     * @return handle to cancel the task
+     */
+    public Timeout<T> schedule(final T task, final String deadline, final TimeFormat format) {
+        return scheduleAtEpochSecond(task, format.getEpochSecond(deadline));
+    }
+
+    /**
+     * Turn the wheel up to the current time of the clock. Tasks whose deadline has passed are handed to the consumer
+     * one batch per tick, the batch list is reused and must not be kept by the consumer.
+     *
+     * @param batchConsumer consumer of the expired tasks
+     * @return number of expired tasks
+     */
+    public int advance(final Consumer<? super List<T>> batchConsumer) {
+        final long targetTick = Math.floorDiv(clock.currentTimeMillis() - originMillis, tickMillis);
+        applyCancellations();
+        applySchedules();
+        int expired = 0;
+        while (currentTick <= targetTick) {
+            if (pending.get() == 0L) {
+                currentTick = targetTick + 1L;
+                break;
+            }
+            expired += processTick(batchConsumer);
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * Number of tasks that are neither expired nor cancelled.
+     *
+     * @return pending task count
+     */
+    public long size() {
+        return pending.get();
+    }
+
+    private int processTick(final Consumer<? super List<T>> batchConsumer) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1L)) == 0L) {
+                cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            }
+        }
+        final int slot = (int) currentTick & SLOT_MASK;
+        Timeout<T> timeout = slots[0][slot];
+        slots[0][slot] = null;
+        while (null != timeout) {
+            final Timeout<T> next = timeout.next;
+            timeout.unlinked();
+            if (timeout.expire()) {
+                pending.decrementAndGet();
+                batch.add(timeout.task);
+            }
+            timeout = next;
+        }
+        final int expired = batch.size();
+        if (expired > 0) {
+            try {
+                batchConsumer.accept(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(final int level, final int slot) {
+        Timeout<T> timeout = slots[level][slot];
+        slots[level][slot] = null;
+        while (null != timeout) {
+            final Timeout<T> next = timeout.next;
+            timeout.unlinked();
+            if (timeout.isPending()) {
+                insert(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void applySchedules() {
+        Timeout<T> timeout;
+        while (null != (timeout = scheduled.poll())) {
+            if (timeout.isPending()) {
+                insert(timeout);
+            }
+        }
+    }
+
+    private void applyCancellations() {
+        Timeout<T> timeout;
+        while (null != (timeout = cancelled.poll())) {
+            if (timeout.level >= 0) {
+                unlink(timeout);
+            }
+        }
+    }
+
+    private void insert(final Timeout<T> timeout) {
+        final long tick = Math.max(Math.floorDiv(timeout.deadlineMillis - originMillis, tickMillis), currentTick);
+        final long difference = tick ^ currentTick;
+        final int level = difference == 0L ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+        final int slot = (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        final Timeout<T> head = slots[level][slot];
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.previous = null;
+        timeout.next = head;
+        if (null != head) {
+            head.previous = timeout;
+        }
+        slots[level][slot] = timeout;
+    }
+
+    private void unlink(final Timeout<T> timeout) {
+        if (null == timeout.previous) {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (null != timeout.next) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.unlinked();
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout<T> {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimingWheel<T> wheel;
+        private final T task;
+        private final long deadlineMillis;
+        private volatile int state;
+        private int level = -1;
+        private int slot;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(final HashedTimingWheel<T> wheel, final T task, final long deadlineMillis) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isPending() {
+            return state == PENDING;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Cancel the task, it will not be handed out by the wheel anymore.
+         *
+         * @return false if the task has already expired or been cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, PENDING, EXPIRED);
+        }
+
+        private void unlinked() {
+            level = -1;
+            previous = null;
+            next = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,251 @@
+package uruz7.commons.util.time;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Table driven parsing and rendering of HTTP dates (RFC 7231), the layout of TimeFormat.HTTP_DATE. Rendering always
+ * produces the preferred IMF-fixdate of RFC 1123, parsing also accepts the obsolete RFC 850 and asctime layouts:
+ * <pre>
+ * Sun, 06 Nov 1994 08:49:37 GMT   IMF-fixdate
+ * Sunday, 06-Nov-94 08:49:37 GMT  RFC 850, two-digit years 70 to 99 are 19xx and 00 to 69 are 20xx
+ * Sun Nov  6 08:49:37 1994        asctime
+ * </pre>
+ * The day name must match the date. CurrentDate keeps the rendering of the current second, so that Date headers are
+ * a shared string read instead of a rendering per response.
+ * <p>
+ */
+public final class HttpDate {
+
+    static final int IMF_FIXDATE_LENGTH = 29;
+
+    private static final int ASCTIME_LENGTH = 24;
+    private static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final String[] FULL_DAY_NAMES = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday",
+            "Saturday", "Sunday"};
+    private static final String[] MONTH_NAMES = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+            "Nov", "Dec"};
+    private static final byte[] MONTHS_BY_KEY = new byte[1 << 15];
+    private static final CurrentDate SYSTEM_CURRENT_DATE = new CurrentDate(EpochClock.SYSTEM);
+
+    static {
+        for (int i = 0; i < MONTH_NAMES.length; i++) {
+            MONTHS_BY_KEY[key(MONTH_NAMES[i], 0)] = (byte) (i + 1);
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    private HttpDate() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Rendering of the current second of the system clock.
+     *
+     * @return IMF-fixdate of now
+     */
+    public static String now() {
+        return SYSTEM_CURRENT_DATE.get();
+    }
+
+    /**
+     * Render epoch seconds as IMF-fixdate.
+     *
+     * @param epochSecond epoch seconds
+     * @return HTTP date
+     */
+    public static String format(final long epochSecond) {
+        return format(epochSecond, new StringBuilder(IMF_FIXDATE_LENGTH)).toString();
+    }
+
+    /**
+     * Render epoch seconds as IMF-fixdate into the buffer.
+     *
+     * @param epochSecond epoch seconds
+     * @param buffer      output buffer
+     * @return the output buffer
+     */
+    public static StringBuilder format(final long epochSecond, final StringBuilder buffer) {
+        final long epochDay = Math.floorDiv(epochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+        final int secondOfDay = (int) (epochSecond - epochDay * CivilCalendar.SECONDS_PER_DAY);
+        final long civil = CivilCalendar.toCivil(epochDay);
+        final int year = CivilCalendar.year(civil);
+        buffer.append(DAY_NAMES[CivilCalendar.dayOfWeek(epochDay) - 1]).append(", ");
+        CivilCalendar.append2(buffer, CivilCalendar.day(civil));
+        buffer.append(' ').append(MONTH_NAMES[CivilCalendar.month(civil) - 1]).append(' ');
+        if (year >= 0 && year <= 9999) {
+            CivilCalendar.append4(buffer, year);
+        } else {
+            buffer.append(year);
+        }
+        buffer.append(' ');
+        CivilCalendar.append2(buffer, secondOfDay / CivilCalendar.SECONDS_PER_HOUR);
+        buffer.append(':');
+        CivilCalendar.append2(buffer, secondOfDay / CivilCalendar.SECONDS_PER_MINUTE % 60);
+        buffer.append(':');
+        CivilCalendar.append2(buffer, secondOfDay % 60);
+        return buffer.append(" GMT");
+    }
+
+    /**
+     * Parse an HTTP date in any of the three layouts.
+     *
+     * @param text HTTP date
+     * @return epoch seconds
+     */
+    public static long parseEpochSecond(final CharSequence text) {
+        final int length = text.length();
+        if (length > 3 && text.charAt(3) == ',') {
+            if (length != IMF_FIXDATE_LENGTH || text.charAt(4) != ' ' || text.charAt(7) != ' '
+                    || text.charAt(11) != ' ' || text.charAt(16) != ' ' || !isGmt(text, 25)) {
+                throw CivilCalendar.parseError(text, 0);
+            }
+            return toEpochSecond(text, dayName(text, 0, 3, DAY_NAMES), CivilCalendar.digits(text, 12, 4),
+                    month(text, 8), CivilCalendar.digits(text, 5, 2), 17);
+        }
+        final int comma = indexOf(text, ',');
+        if (comma > 0) {
+            final int from = comma + 2;
+            if (length != from + 22 || text.charAt(comma + 1) != ' ' || text.charAt(from + 2) != '-'
+                    || text.charAt(from + 6) != '-' || text.charAt(from + 9) != ' ' || !isGmt(text, from + 18)) {
+                throw CivilCalendar.parseError(text, 0);
+            }
+            final int twoDigitYear = CivilCalendar.digits(text, from + 7, 2);
+            final int year = twoDigitYear < 0 ? -1 : twoDigitYear < 70 ? 2000 + twoDigitYear : 1900 + twoDigitYear;
+            return toEpochSecond(text, dayName(text, 0, comma, FULL_DAY_NAMES), year, month(text, from + 3),
+                    CivilCalendar.digits(text, from, 2), from + 10);
+        }
+        if (length != ASCTIME_LENGTH || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' '
+                || text.charAt(19) != ' ') {
+            throw CivilCalendar.parseError(text, 0);
+        }
+        final int day = text.charAt(8) == ' ' ? CivilCalendar.digits(text, 9, 1) : CivilCalendar.digits(text, 8, 2);
+        return toEpochSecond(text, dayName(text, 0, 3, DAY_NAMES), CivilCalendar.digits(text, 20, 4), month(text, 4),
+                day, 11);
+    }
+
+    private static long toEpochSecond(final CharSequence text, final int dayOfWeek, final int year, final int month,
+            final int day, final int timeFrom) {
+        final int hour = CivilCalendar.digits(text, timeFrom, 2);
+        final int minute = CivilCalendar.digits(text, timeFrom + 3, 2);
+        final int second = CivilCalendar.digits(text, timeFrom + 6, 2);
+        if (dayOfWeek < 1 || year < 0 || month < 1 || day < 1 || day > CivilCalendar.lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+                || text.charAt(timeFrom + 2) != ':' || text.charAt(timeFrom + 5) != ':') {
+            throw CivilCalendar.parseError(text, 0);
+        }
+        final long epochDay = CivilCalendar.toEpochDay(year, month, day);
+        if (CivilCalendar.dayOfWeek(epochDay) != dayOfWeek) {
+            throw CivilCalendar.parseError(text, 0);
+        }
+        return epochDay * CivilCalendar.SECONDS_PER_DAY + hour * CivilCalendar.SECONDS_PER_HOUR
+                + minute * CivilCalendar.SECONDS_PER_MINUTE + second;
+    }
+
+    /**
+     * ISO day of week of the name at [from, to), or -1.
+     */
+    private static int dayName(final CharSequence text, final int from, final int to, final String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            if (name.length() == to - from && regionMatches(text, from, name)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(final CharSequence text, final int from, final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (text.charAt(from + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Month of the three-letter name at the index, or -1.
+     */
+    private static int month(final CharSequence text, final int from) {
+        final int key = key(text, from);
+        final int month = key < 0 ? 0 : MONTHS_BY_KEY[key];
+        return month == 0 || !regionMatches(text, from, MONTH_NAMES[month - 1]) ? -1 : month;
+    }
+
+    /**
+     * Packs three ASCII letters into 15 bits, -1 for anything else.
+     */
+    private static int key(final CharSequence text, final int from) {
+        int key = 0;
+        for (int i = from; i < from + 3; i++) {
+            final int letter = (text.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter > 25) {
+                return -1;
+            }
+            key = key << 5 | letter;
+        }
+        return key;
+    }
+
+    private static boolean isGmt(final CharSequence text, final int from) {
+        return text.charAt(from) == ' ' && text.charAt(from + 1) == 'G' && text.charAt(from + 2) == 'M'
+                && text.charAt(from + 3) == 'T';
+    }
+
+    private static int indexOf(final CharSequence text, final char c) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Keeps the rendering of the current second of a clock. The rendering is replaced by the first caller that sees
+     * a new second, every other call is a volatile read and a comparison. Thread safe.
+     */
+    public static final class CurrentDate {
+
+        private final EpochClock clock;
+        private volatile Rendering rendering = new Rendering(Long.MIN_VALUE, null);
+
+        public CurrentDate(final EpochClock clock) {
+            this.clock = clock;
+        }
+
+        /**
+         * Rendering of the current second of the clock.
+         *
+         * @return IMF-fixdate of now
+         */
+        public String get() {
+            final long epochSecond = clock.currentEpochSecond();
+            Rendering current = rendering;
+            if (current.epochSecond != epochSecond) {
+                current = new Rendering(epochSecond, format(epochSecond));
+                rendering = current;
+            }
+            return current.text;
+        }
+
+    }
+
+    /**
+     * An epoch second together with its rendering, published as one.
+     */
+    private static final class Rendering {
+
+        private final long epochSecond;
+        private final String text;
+
+        private Rendering(final long epochSecond, final String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+
+    }
+
+}
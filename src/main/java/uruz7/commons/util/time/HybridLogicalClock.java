@@ -0,0 +1,194 @@
+package uruz7.commons.util.time;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Lock-free hybrid logical clock (Kulkarni et al.) for ordering events across processes whose clocks are skewed.
+ * A value packs the physical epoch milliseconds and a logical counter into one non-negative long:
+ * <pre>
+ * 0 | epoch milliseconds (47 bits) | logical counter (16 bits)
+ * </pre>
+ * so plain long comparison is the happened-before order: send() stamps a local or outgoing event and receive() merges
+ * the stamp of an incoming message, both return a value greater than any value this clock has seen. The physical part
+ * follows the clock source and never falls behind it. An exhausted counter carries into the milliseconds, like
+ * TimeSequenceState does, and the physical part may run ahead of the local clock by the configured drift only:
+ * beyond that, or for a remote stamp from too far in the future, an IllegalStateException is thrown.
+ * <p>
+ */
+public final class HybridLogicalClock {
+
+    public static final int LOGICAL_BITS = 16;
+    public static final long DEFAULT_MAX_DRIFT_MILLIS = 500L;
+
+    private static final long MAX_MILLIS = (1L << Long.SIZE - 1 - LOGICAL_BITS) - 1L;
+    private static final long LOGICAL_MASK = (1L << LOGICAL_BITS) - 1L;
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private final EpochClock clock;
+    private final long maxDriftMillis;
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param clock          clock source
+     * @param maxDriftMillis how far the physical part may run ahead of the clock
+     */
+    public HybridLogicalClock(final EpochClock clock, final long maxDriftMillis) {
+        if (maxDriftMillis < 0L) {
+            throw new IllegalArgumentException("Drift must not be negative: " + maxDriftMillis);
+        }
+        this.clock = clock;
+        this.maxDriftMillis = maxDriftMillis;
+    }
+
+    /**
+     * Constructor with the default drift on the system clock.
+     */
+    public HybridLogicalClock() {
+        this(EpochClock.SYSTEM, DEFAULT_MAX_DRIFT_MILLIS);
+    }
+
+    /**
+     * Stamp a local event or a message to send.
+     *
+     * @return hybrid logical clock value
+     */
+    public long send() {
+        while (true) {
+            final long last = state.get();
+            final long now = physicalNow();
+            final long next = Math.max(last + 1L, now << LOGICAL_BITS);
+            checkDrift(next, now);
+            if (state.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Merge the stamp of a received message.
+     *
+     * @param remote hybrid logical clock value of the sender
+     * @return hybrid logical clock value of the receive event, greater than both the remote and the last local value
+     */
+    public long receive(final long remote) {
+        if (remote < 0L) {
+            throw new IllegalArgumentException("Invalid hybrid logical clock value: " + remote);
+        }
+        while (true) {
+            final long last = state.get();
+            final long now = physicalNow();
+            if (physicalMillis(remote) - now > maxDriftMillis) {
+                throw new IllegalStateException("Remote clock runs " + (physicalMillis(remote) - now)
+                        + " ms ahead of the local clock, more than " + maxDriftMillis + " ms");
+            }
+            final long next = Math.max(Math.max(last, remote) + 1L, now << LOGICAL_BITS);
+            checkDrift(next, now);
+            if (state.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Distinguish the remote stamp is within the drift of the local clock or not, so that messages can be rejected
+     * before receive() throws.
+     *
+     * @param remote hybrid logical clock value of the sender
+     * @return is within the drift?
+     */
+    public boolean isWithinDrift(final long remote) {
+        return remote >= 0L && physicalMillis(remote) - clock.currentTimeMillis() <= maxDriftMillis;
+    }
+
+    /**
+     * The last value of this clock, without advancing it.
+     *
+     * @return hybrid logical clock value, 0 before the first event
+     */
+    public long get() {
+        return state.get();
+    }
+
+    /**
+     * Pack physical milliseconds and a logical counter.
+     *
+     * @param epochMillis epoch milliseconds
+     * @param logical     logical counter
+     * @return hybrid logical clock value
+     */
+    public static long pack(final long epochMillis, final int logical) {
+        if (epochMillis < 0L || epochMillis > MAX_MILLIS) {
+            throw new IllegalArgumentException("Milliseconds are out of range: " + epochMillis);
+        }
+        if (logical < 0 || logical > LOGICAL_MASK) {
+            throw new IllegalArgumentException("Logical counter does not fit into " + LOGICAL_BITS + " bits: "
+                    + logical);
+        }
+        return epochMillis << LOGICAL_BITS | logical;
+    }
+
+    public static long physicalMillis(final long value) {
+        return value >>> LOGICAL_BITS;
+    }
+
+    public static int logical(final long value) {
+        return (int) (value & LOGICAL_MASK);
+    }
+
+    /**
+     * Smallest value at or after the timestamp, e.g. the lower bound of a range scan. A fraction finer than a
+     * millisecond rounds up to the next millisecond.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @return hybrid logical clock value
+     */
+    public static long lowerBound(final String timestamp, final TimeFormat format) {
+        final Instant instant = format.getInstant(timestamp);
+        final long epochMillis = instant.toEpochMilli();
+        return pack(instant.getNano() % NANOS_PER_MILLI == 0 ? epochMillis : epochMillis + 1L, 0);
+    }
+
+    /**
+     * Render the physical part of the value into the format, the logical counter is left out.
+     *
+     * @param value  hybrid logical clock value
+     * @param format target format
+     * @return timestamp string
+     */
+    public static String format(final long value, final TimeFormat format) {
+        return format.getTimestampString(Instant.ofEpochMilli(physicalMillis(value)));
+    }
+
+    /**
+     * Render the value as its instant and logical counter, e.g. 2017-07-27T15:41:00.123Z#5.
+     *
+     * @param value hybrid logical clock value
+     * @return readable value
+     */
+    public static String toString(final long value) {
+        return Instant.ofEpochMilli(physicalMillis(value)) + "#" + logical(value);
+    }
+
+    private long physicalNow() {
+        final long now = clock.currentTimeMillis();
+        if (now < 0L || now > MAX_MILLIS) {
+            throw new IllegalStateException("Clock is outside the range of the hybrid logical clock: " + now);
+        }
+        return now;
+    }
+
+    private void checkDrift(final long next, final long now) {
+        final long drift = physicalMillis(next) - now;
+        if (drift > maxDriftMillis) {
+            throw new IllegalStateException("Hybrid logical clock runs " + drift + " ms ahead of the clock, more than "
+                    + maxDriftMillis + " ms");
+        }
+    }
+
+}
@@ -0,0 +1,315 @@
+package uruz7.commons.util.time;
+
+import java.util.Arrays;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Immutable set of half-open [start, end) epoch ranges, stored as sorted primitive arrays of disjoint, non-adjacent
+ * intervals. Building sorts the ranges once by start (in parallel for large inputs) and merges them in a single
+ * sweep, the set operations are linear merges of two sorted interval lists.
+ * <p>
+ */
+public final class IntervalSet {
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0], 0);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int size;
+
+    private IntervalSet(final long[] starts, final long[] ends, final int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Build a set from arbitrary ranges, overlapping and adjacent ranges are merged and empty ranges are ignored.
+     *
+     * @param starts range starts, inclusive
+     * @param ends   range ends, exclusive
+     * @return interval set
+     */
+    public static IntervalSet of(final long[] starts, final long[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Starts and ends differ in length: " + starts.length + " vs " + ends.length);
+        }
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] > ends[i]) {
+                throw new IllegalArgumentException("Range " + i + " ends before it starts: [" + starts[i] + ", "
+                        + ends[i] + ")");
+            }
+        }
+        final int[] order = TimestampSorter.sortIndices(starts);
+        final Builder builder = new Builder(starts.length);
+        for (final int index : order) {
+            builder.add(starts[index], ends[index]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build a set from ranges whose bounds are timestamp strings, the bounds are parsed once each and in parallel for
+     * large inputs.
+     *
+     * @param starts range starts, inclusive
+     * @param ends   range ends, exclusive
+     * @param format format of the bounds
+     * @return interval set
+     */
+    public static IntervalSet of(final String[] starts, final String[] ends, final TimeFormat format) {
+        return of(TimestampSorter.extractKeys(starts, format), TimestampSorter.extractKeys(ends, format));
+    }
+
+    /**
+     * Build a set holding a single range.
+     *
+     * @param start range start, inclusive
+     * @param end   range end, exclusive
+     * @return interval set
+     */
+    public static IntervalSet of(final long start, final long end) {
+        return of(new long[]{start}, new long[]{end});
+    }
+
+    /**
+     * Number of disjoint intervals.
+     *
+     * @return interval count
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getStart(final int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public long getEnd(final int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Total length covered by the set.
+     *
+     * @return covered length
+     */
+    public long totalLength() {
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            total += ends[i] - starts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Distinguish the value is covered by the set or not.
+     *
+     * @param value epoch value
+     * @return is covered?
+     */
+    public boolean contains(final long value) {
+        final int index = floorIndex(value);
+        return index >= 0 && value < ends[index];
+    }
+
+    /**
+     * Distinguish the range overlaps the set or not.
+     *
+     * @param start range start, inclusive
+     * @param end   range end, exclusive
+     * @return is overlapped?
+     */
+    public boolean overlaps(final long start, final long end) {
+        if (start >= end) {
+            return false;
+        }
+        final int index = floorIndex(end - 1L);
+        return index >= 0 && ends[index] > start;
+    }
+
+    /**
+     * Merge two sets.
+     *
+     * @param another another set
+     * @return union of both sets
+     */
+    public IntervalSet union(final IntervalSet another) {
+        final Builder builder = new Builder(size + another.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < another.size) {
+            if (j == another.size || i < size && starts[i] <= another.starts[j]) {
+                builder.add(starts[i], ends[i]);
+                i++;
+            } else {
+                builder.add(another.starts[j], another.ends[j]);
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Intersect two sets.
+     *
+     * @param another another set
+     * @return ranges covered by both sets
+     */
+    public IntervalSet intersect(final IntervalSet another) {
+        final Builder builder = new Builder(size + another.size);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < another.size) {
+            final long start = Math.max(starts[i], another.starts[j]);
+            final long end = Math.min(ends[i], another.ends[j]);
+            builder.add(start, end);
+            if (ends[i] < another.ends[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Subtract another set from this one.
+     *
+     * @param another set to subtract
+     * @return ranges covered by this set only
+     */
+    public IntervalSet difference(final IntervalSet another) {
+        final Builder builder = new Builder(size + another.size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            long start = starts[i];
+            final long end = ends[i];
+            while (j < another.size && another.ends[j] <= start) {
+                j++;
+            }
+            int k = j;
+            while (k < another.size && another.starts[k] < end) {
+                builder.add(start, another.starts[k]);
+                start = Math.max(start, another.ends[k]);
+                k++;
+            }
+            builder.add(start, end);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Extract the gaps of the set within the bounds, e.g. the free windows between busy ranges.
+     *
+     * @param from lower bound, inclusive
+     * @param to   upper bound, exclusive
+     * @return uncovered ranges within the bounds
+     */
+    public IntervalSet gaps(final long from, final long to) {
+        return of(from, to).difference(this);
+    }
+
+    /**
+     * Extract the gaps between the intervals of the set.
+     *
+     * @return uncovered ranges between the first start and the last end
+     */
+    public IntervalSet gaps() {
+        return isEmpty() ? EMPTY : gaps(starts[0], ends[size - 1]);
+    }
+
+    @Override
+    public boolean equals(final Object another) {
+        if (this == another) {
+            return true;
+        }
+        if (!(another instanceof IntervalSet)) {
+            return false;
+        }
+        final IntervalSet intervalSet = (IntervalSet) another;
+        return size == intervalSet.size && Arrays.equals(Arrays.copyOf(starts, size),
+                Arrays.copyOf(intervalSet.starts, size)) && Arrays.equals(Arrays.copyOf(ends, size),
+                Arrays.copyOf(intervalSet.ends, size));
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(starts[i]);
+            hash = 31 * hash + Long.hashCode(ends[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            builder.append(i == 0 ? "[" : ", [").append(starts[i]).append(", ").append(ends[i]).append(')');
+        }
+        return builder.append('}').toString();
+    }
+
+    private int floorIndex(final long value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (starts[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * Collects ranges sorted by start and merges them on the fly.
+     */
+    private static final class Builder {
+
+        private final long[] starts;
+        private final long[] ends;
+        private int size;
+
+        private Builder(final int capacity) {
+            this.starts = new long[capacity];
+            this.ends = new long[capacity];
+        }
+
+        private void add(final long start, final long end) {
+            if (start >= end) {
+                return;
+            }
+            if (size > 0 && start <= ends[size - 1]) {
+                ends[size - 1] = Math.max(ends[size - 1], end);
+                return;
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        private IntervalSet build() {
+            return size == 0 ? EMPTY : new IntervalSet(starts, ends, size);
+        }
+
+    }
+
+}
@@ -19,6 +19,8 @@ public final class Iso8601TimeUtil {
     private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssXXX";
     private static final String DEFAULT_DATE_FORMAT_WITH_MILLISECOND = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
     private static final String MYSQL_DATE_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String CONVERT_OPERATION = "Iso8601TimeUtil.convertIso8601ToUnixTimestamp";
+    private static final String UNIX_TIME = "UNIX_TIME";
 
     /**
      * Constructor
@@ -51,12 +53,23 @@ public final class Iso8601TimeUtil {
      */
     public static String convertIso8601ToUnixTimestamp(final String iso8601, final String dateFormat, final Locale locale,
             final TimeZone timeZone) throws ParseException {
+        final long startNanos = ConversionEvents.start();
         final SimpleDateFormat simpleDateFormat = getSimpleDateFormat(dateFormat, locale, timeZone);
+        boolean fallback = false;
         try {
-            return String.valueOf(simpleDateFormat.parse(iso8601).getTime() / MILLISECOND);
-        } catch (ParseException parseException) {
-            final SimpleDateFormat formatWithMs = new SimpleDateFormat(DEFAULT_DATE_FORMAT_WITH_MILLISECOND, locale);
-            return String.valueOf(formatWithMs.parse(iso8601).getTime() / MILLISECOND);
+            String unixTimestamp;
+            try {
+                unixTimestamp = String.valueOf(simpleDateFormat.parse(iso8601).getTime() / MILLISECOND);
+            } catch (ParseException parseException) {
+                fallback = true;
+                final SimpleDateFormat formatWithMs = new SimpleDateFormat(DEFAULT_DATE_FORMAT_WITH_MILLISECOND, locale);
+                unixTimestamp = String.valueOf(formatWithMs.parse(iso8601).getTime() / MILLISECOND);
+            }
+            ConversionEvents.end(startNanos, CONVERT_OPERATION, dateFormat, UNIX_TIME, iso8601, null, fallback);
+            return unixTimestamp;
+        } catch (ParseException | RuntimeException e) {
+            ConversionEvents.end(startNanos, CONVERT_OPERATION, dateFormat, UNIX_TIME, iso8601, e, fallback);
+            throw e;
         }
     }
 
@@ -0,0 +1,204 @@
+package uruz7.commons.util.time;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Re-zones ISO-8601 timestamps by reading the date, time and offset fields once and applying the target zone's
+ * offset arithmetically, without going through Instant, Unix timestamp strings or DateTimeFormatter.
+ * The input layout is yyyy-MM-dd'T'HH:mm:ss[.fraction] followed by 'Z' or an offset such as +08:00, the output
+ * layout is the same as JdkIso8601TimeUtil: yyyy-MM-dd'T'HH:mm:ssXXX.
+ * <p>
+ */
+public final class Iso8601ZoneShifter {
+
+    private static final int LOCAL_DATE_TIME_LENGTH = 19;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssXXX";
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+
+    /**
+     * Constructor
+     */
+    private Iso8601ZoneShifter() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Shift the time zone of the timestamp to UTC+8.
+     *
+     * @param iso8601 ISO-8601 time string
+     * @return ISO-8601 time string, null if the input is empty
+     */
+    public static String shift(final CharSequence iso8601) {
+        return shift(iso8601, DEFAULT_ZONE_ID);
+    }
+
+    /**
+     * Shift the time zone of the timestamp to specified time zone.
+     *
+     * @param iso8601 ISO-8601 time string
+     * @param zoneId  zone id
+     * @return ISO-8601 time string, null if the input is empty
+     */
+    public static String shift(final CharSequence iso8601, final ZoneId zoneId) {
+        if (null == iso8601 || iso8601.length() == 0) {
+            return null;
+        }
+        return shiftInto(iso8601, new ZoneOffsetLookup(zoneId), new StringBuilder(25)).toString();
+    }
+
+    /**
+     * Shift the time zone of the timestamp to specified time zone and append the result to the buffer.
+     *
+     * @param iso8601 ISO-8601 time string
+     * @param zoneId  zone id
+     * @param buffer  output buffer
+     * @return the buffer
+     */
+    public static StringBuilder shift(final CharSequence iso8601, final ZoneId zoneId, final StringBuilder buffer) {
+        return shiftInto(iso8601, new ZoneOffsetLookup(zoneId), buffer);
+    }
+
+    /**
+     * Shift the time zone of every timestamp to specified time zone.
+     *
+     * @param iso8601s ISO-8601 time strings
+     * @param zoneId   zone id
+     * @return ISO-8601 time strings, null for every empty input
+     */
+    public static String[] shiftAll(final CharSequence[] iso8601s, final ZoneId zoneId) {
+        final String[] shifted = new String[iso8601s.length];
+        shiftAll(iso8601s, zoneId, shifted);
+        return shifted;
+    }
+
+    /**
+     * Shift the time zone of every timestamp to specified time zone and store the results in the output array.
+     * The zone offset and the output buffer are reused across the whole array.
+     *
+     * @param iso8601s ISO-8601 time strings
+     * @param zoneId   zone id
+     * @param shifted  output array, at least as long as the input
+     */
+    public static void shiftAll(final CharSequence[] iso8601s, final ZoneId zoneId, final String[] shifted) {
+        if (shifted.length < iso8601s.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input: " + shifted.length);
+        }
+        final ZoneOffsetLookup lookup = new ZoneOffsetLookup(zoneId);
+        final StringBuilder buffer = new StringBuilder(25);
+        for (int i = 0; i < iso8601s.length; i++) {
+            final CharSequence iso8601 = iso8601s[i];
+            if (null == iso8601 || iso8601.length() == 0) {
+                shifted[i] = null;
+            } else {
+                buffer.setLength(0);
+                shifted[i] = shiftInto(iso8601, lookup, buffer).toString();
+            }
+        }
+    }
+
+    /**
+     * Parse an ISO-8601 timestamp with an explicit offset into epoch seconds, the fraction is truncated.
+     *
+     * @param iso8601 ISO-8601 time string
+     * @return epoch seconds
+     */
+    static long parseEpochSecond(final CharSequence iso8601) {
+        final long localEpochSecond = parseLocalPart(iso8601);
+        return localEpochSecond - parseOffset(iso8601, skipFraction(iso8601));
+    }
+
+    /**
+     * Parse the offset written at the end of an ISO-8601 timestamp.
+     *
+     * @param iso8601 ISO-8601 time string
+     * @return offset in seconds
+     */
+    static int parseOffsetSeconds(final CharSequence iso8601) {
+        if (iso8601.length() < LOCAL_DATE_TIME_LENGTH + 1) {
+            throw CivilCalendar.parseError(iso8601, iso8601.length());
+        }
+        return parseOffset(iso8601, skipFraction(iso8601));
+    }
+
+    /**
+     * Append the instant as yyyy-MM-dd'T'HH:mm:ssXXX in the zone of the lookup.
+     *
+     * @param buffer      output buffer
+     * @param epochSecond instant in epoch seconds
+     * @param lookup      offset lookup of the target zone
+     */
+    static void appendIso8601(final StringBuilder buffer, final long epochSecond, final ZoneOffsetLookup lookup) {
+        final int offsetSeconds = lookup.offsetAt(epochSecond);
+        if (CivilCalendar.appendLocalDateTime(buffer, epochSecond + offsetSeconds, 'T')) {
+            CivilCalendar.appendOffset(buffer, offsetSeconds);
+        } else {
+            buffer.append(DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT)
+                    .format(Instant.ofEpochSecond(epochSecond).atZone(lookup.getZoneId())));
+        }
+    }
+
+    private static StringBuilder shiftInto(final CharSequence iso8601, final ZoneOffsetLookup lookup,
+            final StringBuilder buffer) {
+        appendIso8601(buffer, parseEpochSecond(iso8601), lookup);
+        return buffer;
+    }
+
+    private static long parseLocalPart(final CharSequence iso8601) {
+        if (iso8601.length() < LOCAL_DATE_TIME_LENGTH + 1) {
+            throw CivilCalendar.parseError(iso8601, iso8601.length());
+        }
+        final char separator = iso8601.charAt(10);
+        if (separator != 'T' && separator != 't') {
+            throw CivilCalendar.parseError(iso8601, 10);
+        }
+        if (iso8601.charAt(17) == '6' && iso8601.charAt(18) == '0' && isEndOfDay(iso8601)) {
+            // leap second, accepted as the last second of the minute like Instant.parse does
+            return CivilCalendar.parseLocalDateTime(iso8601.subSequence(0, 17) + "59", 0, separator);
+        }
+        return CivilCalendar.parseLocalDateTime(iso8601, 0, separator);
+    }
+
+    private static boolean isEndOfDay(final CharSequence iso8601) {
+        return CivilCalendar.digits(iso8601, 11, 2) == 23 && CivilCalendar.digits(iso8601, 14, 2) == 59;
+    }
+
+    private static int skipFraction(final CharSequence iso8601) {
+        int index = LOCAL_DATE_TIME_LENGTH;
+        if (iso8601.charAt(index) != '.') {
+            return index;
+        }
+        index++;
+        final int start = index;
+        while (index < iso8601.length() && iso8601.charAt(index) >= '0' && iso8601.charAt(index) <= '9') {
+            index++;
+        }
+        if (index == start || index - start > MAX_FRACTION_DIGITS) {
+            throw CivilCalendar.parseError(iso8601, start);
+        }
+        return index;
+    }
+
+    private static int parseOffset(final CharSequence iso8601, final int index) {
+        final int remaining = iso8601.length() - index;
+        final char sign = index < iso8601.length() ? iso8601.charAt(index) : ' ';
+        if ((sign == 'Z' || sign == 'z') && remaining == 1) {
+            return 0;
+        }
+        if ((sign == '+' || sign == '-') && remaining == 6 && iso8601.charAt(index + 3) == ':') {
+            final int hours = CivilCalendar.digits(iso8601, index + 1, 2);
+            final int minutes = CivilCalendar.digits(iso8601, index + 4, 2);
+            final int offsetSeconds = hours * CivilCalendar.SECONDS_PER_HOUR + minutes * CivilCalendar.SECONDS_PER_MINUTE;
+            if (hours >= 0 && minutes >= 0 && minutes <= 59 && offsetSeconds <= MAX_OFFSET_SECONDS) {
+                return sign == '-' ? -offsetSeconds : offsetSeconds;
+            }
+        }
+        throw CivilCalendar.parseError(iso8601, index);
+    }
+
+}
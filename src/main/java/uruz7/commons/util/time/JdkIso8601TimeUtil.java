@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * @author Carl Lu
@@ -121,14 +122,20 @@ public class JdkIso8601TimeUtil {
     }
 
     /**
-     * Shift the time zone of the timestamp to specified time zone
+     * Shift the time zone of the timestamp to specified time zone. The usual layouts go through Iso8601ZoneShifter,
+     * text it cannot read (e.g. 24:00:00 or years beyond 9999) takes the Instant.parse round trip, so it is accepted
+     * or rejected as before.
      *
      * @param iso8601 ISO-8601 time string
      * @param zoneId  zone id
      * @return ISO-8601 time string
      */
     public static String shiftTimeZoneForIso8601Timestamp(final String iso8601, final ZoneId zoneId) {
-        return optionalConvertUnixTimestampToIso8601(optionalConvertIso8601ToUnixTimestamp(iso8601), zoneId);
+        try {
+            return Iso8601ZoneShifter.shift(iso8601, zoneId);
+        } catch (DateTimeParseException e) {
+            return optionalConvertUnixTimestampToIso8601(optionalConvertIso8601ToUnixTimestamp(iso8601), zoneId);
+        }
     }
 
     /**
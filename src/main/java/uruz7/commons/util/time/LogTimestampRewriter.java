@@ -0,0 +1,358 @@
+package uruz7.commons.util.time;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Single pass, regex-free rewriter that normalizes the timestamps embedded in free-form log lines into one target
+ * format. The scanner recognizes three kinds of tokens, each delimited by characters that are not letters, digits or
+ * underscores:
+ * <pre>
+ * ISO-8601:       yyyy-MM-dd'T'HH:mm:ss[.fraction](Z|+HH:mm|-HH:mm)
+ * MySQL datetime: yyyy-MM-dd HH:mm:ss[.fraction][Z|+HH:mm|-HH:mm], wall clock time of Asia/Taipei like
+ *                 MYSQL_DATE_TIME unless an offset follows
+ * Unix epoch:     exactly ten digits
+ * </pre>
+ * Every recognized token is replaced by its rendering in the target format, everything else, invalid dates included,
+ * is copied through untouched. The byte[] variant works on ASCII compatible encodings such as UTF-8 and copies the
+ * unchanged bytes verbatim.
+ * <p>
+ * An instance keeps scanning state and offset caches, so it is not thread safe: use one per thread.
+ * <p>
+ */
+public final class LogTimestampRewriter {
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final int LOCAL_DATE_TIME_LENGTH = 19;
+    private static final int EPOCH_DIGITS = 10;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int MAX_OFFSET_SECONDS = 18 * CivilCalendar.SECONDS_PER_HOUR;
+
+    private final TimeFormat targetFormat;
+    private final ZoneOffsetLookup defaultLookup = new ZoneOffsetLookup(DEFAULT_ZONE_ID);
+    private final ZoneOffsetLookup utcLookup = new ZoneOffsetLookup(ZoneOffset.UTC);
+    private final StringBuilder rendering = new StringBuilder(32);
+    private final ByteSequence byteSequence = new ByteSequence();
+    private byte[] encoded = new byte[32];
+    private int tokenStart;
+    private int tokenEnd;
+    private long epochSecond;
+    private int nano;
+    private int rewritten;
+
+    /**
+     * Constructor
+     *
+     * @param targetFormat format every recognized timestamp is rewritten into
+     */
+    public LogTimestampRewriter(final TimeFormat targetFormat) {
+        if (null == targetFormat) {
+            throw new IllegalArgumentException("Target format must not be null");
+        }
+        this.targetFormat = targetFormat;
+    }
+
+    /**
+     * Rewrite the timestamps of the text.
+     *
+     * @param text input text
+     * @return rewritten text
+     */
+    public String rewrite(final CharSequence text) {
+        return rewrite(text, new StringBuilder(text.length() + 16)).toString();
+    }
+
+    /**
+     * Rewrite the timestamps of the text and append the result to the output.
+     *
+     * @param text   input text
+     * @param output output buffer
+     * @return the output buffer
+     */
+    public StringBuilder rewrite(final CharSequence text, final StringBuilder output) {
+        final int length = text.length();
+        int copied = 0;
+        int index = 0;
+        while (nextToken(text, 0, index, length)) {
+            output.append(text, copied, tokenStart);
+            render();
+            output.append(rendering);
+            copied = index = tokenEnd;
+        }
+        return output.append(text, copied, length);
+    }
+
+    /**
+     * Rewrite the timestamps of an encoded byte range and write the result to the stream.
+     *
+     * @param bytes  input bytes in an ASCII compatible encoding
+     * @param offset index of the first byte
+     * @param length number of bytes
+     * @param output output stream
+     * @throws IOException if the stream fails
+     */
+    public void rewrite(final byte[] bytes, final int offset, final int length, final OutputStream output)
+            throws IOException {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") is out of "
+                    + bytes.length + " bytes");
+        }
+        byteSequence.bytes = bytes;
+        try {
+            final int end = offset + length;
+            int copied = offset;
+            int index = offset;
+            while (nextToken(byteSequence, offset, index, end)) {
+                output.write(bytes, copied, tokenStart - copied);
+                render();
+                output.write(renderedBytes(), 0, rendering.length());
+                copied = index = tokenEnd;
+            }
+            output.write(bytes, copied, end - copied);
+        } finally {
+            byteSequence.bytes = null;
+        }
+    }
+
+    /**
+     * Rewrite the timestamps of an encoded line.
+     *
+     * @param bytes input bytes in an ASCII compatible encoding
+     * @return rewritten bytes
+     */
+    public byte[] rewrite(final byte[] bytes) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length + 16);
+        try {
+            rewrite(bytes, 0, bytes.length, output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Number of tokens rewritten by this instance so far.
+     *
+     * @return rewritten token count
+     */
+    public int getRewrittenCount() {
+        return rewritten;
+    }
+
+    public TimeFormat getTargetFormat() {
+        return targetFormat;
+    }
+
+    private byte[] renderedBytes() {
+        if (encoded.length < rendering.length()) {
+            encoded = new byte[rendering.length()];
+        }
+        for (int i = 0; i < rendering.length(); i++) {
+            encoded[i] = (byte) rendering.charAt(i);
+        }
+        return encoded;
+    }
+
+    private boolean nextToken(final CharSequence text, final int lowerBound, final int from, final int to) {
+        int index = from;
+        while (index < to) {
+            if (!isDigit(text.charAt(index)) || index > lowerBound && isWordChar(text.charAt(index - 1))) {
+                index++;
+                continue;
+            }
+            if (matchDateTime(text, index, to) || matchEpoch(text, index, to)) {
+                rewritten++;
+                return true;
+            }
+            while (index < to && isWordChar(text.charAt(index))) {
+                index++;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchDateTime(final CharSequence text, final int start, final int to) {
+        if (start + LOCAL_DATE_TIME_LENGTH > to || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-'
+                || text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':') {
+            return false;
+        }
+        final char separator = text.charAt(start + 10);
+        if (separator != 'T' && separator != 't' && separator != ' ') {
+            return false;
+        }
+        final long localEpochSecond;
+        try {
+            localEpochSecond = CivilCalendar.parseLocalDateTime(text, start, separator);
+        } catch (DateTimeException e) {
+            return false;
+        }
+        int index = start + LOCAL_DATE_TIME_LENGTH;
+        int fraction = 0;
+        if (index + 1 < to && text.charAt(index) == '.' && isDigit(text.charAt(index + 1))) {
+            index++;
+            int digits = 0;
+            while (index < to && isDigit(text.charAt(index)) && digits < MAX_FRACTION_DIGITS) {
+                fraction = fraction * 10 + text.charAt(index) - '0';
+                index++;
+                digits++;
+            }
+            for (; digits < MAX_FRACTION_DIGITS; digits++) {
+                fraction *= 10;
+            }
+        }
+        final int offsetEnd = matchOffset(text, index, to);
+        if (separator == ' ' && offsetEnd < 0) {
+            // an invalid offset such as +25:00 must not be left behind a rewritten local time
+            if (index < to && (isWordChar(text.charAt(index)) || isSignedDigit(text, index, to))) {
+                return false;
+            }
+            epochSecond = defaultLookup.toEpochSecond(localEpochSecond);
+        } else {
+            if (offsetEnd < 0 || offsetEnd < to && isWordChar(text.charAt(offsetEnd))) {
+                return false;
+            }
+            epochSecond = localEpochSecond - offsetSeconds(text, index);
+            index = offsetEnd;
+        }
+        nano = fraction;
+        tokenStart = start;
+        tokenEnd = index;
+        return true;
+    }
+
+    private static int matchOffset(final CharSequence text, final int index, final int to) {
+        if (index >= to) {
+            return -1;
+        }
+        final char sign = text.charAt(index);
+        if (sign == 'Z' || sign == 'z') {
+            return index + 1;
+        }
+        if ((sign == '+' || sign == '-') && index + 6 <= to && text.charAt(index + 3) == ':') {
+            final int hours = CivilCalendar.digits(text, index + 1, 2);
+            final int minutes = CivilCalendar.digits(text, index + 4, 2);
+            if (hours >= 0 && minutes >= 0 && minutes <= 59
+                    && hours * CivilCalendar.SECONDS_PER_HOUR + minutes * CivilCalendar.SECONDS_PER_MINUTE
+                    <= MAX_OFFSET_SECONDS) {
+                return index + 6;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSignedDigit(final CharSequence text, final int index, final int to) {
+        final char sign = text.charAt(index);
+        return (sign == '+' || sign == '-') && index + 1 < to && isDigit(text.charAt(index + 1));
+    }
+
+    private static int offsetSeconds(final CharSequence text, final int index) {
+        final char sign = text.charAt(index);
+        if (sign == 'Z' || sign == 'z') {
+            return 0;
+        }
+        final int offsetSeconds = CivilCalendar.digits(text, index + 1, 2) * CivilCalendar.SECONDS_PER_HOUR
+                + CivilCalendar.digits(text, index + 4, 2) * CivilCalendar.SECONDS_PER_MINUTE;
+        return sign == '-' ? -offsetSeconds : offsetSeconds;
+    }
+
+    private boolean matchEpoch(final CharSequence text, final int start, final int to) {
+        final int end = start + EPOCH_DIGITS;
+        if (end > to || end < to && isWordChar(text.charAt(end))) {
+            return false;
+        }
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return false;
+            }
+            value = value * 10 + c - '0';
+        }
+        epochSecond = value;
+        nano = 0;
+        tokenStart = start;
+        tokenEnd = end;
+        return true;
+    }
+
+    private void render() {
+        rendering.setLength(0);
+        switch (targetFormat) {
+            case UNIX_TIME:
+                rendering.append(epochSecond);
+                return;
+            case ISO8601UTC:
+                Iso8601ZoneShifter.appendIso8601(rendering, epochSecond, utcLookup);
+                return;
+            case ISO8601TW:
+                Iso8601ZoneShifter.appendIso8601(rendering, epochSecond, defaultLookup);
+                return;
+            case MYSQL_DATE_TIME:
+                if (CivilCalendar.appendLocalDateTime(rendering,
+                        epochSecond + defaultLookup.offsetAt(epochSecond), ' ')) {
+                    return;
+                }
+                break;
+            case DB_DATE_TIME:
+                if (CivilCalendar.appendLocalDateTime(rendering,
+                        epochSecond + defaultLookup.offsetAt(epochSecond), ' ')) {
+                    rendering.append('.').append((char) ('0' + nano / 100000000));
+                    return;
+                }
+                break;
+            case HTTP_DATE:
+                HttpDate.format(epochSecond, rendering);
+                return;
+            default:
+                break;
+        }
+        rendering.setLength(0);
+        rendering.append(targetFormat.getTimestampString(Instant.ofEpochSecond(epochSecond, nano)));
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(final char c) {
+        return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '_';
+    }
+
+    /**
+     * Read-only view of a byte array as ISO-8859-1 characters, enough to scan for ASCII tokens.
+     */
+    private static final class ByteSequence implements CharSequence {
+
+        private byte[] bytes;
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+    }
+
+}
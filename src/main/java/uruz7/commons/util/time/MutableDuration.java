@@ -0,0 +1,285 @@
+package uruz7.commons.util.time;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Reusable, mutable holder of an exact duration in seconds and nanos, normalized like java.time.Duration: the nanos
+ * are always within [0, 999999999] and the seconds carry the sign. It parses and renders the ISO-8601 duration
+ * layout of Duration.parse and Duration.toString, e.g. PT15M, P1DT2H or -PT0.5S, without creating objects, so one
+ * instance per thread or per loop replaces the Duration intermediates. Years, months and weeks are rejected like
+ * Duration.parse does, as they have no fixed length. Instances are not thread safe.
+ * <p>
+ */
+public final class MutableDuration {
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int[] FRACTION_SCALES = {1000000000, 100000000, 10000000, 1000000, 100000, 10000, 1000, 100,
+            10, 1};
+
+    private long seconds;
+    private int nano;
+
+    /**
+     * Set the duration, the nanos are normalized into the seconds.
+     *
+     * @param seconds seconds
+     * @param nanos   nano adjustment, any value
+     * @return this holder
+     */
+    public MutableDuration set(final long seconds, final long nanos) {
+        this.seconds = Math.addExact(seconds, Math.floorDiv(nanos, (long) CivilCalendar.NANOS_PER_SECOND));
+        this.nano = (int) Math.floorMod(nanos, (long) CivilCalendar.NANOS_PER_SECOND);
+        return this;
+    }
+
+    public MutableDuration set(final Duration duration) {
+        return set(duration.getSeconds(), duration.getNano());
+    }
+
+    public MutableDuration set(final MutableDuration another) {
+        return set(another.seconds, another.nano);
+    }
+
+    /**
+     * Parse an ISO-8601 duration into this holder.
+     *
+     * @param text duration text
+     * @return this holder
+     */
+    public MutableDuration parse(final CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parse an ISO-8601 duration from a range of the text into this holder, e.g. a part of an interval.
+     *
+     * @param text text
+     * @param from first index of the duration, inclusive
+     * @param to   last index of the duration, exclusive
+     * @return this holder
+     */
+    public MutableDuration parse(final CharSequence text, final int from, final int to) {
+        int index = from;
+        boolean negative = false;
+        if (index < to && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+            negative = text.charAt(index) == '-';
+            index++;
+        }
+        if (index >= to || Character.toUpperCase(text.charAt(index)) != 'P') {
+            throw CivilCalendar.parseError(text, index);
+        }
+        index++;
+        long totalSeconds = 0L;
+        long totalNanos = 0L;
+        boolean found = false;
+        try {
+            if (index < to && Character.toUpperCase(text.charAt(index)) != 'T') {
+                final long days = parseNumber(text, index, to);
+                index = numberEnd(text, index, to);
+                if (index >= to || Character.toUpperCase(text.charAt(index)) != 'D') {
+                    throw CivilCalendar.parseError(text, index);
+                }
+                totalSeconds = Math.multiplyExact(days, (long) CivilCalendar.SECONDS_PER_DAY);
+                index++;
+                found = true;
+            }
+            if (index < to) {
+                if (Character.toUpperCase(text.charAt(index)) != 'T' || index + 1 == to) {
+                    throw CivilCalendar.parseError(text, index);
+                }
+                index++;
+                int stage = 0;
+                while (index < to) {
+                    final int numberStart = index;
+                    final long value = parseNumber(text, index, to);
+                    index = numberEnd(text, index, to);
+                    if (index < to && (text.charAt(index) == '.' || text.charAt(index) == ',')) {
+                        final int fractionStart = ++index;
+                        int fraction = 0;
+                        while (index < to && index - fractionStart < MAX_FRACTION_DIGITS
+                                && isDigit(text.charAt(index))) {
+                            fraction = fraction * 10 + text.charAt(index++) - '0';
+                        }
+                        if (index >= to || Character.toUpperCase(text.charAt(index)) != 'S' || stage == 3) {
+                            throw CivilCalendar.parseError(text, index);
+                        }
+                        totalSeconds = Math.addExact(totalSeconds, value);
+                        final long nanos = (long) fraction * FRACTION_SCALES[index - fractionStart];
+                        totalNanos = text.charAt(numberStart) == '-' ? -nanos : nanos;
+                        stage = 3;
+                        index++;
+                        continue;
+                    }
+                    if (index >= to) {
+                        throw CivilCalendar.parseError(text, index);
+                    }
+                    final char unit = Character.toUpperCase(text.charAt(index));
+                    final int unitStage = unit == 'H' ? 1 : unit == 'M' ? 2 : unit == 'S' ? 3 : 4;
+                    if (unitStage <= stage || unitStage == 4) {
+                        throw CivilCalendar.parseError(text, index);
+                    }
+                    final long unitSeconds = unit == 'H' ? CivilCalendar.SECONDS_PER_HOUR
+                            : unit == 'M' ? CivilCalendar.SECONDS_PER_MINUTE : 1L;
+                    totalSeconds = Math.addExact(totalSeconds, Math.multiplyExact(value, unitSeconds));
+                    stage = unitStage;
+                    index++;
+                }
+                found = true;
+            }
+            if (!found) {
+                throw CivilCalendar.parseError(text, index);
+            }
+            if (negative) {
+                totalSeconds = Math.negateExact(totalSeconds);
+                totalNanos = -totalNanos;
+            }
+            return set(totalSeconds, totalNanos);
+        } catch (ArithmeticException e) {
+            throw CivilCalendar.parseError(text, from);
+        }
+    }
+
+    /**
+     * Render this holder like Duration.toString of Java 9 and later, e.g. PT8H6M12.345S.
+     *
+     * @param buffer output buffer
+     * @return the output buffer
+     */
+    public StringBuilder format(final StringBuilder buffer) {
+        if (seconds == 0L && nano == 0) {
+            return buffer.append("PT0S");
+        }
+        // a negative duration with a fraction is split from the seconds rounded towards zero, so that every field
+        // carries the sign, e.g. PT-4H-24M-59.5S instead of the mixed signs of Duration.toString in Java 8
+        final long effectiveSeconds = seconds < 0L && nano > 0 ? seconds + 1L : seconds;
+        final long hours = effectiveSeconds / CivilCalendar.SECONDS_PER_HOUR;
+        final int minutes = (int) (effectiveSeconds % CivilCalendar.SECONDS_PER_HOUR
+                / CivilCalendar.SECONDS_PER_MINUTE);
+        final int secs = (int) (effectiveSeconds % CivilCalendar.SECONDS_PER_MINUTE);
+        final int start = buffer.length();
+        buffer.append("PT");
+        if (hours != 0L) {
+            buffer.append(hours).append('H');
+        }
+        if (minutes != 0) {
+            buffer.append(minutes).append('M');
+        }
+        if (secs == 0 && nano == 0 && buffer.length() > start + 2) {
+            return buffer;
+        }
+        if (seconds < 0L && nano > 0 && secs == 0) {
+            buffer.append("-0");
+        } else {
+            buffer.append(secs);
+        }
+        if (nano > 0) {
+            final int position = buffer.length();
+            if (seconds < 0L) {
+                buffer.append(2L * CivilCalendar.NANOS_PER_SECOND - nano);
+            } else {
+                buffer.append(nano + CivilCalendar.NANOS_PER_SECOND);
+            }
+            while (buffer.charAt(buffer.length() - 1) == '0') {
+                buffer.setLength(buffer.length() - 1);
+            }
+            buffer.setCharAt(position, '.');
+        }
+        return buffer.append('S');
+    }
+
+    /**
+     * Render this holder like Duration.toString.
+     *
+     * @return duration text
+     */
+    public String format() {
+        return format(new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Add this duration to the instant of the timestamp holder, its offset is kept.
+     *
+     * @param timestamp timestamp holder
+     * @return the timestamp holder
+     */
+    public MutableTimestamp addTo(final MutableTimestamp timestamp) {
+        final long nanos = (long) timestamp.getNano() + nano;
+        try {
+            return timestamp.set(Math.addExact(Math.addExact(timestamp.getEpochSecond(), seconds),
+                    nanos / CivilCalendar.NANOS_PER_SECOND), (int) (nanos % CivilCalendar.NANOS_PER_SECOND),
+                    timestamp.getOffsetSeconds());
+        } catch (ArithmeticException e) {
+            throw new DateTimeException("Instant exceeds the supported range", e);
+        }
+    }
+
+    /**
+     * Subtract this duration from the instant of the timestamp holder, its offset is kept.
+     *
+     * @param timestamp timestamp holder
+     * @return the timestamp holder
+     */
+    public MutableTimestamp subtractFrom(final MutableTimestamp timestamp) {
+        final long nanos = (long) timestamp.getNano() - nano;
+        try {
+            return timestamp.set(Math.addExact(Math.subtractExact(timestamp.getEpochSecond(), seconds),
+                    Math.floorDiv(nanos, (long) CivilCalendar.NANOS_PER_SECOND)),
+                    (int) Math.floorMod(nanos, (long) CivilCalendar.NANOS_PER_SECOND), timestamp.getOffsetSeconds());
+        } catch (ArithmeticException e) {
+            throw new DateTimeException("Instant exceeds the supported range", e);
+        }
+    }
+
+    public Duration toDuration() {
+        return Duration.ofSeconds(seconds, nano);
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public int getNano() {
+        return nano;
+    }
+
+    public boolean isNegative() {
+        return seconds < 0L;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    private static long parseNumber(final CharSequence text, final int from, final int to) {
+        int index = from;
+        final boolean negative = index < to && text.charAt(index) == '-';
+        if (index < to && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+            index++;
+        }
+        if (index >= to || !isDigit(text.charAt(index))) {
+            throw CivilCalendar.parseError(text, index);
+        }
+        long value = 0L;
+        while (index < to && isDigit(text.charAt(index))) {
+            value = Math.addExact(Math.multiplyExact(value, 10L), (long) (text.charAt(index++) - '0'));
+        }
+        return negative ? -value : value;
+    }
+
+    private static int numberEnd(final CharSequence text, final int from, final int to) {
+        int index = from + 1;
+        while (index < to && isDigit(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,227 @@
+package uruz7.commons.util.time;
+
+import java.time.DateTimeException;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Reusable, mutable holder of an ISO-8601 time interval [start, end). It parses the start/end, start/duration and
+ * duration/end layouts, where the instants are in any TimeFormat and the durations in the layout of MutableDuration,
+ * e.g. 2017-07-27T15:41:00Z/PT15M, and renders start/end in any TimeFormat. The endpoints go through the
+ * MutableTimestamp parsing and rendering, so canonical text is handled without creating objects. Instances are not
+ * thread safe.
+ * <p>
+ */
+public final class MutableInterval {
+
+    private final MutableTimestamp start = new MutableTimestamp();
+    private final MutableTimestamp end = new MutableTimestamp();
+    private final MutableDuration duration = new MutableDuration();
+    private final TextWindow window = new TextWindow();
+
+    /**
+     * Set the interval.
+     *
+     * @param startEpochSecond epoch seconds of the start
+     * @param startNano        nano of second of the start
+     * @param endEpochSecond   epoch seconds of the end
+     * @param endNano          nano of second of the end
+     * @return this holder
+     */
+    public MutableInterval set(final long startEpochSecond, final int startNano, final long endEpochSecond,
+            final int endNano) {
+        if (endEpochSecond < startEpochSecond || endEpochSecond == startEpochSecond && endNano < startNano) {
+            throw new DateTimeException("Interval ends before it starts: " + startEpochSecond + "." + startNano
+                    + " to " + endEpochSecond + "." + endNano);
+        }
+        start.set(startEpochSecond, startNano);
+        end.set(endEpochSecond, endNano);
+        return this;
+    }
+
+    /**
+     * Parse an ISO-8601 interval whose instants are in the format.
+     *
+     * @param text   interval text, start/end, start/duration or duration/end
+     * @param format format of the instants
+     * @return this holder
+     */
+    public MutableInterval parse(final CharSequence text, final TimeFormat format) {
+        final int length = text.length();
+        int separator = -1;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '/') {
+                if (separator >= 0) {
+                    throw CivilCalendar.parseError(text, i);
+                }
+                separator = i;
+            }
+        }
+        if (separator <= 0 || separator == length - 1) {
+            throw CivilCalendar.parseError(text, Math.max(separator, 0));
+        }
+        final boolean startIsDuration = isDuration(text, 0);
+        final boolean endIsDuration = isDuration(text, separator + 1);
+        if (startIsDuration && endIsDuration) {
+            throw CivilCalendar.parseError(text, separator + 1);
+        }
+        final long startEpochSecond;
+        final int startNano;
+        final long endEpochSecond;
+        final int endNano;
+        if (startIsDuration) {
+            duration.parse(text, 0, separator);
+            end.parse(window.reset(text, separator + 1, length), format);
+            endEpochSecond = end.getEpochSecond();
+            endNano = end.getNano();
+            duration.subtractFrom(end);
+            startEpochSecond = end.getEpochSecond();
+            startNano = end.getNano();
+        } else {
+            start.parse(window.reset(text, 0, separator), format);
+            startEpochSecond = start.getEpochSecond();
+            startNano = start.getNano();
+            if (endIsDuration) {
+                duration.parse(text, separator + 1, length);
+                duration.addTo(start);
+                endEpochSecond = start.getEpochSecond();
+                endNano = start.getNano();
+            } else {
+                end.parse(window.reset(text, separator + 1, length), format);
+                endEpochSecond = end.getEpochSecond();
+                endNano = end.getNano();
+            }
+        }
+        window.reset(null, 0, 0);
+        return set(startEpochSecond, startNano, endEpochSecond, endNano);
+    }
+
+    /**
+     * Render the interval as start/end in the format.
+     *
+     * @param format format of the instants
+     * @param buffer output buffer
+     * @return the output buffer
+     */
+    public StringBuilder format(final TimeFormat format, final StringBuilder buffer) {
+        start.format(format, buffer).append('/');
+        return end.format(format, buffer);
+    }
+
+    /**
+     * Render the interval as start/end in the format.
+     *
+     * @param format format of the instants
+     * @return interval text
+     */
+    public String format(final TimeFormat format) {
+        return format(format, new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Render the interval as start/duration, with the start in the format.
+     *
+     * @param format format of the start
+     * @param buffer output buffer
+     * @return the output buffer
+     */
+    public StringBuilder formatWithDuration(final TimeFormat format, final StringBuilder buffer) {
+        start.format(format, buffer).append('/');
+        return getDuration(duration).format(buffer);
+    }
+
+    /**
+     * Fill the holder with the length of the interval.
+     *
+     * @param holder duration holder
+     * @return the duration holder
+     */
+    public MutableDuration getDuration(final MutableDuration holder) {
+        return holder.set(Math.subtractExact(end.getEpochSecond(), start.getEpochSecond()),
+                (long) end.getNano() - start.getNano());
+    }
+
+    /**
+     * Distinguish the instant is within [start, end) or not.
+     *
+     * @param epochSecond epoch seconds
+     * @param nano        nano of second
+     * @return is contained?
+     */
+    public boolean contains(final long epochSecond, final int nano) {
+        final boolean afterStart = epochSecond > start.getEpochSecond()
+                || epochSecond == start.getEpochSecond() && nano >= start.getNano();
+        final boolean beforeEnd = epochSecond < end.getEpochSecond()
+                || epochSecond == end.getEpochSecond() && nano < end.getNano();
+        return afterStart && beforeEnd;
+    }
+
+    public long getStartEpochSecond() {
+        return start.getEpochSecond();
+    }
+
+    public int getStartNano() {
+        return start.getNano();
+    }
+
+    public long getEndEpochSecond() {
+        return end.getEpochSecond();
+    }
+
+    public int getEndNano() {
+        return end.getNano();
+    }
+
+    @Override
+    public String toString() {
+        return format(TimeFormat.ISO8601UTC);
+    }
+
+    private static boolean isDuration(final CharSequence text, final int index) {
+        final char first = text.charAt(index);
+        final char p = first == '-' || first == '+' ? index + 1 < text.length() ? text.charAt(index + 1) : ' ' : first;
+        return Character.toUpperCase(p) == 'P';
+    }
+
+    /**
+     * A reusable view of a range of a text, so that the endpoints are parsed without copying.
+     */
+    private static final class TextWindow implements CharSequence {
+
+        private CharSequence text;
+        private int from;
+        private int length;
+
+        private TextWindow reset(final CharSequence text, final int from, final int to) {
+            this.text = text;
+            this.from = from;
+            this.length = to - from;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+            }
+            return text.charAt(from + index);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(from, from + length).toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,356 @@
+package uruz7.commons.util.time;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Reusable, mutable holder of an instant (epoch seconds and nanos) together with the offset its civil fields are
+ * viewed in. It parses and renders the built-in TimeFormat layouts arithmetically, so one instance per thread or per
+ * loop replaces the Instant, ZonedDateTime and LocalDateTime intermediates of TimeFormat.convert. Text that does not
+ * have the canonical shape of its format goes through the TimeFormat itself, which keeps the results and the
+ * exceptions identical to TimeFormat.getInstant.
+ * <p>
+ * The civil fields are computed on first access and cached until the holder changes. Instances are not thread safe.
+ * <p>
+ */
+public final class MutableTimestamp {
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final int LOCAL_DATE_TIME_LENGTH = 19;
+    private static final int MAX_EPOCH_DIGITS = 18;
+
+    private final ZoneOffsetLookup defaultLookup = new ZoneOffsetLookup(DEFAULT_ZONE_ID);
+    private long epochSecond;
+    private int nano;
+    private int offsetSeconds;
+    private boolean civilCached;
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private int minute;
+    private int second;
+    private int dayOfWeek;
+
+    /**
+     * Set the instant, the civil fields are viewed in UTC.
+     *
+     * @param epochSecond epoch seconds
+     * @param nano        nano of second
+     * @return this holder
+     */
+    public MutableTimestamp set(final long epochSecond, final int nano) {
+        return set(epochSecond, nano, 0);
+    }
+
+    /**
+     * Set the instant and the offset its civil fields are viewed in.
+     *
+     * @param epochSecond   epoch seconds
+     * @param nano          nano of second
+     * @param offsetSeconds offset in seconds
+     * @return this holder
+     */
+    public MutableTimestamp set(final long epochSecond, final int nano, final int offsetSeconds) {
+        if (nano < 0 || nano >= CivilCalendar.NANOS_PER_SECOND) {
+            throw new DateTimeException("Invalid nano of second: " + nano);
+        }
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+        this.offsetSeconds = offsetSeconds;
+        this.civilCached = false;
+        return this;
+    }
+
+    public MutableTimestamp set(final Instant instant) {
+        return set(instant.getEpochSecond(), instant.getNano(), 0);
+    }
+
+    public MutableTimestamp set(final MutableTimestamp another) {
+        return set(another.epochSecond, another.nano, another.offsetSeconds);
+    }
+
+    /**
+     * Keep the instant and view the civil fields in the offset of the zone at that instant.
+     *
+     * @param zoneId zone
+     * @return this holder
+     */
+    public MutableTimestamp atZone(final ZoneId zoneId) {
+        final int offset = DEFAULT_ZONE_ID.equals(zoneId)
+                ? defaultLookup.offsetAt(epochSecond) : new ZoneOffsetLookup(zoneId).offsetAt(epochSecond);
+        return set(epochSecond, nano, offset);
+    }
+
+    /**
+     * Parse the timestamp into this holder. The offset becomes the one the civil fields of the text are written in:
+     * UTC for UNIX_TIME and ISO8601UTC, the Asia/Taipei offset for the other built-in formats.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @return this holder
+     */
+    public MutableTimestamp parse(final CharSequence timestamp, final TimeFormat format) {
+        if (!parseCanonical(timestamp, format)) {
+            parseByFormat(timestamp, format);
+        }
+        return this;
+    }
+
+    /**
+     * Render this holder into the format, e.g. the zone of the format wins over the offset of the holder.
+     *
+     * @param format target format
+     * @param buffer output buffer
+     * @return the output buffer
+     */
+    public StringBuilder format(final TimeFormat format, final StringBuilder buffer) {
+        final int length = buffer.length();
+        switch (format) {
+            case UNIX_TIME:
+                return buffer.append(epochSecond);
+            case ISO8601UTC:
+                if (CivilCalendar.appendLocalDateTime(buffer, epochSecond, 'T')) {
+                    return buffer.append('Z');
+                }
+                break;
+            case ISO8601TW:
+                final int offset = defaultLookup.offsetAt(epochSecond);
+                if (CivilCalendar.appendLocalDateTime(buffer, epochSecond + offset, 'T')) {
+                    CivilCalendar.appendOffset(buffer, offset);
+                    return buffer;
+                }
+                break;
+            case DB_DATE_TIME:
+                if (CivilCalendar.appendLocalDateTime(buffer, epochSecond + defaultLookup.offsetAt(epochSecond), ' ')) {
+                    return buffer.append('.').append((char) ('0' + nano / 100000000));
+                }
+                break;
+            case MYSQL_DATE_TIME:
+                if (CivilCalendar.appendLocalDateTime(buffer, epochSecond + defaultLookup.offsetAt(epochSecond), ' ')) {
+                    return buffer;
+                }
+                break;
+            case HTTP_DATE:
+                return HttpDate.format(epochSecond, buffer);
+            default:
+                break;
+        }
+        buffer.setLength(length);
+        return buffer.append(format.getTimestampString(toInstant()));
+    }
+
+    /**
+     * Render this holder into the format.
+     *
+     * @param format target format
+     * @return timestamp string
+     */
+    public String format(final TimeFormat format) {
+        return format(format, new StringBuilder(32)).toString();
+    }
+
+    public Instant toInstant() {
+        return Instant.ofEpochSecond(epochSecond, nano);
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public int getNano() {
+        return nano;
+    }
+
+    public int getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    public int getYear() {
+        computeCivil();
+        return year;
+    }
+
+    public int getMonth() {
+        computeCivil();
+        return month;
+    }
+
+    public int getDayOfMonth() {
+        computeCivil();
+        return day;
+    }
+
+    public int getHour() {
+        computeCivil();
+        return hour;
+    }
+
+    public int getMinute() {
+        computeCivil();
+        return minute;
+    }
+
+    public int getSecond() {
+        computeCivil();
+        return second;
+    }
+
+    /**
+     * ISO day of week of the civil date.
+     *
+     * @return 1 (Monday) to 7 (Sunday)
+     */
+    public int getDayOfWeek() {
+        computeCivil();
+        return dayOfWeek;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder(40);
+        if (CivilCalendar.appendLocalDateTime(buffer, epochSecond + offsetSeconds, 'T')) {
+            if (nano != 0) {
+                buffer.append('.');
+                final String digits = Integer.toString(nano + CivilCalendar.NANOS_PER_SECOND);
+                buffer.append(digits, 1, digits.length());
+            }
+            CivilCalendar.appendOffset(buffer, offsetSeconds);
+            return buffer.toString();
+        }
+        return toInstant().toString() + "@" + offsetSeconds;
+    }
+
+    private void computeCivil() {
+        if (civilCached) {
+            return;
+        }
+        final long localEpochSecond = epochSecond + offsetSeconds;
+        final long epochDay = Math.floorDiv(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+        final int secondOfDay = (int) (localEpochSecond - epochDay * CivilCalendar.SECONDS_PER_DAY);
+        final long civil = CivilCalendar.toCivil(epochDay);
+        year = CivilCalendar.year(civil);
+        month = CivilCalendar.month(civil);
+        day = CivilCalendar.day(civil);
+        hour = secondOfDay / CivilCalendar.SECONDS_PER_HOUR;
+        minute = secondOfDay / CivilCalendar.SECONDS_PER_MINUTE % 60;
+        second = secondOfDay % 60;
+        dayOfWeek = CivilCalendar.dayOfWeek(epochDay);
+        civilCached = true;
+    }
+
+    private boolean parseCanonical(final CharSequence timestamp, final TimeFormat format) {
+        final int length = timestamp.length();
+        try {
+            switch (format) {
+                case UNIX_TIME:
+                    return parseEpoch(timestamp);
+                case ISO8601UTC:
+                    if (length != LOCAL_DATE_TIME_LENGTH + 1 || timestamp.charAt(LOCAL_DATE_TIME_LENGTH) != 'Z'
+                            || timestamp.charAt(10) != 'T') {
+                        return false;
+                    }
+                    set(CivilCalendar.parseLocalDateTime(timestamp, 0, 'T'), 0, 0);
+                    return true;
+                case ISO8601TW:
+                    if (!isIso8601Offset(timestamp) || timestamp.charAt(10) != 'T' || !hasYearOfEra(timestamp)) {
+                        return false;
+                    }
+                    setLocal(CivilCalendar.parseLocalDateTime(timestamp, 0, 'T'), 0);
+                    return true;
+                case DB_DATE_TIME:
+                    if (length != LOCAL_DATE_TIME_LENGTH + 2 || timestamp.charAt(LOCAL_DATE_TIME_LENGTH) != '.'
+                            || CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 1) < 0
+                            || !hasYearOfEra(timestamp)) {
+                        return false;
+                    }
+                    // like TimeFormat.DB_DATE_TIME, the fraction is validated but not kept
+                    setLocal(CivilCalendar.parseLocalDateTime(timestamp, 0, ' '), 0);
+                    return true;
+                case MYSQL_DATE_TIME:
+                    if (length != LOCAL_DATE_TIME_LENGTH || !hasYearOfEra(timestamp)) {
+                        return false;
+                    }
+                    setLocal(CivilCalendar.parseLocalDateTime(timestamp, 0, ' '), 0);
+                    return true;
+                case HTTP_DATE:
+                    set(HttpDate.parseEpochSecond(timestamp), 0, 0);
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (DateTimeException e) {
+            // not canonical, e.g. a day the resolver of the format adjusts, let the format decide
+            return false;
+        }
+    }
+
+    private static boolean isIso8601Offset(final CharSequence timestamp) {
+        final int length = timestamp.length();
+        if (length == LOCAL_DATE_TIME_LENGTH + 1) {
+            return timestamp.charAt(LOCAL_DATE_TIME_LENGTH) == 'Z';
+        }
+        if (length != LOCAL_DATE_TIME_LENGTH + 6) {
+            return false;
+        }
+        final char sign = timestamp.charAt(LOCAL_DATE_TIME_LENGTH);
+        final int hours = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 2);
+        final int minutes = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 4, 2);
+        return (sign == '+' || sign == '-') && timestamp.charAt(LOCAL_DATE_TIME_LENGTH + 3) == ':' && hours >= 0
+                && minutes >= 0 && minutes <= 59 && (hours < 18 || hours == 18 && minutes == 0);
+    }
+
+    /**
+     * The local formats use the "yyyy" year-of-era pattern, which has no year zero.
+     */
+    private static boolean hasYearOfEra(final CharSequence timestamp) {
+        return CivilCalendar.digits(timestamp, 0, 4) > 0;
+    }
+
+    private boolean parseEpoch(final CharSequence timestamp) {
+        final int length = timestamp.length();
+        final int start = length > 0 && timestamp.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > MAX_EPOCH_DIGITS) {
+            return false;
+        }
+        long value = 0L;
+        for (int i = start; i < length; i++) {
+            final int digit = timestamp.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+        }
+        final long epochSecond = start == 1 ? -value : value;
+        if (epochSecond < Instant.MIN.getEpochSecond() || epochSecond > Instant.MAX.getEpochSecond()) {
+            throw new DateTimeException("Instant exceeds minimum or maximum instant");
+        }
+        set(epochSecond, 0, 0);
+        return true;
+    }
+
+    private void setLocal(final long localEpochSecond, final int nano) {
+        final long epochSecond = defaultLookup.toEpochSecond(localEpochSecond);
+        set(epochSecond, nano, defaultLookup.offsetAt(epochSecond));
+    }
+
+    private void parseByFormat(final CharSequence timestamp, final TimeFormat format) {
+        final Instant instant = format.getInstant(timestamp.toString());
+        final int offset;
+        switch (format) {
+            case ISO8601TW:
+            case DB_DATE_TIME:
+            case MYSQL_DATE_TIME:
+                offset = defaultLookup.offsetAt(instant.getEpochSecond());
+                break;
+            default:
+                offset = 0;
+                break;
+        }
+        set(instant.getEpochSecond(), instant.getNano(), offset);
+    }
+
+}
@@ -0,0 +1,202 @@
+package uruz7.commons.util.time;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Converts epoch values straight to and from the DATETIME / TIMESTAMP encoding of the MySQL binary protocol, as used
+ * by prepared statement parameters and binary result set rows, without a text step in between:
+ * <pre>
+ * length 0:  0000-00-00 00:00:00
+ * length 4:  year (2 bytes, little-endian), month, day
+ * length 7:  as above, then hour, minute, second
+ * length 11: as above, then microsecond (4 bytes, little-endian)
+ * </pre>
+ * The encoded value is the wall clock time of the given zone, Asia/Taipei by default like MYSQL_DATE_TIME. The
+ * shortest form that holds the value is written, the length byte included.
+ * <p>
+ */
+public final class MySqlBinaryDateTime {
+
+    public static final int MAX_ENCODED_LENGTH = 12;
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final int NANOS_PER_MICRO = 1000;
+    private static final int MICROS_PER_SECOND = 1000000;
+
+    /**
+     * Constructor
+     */
+    private MySqlBinaryDateTime() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write epoch seconds in the default zone.
+     *
+     * @param epochSecond epoch seconds
+     * @param buffer      output buffer
+     */
+    public static void write(final long epochSecond, final ByteBuffer buffer) {
+        write(epochSecond, 0, DEFAULT_ZONE_ID, buffer);
+    }
+
+    /**
+     * Write an instant in the specified zone, the nanos are truncated to microseconds.
+     *
+     * @param epochSecond epoch seconds
+     * @param nano        nano of second
+     * @param zoneId      zone of the wall clock time
+     * @param buffer      output buffer
+     */
+    public static void write(final long epochSecond, final int nano, final ZoneId zoneId, final ByteBuffer buffer) {
+        write(epochSecond, nano, new ZoneOffsetLookup(zoneId), buffer);
+    }
+
+    /**
+     * Write epoch microseconds in the specified zone.
+     *
+     * @param epochMicros epoch microseconds
+     * @param zoneId      zone of the wall clock time
+     * @param buffer      output buffer
+     */
+    public static void writeEpochMicros(final long epochMicros, final ZoneId zoneId, final ByteBuffer buffer) {
+        final long epochSecond = Math.floorDiv(epochMicros, (long) MICROS_PER_SECOND);
+        final int micro = (int) (epochMicros - epochSecond * MICROS_PER_SECOND);
+        write(epochSecond, micro * NANOS_PER_MICRO, zoneId, buffer);
+    }
+
+    /**
+     * Write a timestamp string in the default zone.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @param buffer    output buffer
+     */
+    public static void write(final String timestamp, final TimeFormat format, final ByteBuffer buffer) {
+        final Instant instant = format.getInstant(timestamp);
+        write(instant.getEpochSecond(), instant.getNano(), DEFAULT_ZONE_ID, buffer);
+    }
+
+    /**
+     * Write the zero date time, 0000-00-00 00:00:00.
+     *
+     * @param buffer output buffer
+     */
+    public static void writeZero(final ByteBuffer buffer) {
+        buffer.put((byte) 0);
+    }
+
+    /**
+     * Peek whether the next value of the buffer is the zero date time, the position is left untouched.
+     *
+     * @param buffer input buffer
+     * @return is zero date time?
+     */
+    public static boolean isZero(final ByteBuffer buffer) {
+        return buffer.get(buffer.position()) == 0;
+    }
+
+    /**
+     * Read a value in the default zone as epoch seconds, the microseconds are truncated.
+     *
+     * @param buffer input buffer
+     * @return epoch seconds
+     */
+    public static long readEpochSecond(final ByteBuffer buffer) {
+        return Math.floorDiv(readEpochMicros(buffer, DEFAULT_ZONE_ID), (long) MICROS_PER_SECOND);
+    }
+
+    /**
+     * Read a value in the specified zone as epoch microseconds.
+     *
+     * @param buffer input buffer
+     * @param zoneId zone of the wall clock time
+     * @return epoch microseconds
+     */
+    public static long readEpochMicros(final ByteBuffer buffer, final ZoneId zoneId) {
+        final int length = buffer.get() & 0xFF;
+        if (length == 0) {
+            throw new DateTimeException("Zero date time cannot be converted to an epoch value");
+        }
+        if (length != 4 && length != 7 && length != 11) {
+            throw new DateTimeException("Invalid binary DATETIME length: " + length);
+        }
+        final int year = (buffer.get() & 0xFF) | (buffer.get() & 0xFF) << 8;
+        final int month = buffer.get();
+        final int day = buffer.get();
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int micro = 0;
+        if (length >= 7) {
+            hour = buffer.get();
+            minute = buffer.get();
+            second = buffer.get();
+        }
+        if (length == 11) {
+            micro = (buffer.get() & 0xFF) | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF) << 16
+                    | (buffer.get() & 0xFF) << 24;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > CivilCalendar.lengthOfMonth(year, month) || hour < 0
+                || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || micro < 0
+                || micro >= MICROS_PER_SECOND) {
+            throw new DateTimeException("Invalid binary DATETIME: " + year + "-" + month + "-" + day + " " + hour
+                    + ":" + minute + ":" + second + "." + micro);
+        }
+        final long localEpochSecond = CivilCalendar.toEpochDay(year, month, day) * CivilCalendar.SECONDS_PER_DAY
+                + hour * CivilCalendar.SECONDS_PER_HOUR + minute * CivilCalendar.SECONDS_PER_MINUTE + second;
+        final long epochSecond = new ZoneOffsetLookup(zoneId).toEpochSecond(localEpochSecond);
+        return epochSecond * MICROS_PER_SECOND + micro;
+    }
+
+    /**
+     * Read a value in the default zone and render it into the target format.
+     *
+     * @param buffer input buffer
+     * @param format target format
+     * @return timestamp string, null for the zero date time
+     */
+    public static String read(final ByteBuffer buffer, final TimeFormat format) {
+        if (isZero(buffer)) {
+            buffer.get();
+            return null;
+        }
+        final long epochMicros = readEpochMicros(buffer, DEFAULT_ZONE_ID);
+        final long epochSecond = Math.floorDiv(epochMicros, (long) MICROS_PER_SECOND);
+        final int micro = (int) (epochMicros - epochSecond * MICROS_PER_SECOND);
+        return format.getTimestampString(Instant.ofEpochSecond(epochSecond, (long) micro * NANOS_PER_MICRO));
+    }
+
+    static void write(final long epochSecond, final int nano, final ZoneOffsetLookup lookup, final ByteBuffer buffer) {
+        if (nano < 0 || nano >= CivilCalendar.NANOS_PER_SECOND) {
+            throw new DateTimeException("Invalid nano of second: " + nano);
+        }
+        final long localEpochSecond = epochSecond + lookup.offsetAt(epochSecond);
+        final long epochDay = Math.floorDiv(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+        final int secondOfDay = (int) (localEpochSecond - epochDay * CivilCalendar.SECONDS_PER_DAY);
+        final long civil = CivilCalendar.toCivil(epochDay);
+        final int year = CivilCalendar.year(civil);
+        if (year < 0 || year > 9999) {
+            throw new DateTimeException("Year is out of the DATETIME range: " + year);
+        }
+        final int micro = nano / NANOS_PER_MICRO;
+        final int length = micro != 0 ? 11 : secondOfDay != 0 ? 7 : 4;
+        buffer.put((byte) length);
+        buffer.put((byte) year).put((byte) (year >>> 8));
+        buffer.put((byte) CivilCalendar.month(civil)).put((byte) CivilCalendar.day(civil));
+        if (length >= 7) {
+            buffer.put((byte) (secondOfDay / CivilCalendar.SECONDS_PER_HOUR));
+            buffer.put((byte) (secondOfDay / CivilCalendar.SECONDS_PER_MINUTE % 60));
+            buffer.put((byte) (secondOfDay % 60));
+        }
+        if (length == 11) {
+            buffer.put((byte) micro).put((byte) (micro >>> 8)).put((byte) (micro >>> 16)).put((byte) (micro >>> 24));
+        }
+    }
+
+}
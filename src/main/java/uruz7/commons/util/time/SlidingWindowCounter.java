@@ -0,0 +1,199 @@
+package uruz7.commons.util.time;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Concurrent event counter over a sliding window of whole epoch seconds, e.g. for rate limiters and live dashboards.
+ * Events go into a ring of per-second buckets, each one a LongAdder tagged with the second it counts. A bucket that
+ * still holds an old second is replaced with a compare-and-set, so neither counting nor querying takes a lock.
+ * <p>
+ * Events may arrive late or slightly early by up to the tolerance, relative to the clock. Events beyond the
+ * tolerance are not counted and show up in getDroppedCount().
+ * <p>
+ */
+public final class SlidingWindowCounter {
+
+    public static final int DEFAULT_TOLERANCE_SECONDS = 5;
+
+    private final int windowSeconds;
+    private final int toleranceSeconds;
+    private final EpochClock clock;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param windowSeconds    length of the window in seconds
+     * @param toleranceSeconds how far events may be behind or ahead of the clock
+     * @param clock            clock source
+     */
+    public SlidingWindowCounter(final int windowSeconds, final int toleranceSeconds, final EpochClock clock) {
+        if (windowSeconds <= 0 || toleranceSeconds < 0 || (long) windowSeconds + 2L * toleranceSeconds + 1L
+                > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid window: " + windowSeconds + " s, tolerance: "
+                    + toleranceSeconds + " s");
+        }
+        this.windowSeconds = windowSeconds;
+        this.toleranceSeconds = toleranceSeconds;
+        this.clock = clock;
+        // every second between the oldest one of the window or tolerance and the newest tolerated one has its bucket
+        this.buckets = new AtomicReferenceArray<>(windowSeconds + 2 * toleranceSeconds + 1);
+    }
+
+    /**
+     * Constructor with the default tolerance on the system clock.
+     *
+     * @param windowSeconds length of the window in seconds
+     */
+    public SlidingWindowCounter(final int windowSeconds) {
+        this(windowSeconds, DEFAULT_TOLERANCE_SECONDS, EpochClock.SYSTEM);
+    }
+
+    /**
+     * Count one event at the given second.
+     *
+     * @param epochSecond event time in epoch seconds
+     * @return false if the event is beyond the tolerance and was dropped
+     */
+    public boolean increment(final long epochSecond) {
+        return add(epochSecond, 1L);
+    }
+
+    /**
+     * Count one event at the given time.
+     *
+     * @param timestamp event time
+     * @param format    format of the event time
+     * @return false if the event is beyond the tolerance and was dropped
+     */
+    public boolean increment(final String timestamp, final TimeFormat format) {
+        return add(format.getEpochSecond(timestamp), 1L);
+    }
+
+    /**
+     * Add a weight at the given second, e.g. the bytes of a request.
+     *
+     * @param epochSecond event time in epoch seconds
+     * @param delta       weight
+     * @return false if the event is beyond the tolerance and was dropped
+     */
+    public boolean add(final long epochSecond, final long delta) {
+        final long now = clock.currentEpochSecond();
+        if (epochSecond < now - toleranceSeconds || epochSecond > now + toleranceSeconds) {
+            dropped.increment();
+            return false;
+        }
+        final int index = (int) Math.floorMod(epochSecond, (long) buckets.length());
+        while (true) {
+            final Bucket bucket = buckets.get(index);
+            if (null != bucket && bucket.epochSecond == epochSecond) {
+                bucket.count.add(delta);
+                return true;
+            }
+            if (null != bucket && bucket.epochSecond > epochSecond) {
+                // the clock moved on while this event was waiting, its bucket now counts a newer second
+                dropped.increment();
+                return false;
+            }
+            final Bucket replacement = new Bucket(epochSecond);
+            replacement.count.add(delta);
+            if (buckets.compareAndSet(index, bucket, replacement)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sum of the whole window, i.e. of the seconds in (now - window, now].
+     *
+     * @return event count
+     */
+    public long sum() {
+        return sum(windowSeconds);
+    }
+
+    /**
+     * Sum of the latest seconds, i.e. of the seconds in (now - seconds, now].
+     *
+     * @param seconds number of seconds, up to the window
+     * @return event count
+     */
+    public long sum(final int seconds) {
+        if (seconds <= 0 || seconds > windowSeconds) {
+            throw new IllegalArgumentException("Seconds must be within the window of " + windowSeconds + ": "
+                    + seconds);
+        }
+        final long now = clock.currentEpochSecond();
+        final long from = now - seconds;
+        long sum = 0L;
+        for (int i = 0; i < buckets.length(); i++) {
+            final Bucket bucket = buckets.get(i);
+            if (null != bucket && bucket.epochSecond > from && bucket.epochSecond <= now) {
+                sum += bucket.count.sum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Count of a single second, zero if it is not held anymore.
+     *
+     * @param epochSecond epoch second
+     * @return event count
+     */
+    public long get(final long epochSecond) {
+        final Bucket bucket = buckets.get((int) Math.floorMod(epochSecond, (long) buckets.length()));
+        return null != bucket && bucket.epochSecond == epochSecond ? bucket.count.sum() : 0L;
+    }
+
+    /**
+     * Average events per second over the whole window.
+     *
+     * @return events per second
+     */
+    public double rate() {
+        return rate(windowSeconds);
+    }
+
+    /**
+     * Average events per second over the latest seconds.
+     *
+     * @param seconds number of seconds, up to the window
+     * @return events per second
+     */
+    public double rate(final int seconds) {
+        return (double) sum(seconds) / seconds;
+    }
+
+    /**
+     * Number of events dropped for being beyond the tolerance.
+     *
+     * @return dropped event count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * Counter of one epoch second.
+     */
+    private static final class Bucket {
+
+        private final long epochSecond;
+        private final LongAdder count = new LongAdder();
+
+        private Bucket(final long epochSecond) {
+            this.epochSecond = epochSecond;
+        }
+
+    }
+
+}
@@ -0,0 +1,232 @@
+package uruz7.commons.util.time;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Stateful parser for sorted or nearly sorted streams of timestamps, e.g. log lines. It remembers the last
+ * "yyyy-MM-dd" prefix with its epoch day, and the last "yyyy-MM-dd?HH:mm" prefix with the epoch second that minute
+ * starts at. When the next timestamp repeats the minute prefix only the seconds and the suffix are parsed, when it
+ * repeats the date prefix only the time is, anything else is parsed and validated in full.
+ * <p>
+ * Text that does not have the canonical shape of the format is handed to TimeFormat.getEpochSecond(), so the results
+ * and the exceptions are the same. Instances are not thread safe: use one per stream.
+ * <p>
+ */
+public final class StreamingTimestampParser {
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final int DATE_LENGTH = 10;
+    private static final int MINUTE_PREFIX_LENGTH = 16;
+    private static final int LOCAL_DATE_TIME_LENGTH = 19;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int MAX_EPOCH_DIGITS = 18;
+
+    private final TimeFormat format;
+    private final ZoneOffsetLookup lookup;
+    private final char separator;
+    private final char[] prefix = new char[MINUTE_PREFIX_LENGTH];
+    private boolean dateCached;
+    private boolean minuteCached;
+    private long epochDay;
+    private long minuteEpochSecond;
+    private long minutePrefixHits;
+    private long datePrefixHits;
+
+    /**
+     * Constructor
+     *
+     * @param format format of the timestamps in the stream
+     */
+    public StreamingTimestampParser(final TimeFormat format) {
+        if (null == format) {
+            throw new IllegalArgumentException("Format must not be null");
+        }
+        this.format = format;
+        this.lookup = new ZoneOffsetLookup(format == TimeFormat.ISO8601UTC ? ZoneOffset.UTC : DEFAULT_ZONE_ID);
+        this.separator = format == TimeFormat.ISO8601UTC || format == TimeFormat.ISO8601TW ? 'T' : ' ';
+    }
+
+    /**
+     * Parse the next timestamp of the stream into epoch seconds, the fraction of second is truncated.
+     *
+     * @param timestamp timestamp string
+     * @return epoch seconds
+     */
+    public long parseEpochSecond(final CharSequence timestamp) {
+        switch (format) {
+            case UNIX_TIME:
+                return parseEpoch(timestamp);
+            case ISO8601UTC:
+            case ISO8601TW:
+            case DB_DATE_TIME:
+            case MYSQL_DATE_TIME:
+                if (hasCanonicalSuffix(timestamp)) {
+                    final long epochSecond = parseDateTime(timestamp);
+                    if (epochSecond != Long.MIN_VALUE) {
+                        return epochSecond;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        return format.getEpochSecond(timestamp.toString());
+    }
+
+    /**
+     * Forget the remembered prefixes.
+     */
+    public void reset() {
+        dateCached = false;
+        minuteCached = false;
+    }
+
+    /**
+     * Number of timestamps that repeated the remembered minute prefix.
+     *
+     * @return minute prefix hits
+     */
+    public long getMinutePrefixHits() {
+        return minutePrefixHits;
+    }
+
+    /**
+     * Number of timestamps that repeated only the remembered date prefix.
+     *
+     * @return date prefix hits
+     */
+    public long getDatePrefixHits() {
+        return datePrefixHits;
+    }
+
+    public TimeFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return epoch seconds, or Long.MIN_VALUE if the text is not canonical
+     */
+    private long parseDateTime(final CharSequence timestamp) {
+        if (timestamp.charAt(DATE_LENGTH) != separator) {
+            return Long.MIN_VALUE;
+        }
+        if (minuteCached && matchesPrefix(timestamp, MINUTE_PREFIX_LENGTH)) {
+            final int second = CivilCalendar.digits(timestamp, 17, 2);
+            if (timestamp.charAt(16) != ':' || second < 0 || second > 59) {
+                return Long.MIN_VALUE;
+            }
+            minutePrefixHits++;
+            return minuteEpochSecond + second;
+        }
+        if (dateCached && matchesPrefix(timestamp, DATE_LENGTH)) {
+            final int hour = CivilCalendar.digits(timestamp, 11, 2);
+            final int minute = CivilCalendar.digits(timestamp, 14, 2);
+            final int second = CivilCalendar.digits(timestamp, 17, 2);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+                    || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':') {
+                return Long.MIN_VALUE;
+            }
+            datePrefixHits++;
+            return cacheMinute(timestamp, epochDay * CivilCalendar.SECONDS_PER_DAY
+                    + hour * CivilCalendar.SECONDS_PER_HOUR + minute * CivilCalendar.SECONDS_PER_MINUTE, second);
+        }
+        final long localEpochSecond;
+        try {
+            localEpochSecond = CivilCalendar.parseLocalDateTime(timestamp, 0, separator);
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+        if (format != TimeFormat.ISO8601UTC && CivilCalendar.digits(timestamp, 0, 4) == 0) {
+            // the wall clock formats use the "yyyy" year-of-era pattern, which has no year zero
+            return Long.MIN_VALUE;
+        }
+        final int secondOfMinute = (int) Math.floorMod(localEpochSecond, (long) CivilCalendar.SECONDS_PER_MINUTE);
+        epochDay = Math.floorDiv(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            prefix[i] = timestamp.charAt(i);
+        }
+        dateCached = true;
+        return cacheMinute(timestamp, localEpochSecond - secondOfMinute, secondOfMinute);
+    }
+
+    private long cacheMinute(final CharSequence timestamp, final long localMinuteStart, final int second) {
+        minuteEpochSecond = lookup.toEpochSecond(localMinuteStart);
+        for (int i = DATE_LENGTH; i < MINUTE_PREFIX_LENGTH; i++) {
+            prefix[i] = timestamp.charAt(i);
+        }
+        // a minute that contains an offset transition cannot be served from its start
+        minuteCached = lookup.toEpochSecond(localMinuteStart + CivilCalendar.SECONDS_PER_MINUTE - 1)
+                == minuteEpochSecond + CivilCalendar.SECONDS_PER_MINUTE - 1;
+        return minuteCached ? minuteEpochSecond + second : lookup.toEpochSecond(localMinuteStart + second);
+    }
+
+    private boolean matchesPrefix(final CharSequence timestamp, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (timestamp.charAt(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasCanonicalSuffix(final CharSequence timestamp) {
+        final int length = timestamp.length();
+        switch (format) {
+            case ISO8601UTC:
+                if (length < LOCAL_DATE_TIME_LENGTH + 1 || timestamp.charAt(length - 1) != 'Z') {
+                    return false;
+                }
+                return length == LOCAL_DATE_TIME_LENGTH + 1 || isFraction(timestamp, length - 1);
+            case ISO8601TW:
+                return length == LOCAL_DATE_TIME_LENGTH + 1 && timestamp.charAt(LOCAL_DATE_TIME_LENGTH) == 'Z'
+                        || length == LOCAL_DATE_TIME_LENGTH + 6 && isOffset(timestamp);
+            case DB_DATE_TIME:
+                return length == LOCAL_DATE_TIME_LENGTH + 2 && timestamp.charAt(LOCAL_DATE_TIME_LENGTH) == '.'
+                        && CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 1) >= 0;
+            default:
+                return length == LOCAL_DATE_TIME_LENGTH;
+        }
+    }
+
+    private static boolean isFraction(final CharSequence timestamp, final int end) {
+        final int digits = end - LOCAL_DATE_TIME_LENGTH - 1;
+        return timestamp.charAt(LOCAL_DATE_TIME_LENGTH) == '.' && digits >= 1 && digits <= MAX_FRACTION_DIGITS
+                && CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, digits) >= 0;
+    }
+
+    private static boolean isOffset(final CharSequence timestamp) {
+        final char sign = timestamp.charAt(LOCAL_DATE_TIME_LENGTH);
+        final int hours = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 2);
+        final int minutes = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 4, 2);
+        return (sign == '+' || sign == '-') && timestamp.charAt(LOCAL_DATE_TIME_LENGTH + 3) == ':' && hours > 0
+                && hours < 18 && minutes >= 0 && minutes <= 59;
+    }
+
+    private long parseEpoch(final CharSequence timestamp) {
+        final int length = timestamp.length();
+        final int start = length > 0 && timestamp.charAt(0) == '-' ? 1 : 0;
+        if (length > start && length - start <= MAX_EPOCH_DIGITS) {
+            long value = 0L;
+            int i = start;
+            for (; i < length; i++) {
+                final int digit = timestamp.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            final long epochSecond = start == 1 ? -value : value;
+            if (i == length && epochSecond >= Instant.MIN.getEpochSecond()
+                    && epochSecond <= Instant.MAX.getEpochSecond()) {
+                return epochSecond;
+            }
+        }
+        return format.getEpochSecond(timestamp.toString());
+    }
+
+}
@@ -65,19 +65,60 @@ public enum TimeFormat implements TimeFormatable {
         public String getTimestampString(Instant instant) {
             return getDateTimeFormatter(mysqlDateTimeFormat).format(instant.atZone(defaultZoneId));
         }
+    }, HTTP_DATE {
+        @Override
+        public Instant getInstant(String timestamp) {
+            return Instant.ofEpochSecond(HttpDate.parseEpochSecond(timestamp));
+        }
+
+        @Override
+        public String getTimestampString(Instant instant) {
+            return HttpDate.format(instant.getEpochSecond());
+        }
+
+        @Override
+        public long getEpochSecond(String timestamp) {
+            return HttpDate.parseEpochSecond(timestamp);
+        }
+
+        @Override
+        public String getTimestampString(long epochSecond) {
+            return HttpDate.format(epochSecond);
+        }
     };
 
     private final static String iso8601DateFormat = "yyyy-MM-dd'T'HH:mm:ssXXX";
     private final static String dbDateTimeFormat = "yyyy-MM-dd HH:mm:ss.S";
     private final static String mysqlDateTimeFormat = "yyyy-MM-dd HH:mm:ss";
     private final static ZoneId defaultZoneId = ZoneId.of("Asia/Taipei");
+    private final static String convertOperation = "TimeFormat.convert";
 
     public static String convert(String timestamp, TimeFormat fromType, TimeFormat toType) {
         if (null == timestamp || "".equals(timestamp)) {
             return null;
         }
-        Instant instant = fromType.getInstant(timestamp);
-        return toType.getTimestampString(instant);
+        long startNanos = ConversionEvents.start();
+        try {
+            Instant instant = fromType.getInstant(timestamp);
+            String converted = toType.getTimestampString(instant);
+            ConversionEvents.end(startNanos, convertOperation, fromType.name(), toType.name(), timestamp, null,
+                    false);
+            return converted;
+        } catch (RuntimeException e) {
+            ConversionEvents.end(startNanos, convertOperation, fromType.name(), toType.name(), timestamp, e, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the precompiled converter of the pair, it gives the same results as convert() and is thread safe.
+     *
+     * @param fromType format of the input timestamps
+     * @param toType   format of the output timestamps
+     * @return converter
+     */
+    public static TimeFormatConverter converter(TimeFormat fromType, TimeFormat toType) {
+        return TimeFormatConverters.get(fromType, toType);
     }
 
     private static DateTimeFormatter getDateTimeFormatter(String dateTimeFormat) {
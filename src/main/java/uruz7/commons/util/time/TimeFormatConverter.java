@@ -0,0 +1,21 @@
+package uruz7.commons.util.time;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Converts timestamp strings from one TimeFormat into another, obtained from TimeFormat.converter(). Implementations
+ * are stateless and thread safe.
+ * <p>
+ */
+@FunctionalInterface
+public interface TimeFormatConverter {
+
+    /**
+     * Convert the timestamp, same as TimeFormat.convert() with the formats of this converter.
+     *
+     * @param timestamp timestamp string
+     * @return converted timestamp string, null for null or empty input
+     */
+    String convert(String timestamp);
+
+}
@@ -0,0 +1,379 @@
+package uruz7.commons.util.time;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Precompiled converters for every pair of TimeFormat constants. The built-in formats fall into two families: the
+ * UTC based ones (UNIX_TIME, ISO8601UTC) and the Asia/Taipei wall clock layouts (ISO8601TW, DB_DATE_TIME,
+ * MYSQL_DATE_TIME). Every pair of families has its own fused converter class, which parses the canonical shape of
+ * the source straight into seconds and writes the target layout without an Instant in between. A wall clock to wall
+ * clock conversion never leaves local time at all.
+ * <p>
+ * The Asia/Taipei offset is fixed since its last transition, the fused paths only cover instants after that point.
+ * Earlier instants, non-canonical text and formats outside both families go through TimeFormat.convert(), so the
+ * results and exceptions stay the same.
+ * <p>
+ * Slow or failed conversions of the fused converters are reported to ConversionEvents as
+ * TimeFormatConverter.convert, with the fallback flag set when the text had to go the TimeFormat.convert() way.
+ * <p>
+ */
+final class TimeFormatConverters {
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final String CONVERT_OPERATION = "TimeFormatConverter.convert";
+    private static final long NOT_CANONICAL = Long.MIN_VALUE;
+    private static final int LOCAL_DATE_TIME_LENGTH = 19;
+    private static final int MAX_EPOCH_DIGITS = 18;
+    private static final long MAX_RENDERED_EPOCH_SECOND = 253402300799L;
+    /**
+     * The first epoch second from which the default zone keeps one offset forever, Long.MAX_VALUE if it never does.
+     */
+    private static final long STABLE_FROM;
+    private static final int STABLE_OFFSET_SECONDS;
+    private static final TimeFormatConverter[][] CONVERTERS;
+
+    static {
+        final ZoneRules rules = DEFAULT_ZONE_ID.getRules();
+        final List<ZoneOffsetTransition> transitions = rules.getTransitions();
+        if (!rules.getTransitionRules().isEmpty()) {
+            STABLE_FROM = Long.MAX_VALUE;
+            STABLE_OFFSET_SECONDS = 0;
+        } else if (transitions.isEmpty()) {
+            STABLE_FROM = Long.MIN_VALUE / 2;
+            STABLE_OFFSET_SECONDS = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+        } else {
+            final ZoneOffsetTransition last = transitions.get(transitions.size() - 1);
+            STABLE_FROM = last.toEpochSecond() + CivilCalendar.SECONDS_PER_DAY;
+            STABLE_OFFSET_SECONDS = last.getOffsetAfter().getTotalSeconds();
+        }
+        final TimeFormat[] formats = TimeFormat.values();
+        CONVERTERS = new TimeFormatConverter[formats.length][formats.length];
+        for (final TimeFormat from : formats) {
+            for (final TimeFormat to : formats) {
+                CONVERTERS[from.ordinal()][to.ordinal()] = create(from, to);
+            }
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    private TimeFormatConverters() {
+        throw new UnsupportedOperationException();
+    }
+
+    static TimeFormatConverter get(final TimeFormat fromType, final TimeFormat toType) {
+        if (null == fromType || null == toType) {
+            throw new IllegalArgumentException("Formats must not be null: " + fromType + " -> " + toType);
+        }
+        return CONVERTERS[fromType.ordinal()][toType.ordinal()];
+    }
+
+    private static TimeFormatConverter create(final TimeFormat fromType, final TimeFormat toType) {
+        if (STABLE_FROM == Long.MAX_VALUE) {
+            return isUtcBased(fromType) && isUtcBased(toType)
+                    ? new UtcToUtc(fromType, toType) : new Generic(fromType, toType);
+        }
+        if (isUtcBased(fromType)) {
+            if (isUtcBased(toType)) {
+                return new UtcToUtc(fromType, toType);
+            }
+            return isLocal(toType) ? new UtcToLocal(fromType, toType) : new Generic(fromType, toType);
+        }
+        if (isLocal(fromType)) {
+            if (isLocal(toType)) {
+                return new LocalToLocal(fromType, toType);
+            }
+            return isUtcBased(toType) ? new LocalToUtc(fromType, toType) : new Generic(fromType, toType);
+        }
+        return new Generic(fromType, toType);
+    }
+
+    private static boolean isUtcBased(final TimeFormat format) {
+        return format == TimeFormat.UNIX_TIME || format == TimeFormat.ISO8601UTC;
+    }
+
+    private static boolean isLocal(final TimeFormat format) {
+        return format == TimeFormat.ISO8601TW || format == TimeFormat.DB_DATE_TIME
+                || format == TimeFormat.MYSQL_DATE_TIME;
+    }
+
+    /**
+     * Parse the canonical shape of a UTC based format.
+     *
+     * @return epoch seconds, or NOT_CANONICAL
+     */
+    private static long parseUtcBased(final String timestamp, final TimeFormat format) {
+        if (format == TimeFormat.UNIX_TIME) {
+            return parseEpoch(timestamp);
+        }
+        if (timestamp.length() != LOCAL_DATE_TIME_LENGTH + 1 || timestamp.charAt(LOCAL_DATE_TIME_LENGTH) != 'Z'
+                || timestamp.charAt(10) != 'T') {
+            return NOT_CANONICAL;
+        }
+        try {
+            return CivilCalendar.parseLocalDateTime(timestamp, 0, 'T');
+        } catch (DateTimeException e) {
+            return NOT_CANONICAL;
+        }
+    }
+
+    private static long parseEpoch(final String timestamp) {
+        final int length = timestamp.length();
+        final int start = length > 0 && timestamp.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > MAX_EPOCH_DIGITS) {
+            return NOT_CANONICAL;
+        }
+        long value = 0L;
+        for (int i = start; i < length; i++) {
+            final int digit = timestamp.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_CANONICAL;
+            }
+            value = value * 10 + digit;
+        }
+        return value > MAX_RENDERED_EPOCH_SECOND ? NOT_CANONICAL : start == 1 ? -value : value;
+    }
+
+    /**
+     * Parse the canonical shape of a wall clock layout, limited to the range with the stable offset.
+     *
+     * @return local epoch seconds, or NOT_CANONICAL
+     */
+    private static long parseLocal(final String timestamp, final TimeFormat format) {
+        final int length = timestamp.length();
+        final char separator;
+        if (format == TimeFormat.ISO8601TW) {
+            if (!isIso8601Offset(timestamp, length)) {
+                return NOT_CANONICAL;
+            }
+            separator = 'T';
+        } else if (format == TimeFormat.DB_DATE_TIME) {
+            if (length != LOCAL_DATE_TIME_LENGTH + 2 || timestamp.charAt(LOCAL_DATE_TIME_LENGTH) != '.'
+                    || CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 1) < 0) {
+                return NOT_CANONICAL;
+            }
+            separator = ' ';
+        } else {
+            if (length != LOCAL_DATE_TIME_LENGTH) {
+                return NOT_CANONICAL;
+            }
+            separator = ' ';
+        }
+        final long localEpochSecond;
+        try {
+            localEpochSecond = CivilCalendar.parseLocalDateTime(timestamp, 0, separator);
+        } catch (DateTimeException e) {
+            return NOT_CANONICAL;
+        }
+        return localEpochSecond - STABLE_OFFSET_SECONDS >= STABLE_FROM ? localEpochSecond : NOT_CANONICAL;
+    }
+
+    private static boolean isIso8601Offset(final String timestamp, final int length) {
+        if (length == LOCAL_DATE_TIME_LENGTH + 1) {
+            return timestamp.charAt(LOCAL_DATE_TIME_LENGTH) == 'Z';
+        }
+        if (length != LOCAL_DATE_TIME_LENGTH + 6) {
+            return false;
+        }
+        final char sign = timestamp.charAt(LOCAL_DATE_TIME_LENGTH);
+        final int hours = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 1, 2);
+        final int minutes = CivilCalendar.digits(timestamp, LOCAL_DATE_TIME_LENGTH + 4, 2);
+        return (sign == '+' || sign == '-') && timestamp.charAt(LOCAL_DATE_TIME_LENGTH + 3) == ':' && hours >= 0
+                && minutes >= 0 && minutes <= 59 && (hours < 18 || hours == 18 && minutes == 0);
+    }
+
+    /**
+     * Render epoch seconds into a UTC based format.
+     *
+     * @return timestamp string, or null if the year does not fit the layout
+     */
+    private static String renderUtcBased(final long epochSecond, final TimeFormat format) {
+        if (format == TimeFormat.UNIX_TIME) {
+            return Long.toString(epochSecond);
+        }
+        final StringBuilder buffer = new StringBuilder(LOCAL_DATE_TIME_LENGTH + 1);
+        return CivilCalendar.appendLocalDateTime(buffer, epochSecond, 'T') ? buffer.append('Z').toString() : null;
+    }
+
+    /**
+     * Render local epoch seconds into a wall clock layout.
+     *
+     * @return timestamp string, or null if the year does not fit the layout
+     */
+    private static String renderLocal(final long localEpochSecond, final TimeFormat format) {
+        final StringBuilder buffer = new StringBuilder(LOCAL_DATE_TIME_LENGTH + 6);
+        if (format == TimeFormat.ISO8601TW) {
+            if (!CivilCalendar.appendLocalDateTime(buffer, localEpochSecond, 'T')) {
+                return null;
+            }
+            CivilCalendar.appendOffset(buffer, STABLE_OFFSET_SECONDS);
+            return buffer.toString();
+        }
+        if (!CivilCalendar.appendLocalDateTime(buffer, localEpochSecond, ' ')) {
+            return null;
+        }
+        return format == TimeFormat.DB_DATE_TIME ? buffer.append(".0").toString() : buffer.toString();
+    }
+
+    /**
+     * Return the result of a fused converter, or convert the timestamp the TimeFormat.convert() way if there is none,
+     * and report the conversion to ConversionEvents.
+     *
+     * @param startNanos value of ConversionEvents.start()
+     * @param converted  result of the fused path, null if it does not cover the timestamp
+     * @param timestamp  timestamp string
+     * @param fromType   format of the timestamp string
+     * @param toType     target format
+     * @return converted timestamp string
+     */
+    private static String complete(final long startNanos, final String converted, final String timestamp,
+            final TimeFormat fromType, final TimeFormat toType) {
+        if (null != converted) {
+            ConversionEvents.end(startNanos, CONVERT_OPERATION, fromType.name(), toType.name(), timestamp, null, false);
+            return converted;
+        }
+        try {
+            final String fallback = toType.getTimestampString(fromType.getInstant(timestamp));
+            ConversionEvents.end(startNanos, CONVERT_OPERATION, fromType.name(), toType.name(), timestamp, null, true);
+            return fallback;
+        } catch (RuntimeException e) {
+            ConversionEvents.end(startNanos, CONVERT_OPERATION, fromType.name(), toType.name(), timestamp, e, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Any pair, through TimeFormat.convert().
+     */
+    private static final class Generic implements TimeFormatConverter {
+
+        private final TimeFormat fromType;
+        private final TimeFormat toType;
+
+        private Generic(final TimeFormat fromType, final TimeFormat toType) {
+            this.fromType = fromType;
+            this.toType = toType;
+        }
+
+        @Override
+        public String convert(final String timestamp) {
+            return TimeFormat.convert(timestamp, fromType, toType);
+        }
+
+    }
+
+    /**
+     * UNIX_TIME and ISO8601UTC into each other, or into themselves.
+     */
+    private static final class UtcToUtc implements TimeFormatConverter {
+
+        private final TimeFormat fromType;
+        private final TimeFormat toType;
+
+        private UtcToUtc(final TimeFormat fromType, final TimeFormat toType) {
+            this.fromType = fromType;
+            this.toType = toType;
+        }
+
+        @Override
+        public String convert(final String timestamp) {
+            if (null == timestamp || timestamp.isEmpty()) {
+                return null;
+            }
+            final long startNanos = ConversionEvents.start();
+            final long epochSecond = parseUtcBased(timestamp, fromType);
+            final String converted = epochSecond == NOT_CANONICAL ? null : renderUtcBased(epochSecond, toType);
+            return complete(startNanos, converted, timestamp, fromType, toType);
+        }
+
+    }
+
+    /**
+     * UTC based formats into wall clock layouts, by adding the stable offset.
+     */
+    private static final class UtcToLocal implements TimeFormatConverter {
+
+        private final TimeFormat fromType;
+        private final TimeFormat toType;
+
+        private UtcToLocal(final TimeFormat fromType, final TimeFormat toType) {
+            this.fromType = fromType;
+            this.toType = toType;
+        }
+
+        @Override
+        public String convert(final String timestamp) {
+            if (null == timestamp || timestamp.isEmpty()) {
+                return null;
+            }
+            final long startNanos = ConversionEvents.start();
+            final long epochSecond = parseUtcBased(timestamp, fromType);
+            final String converted = epochSecond == NOT_CANONICAL || epochSecond < STABLE_FROM
+                    ? null : renderLocal(epochSecond + STABLE_OFFSET_SECONDS, toType);
+            return complete(startNanos, converted, timestamp, fromType, toType);
+        }
+
+    }
+
+    /**
+     * Wall clock layouts into UTC based formats, by subtracting the stable offset.
+     */
+    private static final class LocalToUtc implements TimeFormatConverter {
+
+        private final TimeFormat fromType;
+        private final TimeFormat toType;
+
+        private LocalToUtc(final TimeFormat fromType, final TimeFormat toType) {
+            this.fromType = fromType;
+            this.toType = toType;
+        }
+
+        @Override
+        public String convert(final String timestamp) {
+            if (null == timestamp || timestamp.isEmpty()) {
+                return null;
+            }
+            final long startNanos = ConversionEvents.start();
+            final long localEpochSecond = parseLocal(timestamp, fromType);
+            final String converted = localEpochSecond == NOT_CANONICAL
+                    ? null : renderUtcBased(localEpochSecond - STABLE_OFFSET_SECONDS, toType);
+            return complete(startNanos, converted, timestamp, fromType, toType);
+        }
+
+    }
+
+    /**
+     * Wall clock layouts into each other, the fields are carried over without leaving local time.
+     */
+    private static final class LocalToLocal implements TimeFormatConverter {
+
+        private final TimeFormat fromType;
+        private final TimeFormat toType;
+
+        private LocalToLocal(final TimeFormat fromType, final TimeFormat toType) {
+            this.fromType = fromType;
+            this.toType = toType;
+        }
+
+        @Override
+        public String convert(final String timestamp) {
+            if (null == timestamp || timestamp.isEmpty()) {
+                return null;
+            }
+            final long startNanos = ConversionEvents.start();
+            final long localEpochSecond = parseLocal(timestamp, fromType);
+            final String converted = localEpochSecond == NOT_CANONICAL ? null : renderLocal(localEpochSecond, toType);
+            return complete(startNanos, converted, timestamp, fromType, toType);
+        }
+
+    }
+
+}
@@ -11,4 +11,24 @@ public interface TimeFormatable {
 
     String getTimestampString(Instant instant);
 
+    /**
+     * Parse the timestamp into epoch seconds, the fraction of second is truncated.
+     *
+     * @param timestamp timestamp string
+     * @return epoch seconds
+     */
+    default long getEpochSecond(String timestamp) {
+        return getInstant(timestamp).getEpochSecond();
+    }
+
+    /**
+     * Render epoch seconds into the timestamp string.
+     *
+     * @param epochSecond epoch seconds
+     * @return timestamp string
+     */
+    default String getTimestampString(long epochSecond) {
+        return getTimestampString(Instant.ofEpochSecond(epochSecond));
+    }
+
 }
@@ -0,0 +1,156 @@
+package uruz7.commons.util.time;
+
+import java.time.Instant;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Lock-free generator of Snowflake-style 64-bit IDs, laid out from the most significant bit as:
+ * <pre>
+ * 0 | milliseconds since the custom epoch | node | sequence
+ * </pre>
+ * IDs of one generator are strictly increasing and IDs of all nodes sort by time. When the clock moves back, or the
+ * sequence of a millisecond is exhausted, the generator keeps counting on from the last ID and so runs ahead of the
+ * clock, up to the configured lead. Beyond that next() fails with an IllegalStateException instead of waiting.
+ * <p>
+ */
+public final class TimeOrderedIdGenerator {
+
+    /**
+     * 2017-01-01T00:00:00Z
+     */
+    public static final long DEFAULT_EPOCH_MILLIS = 1483228800000L;
+    public static final int DEFAULT_NODE_BITS = 10;
+    public static final int DEFAULT_SEQUENCE_BITS = 12;
+    public static final long DEFAULT_MAX_LEAD_MILLIS = 5000L;
+
+    private final long epochMillis;
+    private final int nodeBits;
+    private final int sequenceBits;
+    private final long nodeId;
+    private final long shiftedNodeId;
+    private final TimeSequenceState state;
+
+    /**
+     * Constructor
+     *
+     * @param epochMillis   custom epoch in epoch milliseconds
+     * @param nodeBits      width of the node ID
+     * @param sequenceBits  width of the sequence
+     * @param nodeId        node ID of this generator
+     * @param maxLeadMillis how far the IDs may run ahead of the clock
+     * @param clock         clock source
+     */
+    public TimeOrderedIdGenerator(final long epochMillis, final int nodeBits, final int sequenceBits,
+            final long nodeId, final long maxLeadMillis, final EpochClock clock) {
+        if (nodeBits < 0 || sequenceBits < 1 || nodeBits + sequenceBits > Long.SIZE - 2) {
+            throw new IllegalArgumentException("Invalid bit layout, node bits: " + nodeBits + ", sequence bits: "
+                    + sequenceBits);
+        }
+        if (nodeId < 0L || nodeId >>> nodeBits != 0L) {
+            throw new IllegalArgumentException("Node ID does not fit into " + nodeBits + " bits: " + nodeId);
+        }
+        if (maxLeadMillis < 0L) {
+            throw new IllegalArgumentException("Lead must not be negative: " + maxLeadMillis);
+        }
+        this.epochMillis = epochMillis;
+        this.nodeBits = nodeBits;
+        this.sequenceBits = sequenceBits;
+        this.nodeId = nodeId;
+        this.shiftedNodeId = nodeId << sequenceBits;
+        this.state = new TimeSequenceState(clock, epochMillis, sequenceBits, Long.SIZE - 1 - nodeBits - sequenceBits,
+                maxLeadMillis);
+    }
+
+    /**
+     * Constructor with the default layout on the system clock.
+     *
+     * @param nodeId node ID of this generator
+     */
+    public TimeOrderedIdGenerator(final long nodeId) {
+        this(DEFAULT_EPOCH_MILLIS, DEFAULT_NODE_BITS, DEFAULT_SEQUENCE_BITS, nodeId, DEFAULT_MAX_LEAD_MILLIS,
+                EpochClock.SYSTEM);
+    }
+
+    /**
+     * Generate the next ID.
+     *
+     * @return ID
+     */
+    public long next() {
+        return compose(state.reserve(1));
+    }
+
+    /**
+     * Reserve consecutive IDs with a single atomic update, for producers that need many IDs at once.
+     *
+     * @param target target array
+     * @param offset first index to fill
+     * @param count  number of IDs
+     */
+    public void next(final long[] target, final int offset, final int count) {
+        if (offset < 0 || count < 0 || offset + count > target.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + count) + ") is out of "
+                    + target.length + " elements");
+        }
+        if (count == 0) {
+            return;
+        }
+        long packed = state.reserve(count);
+        for (int i = offset; i < offset + count; i++) {
+            target[i] = compose(packed++);
+        }
+    }
+
+    /**
+     * Reserve consecutive IDs with a single atomic update.
+     *
+     * @param count number of IDs
+     * @return IDs
+     */
+    public long[] next(final int count) {
+        final long[] ids = new long[count];
+        next(ids, 0, count);
+        return ids;
+    }
+
+    /**
+     * Epoch milliseconds an ID was generated at.
+     *
+     * @param id ID of this layout
+     * @return epoch milliseconds
+     */
+    public long getEpochMillis(final long id) {
+        return (id >>> (nodeBits + sequenceBits)) + epochMillis;
+    }
+
+    public long getNodeId(final long id) {
+        return id >>> sequenceBits & ((1L << nodeBits) - 1L);
+    }
+
+    public long getSequence(final long id) {
+        return id & ((1L << sequenceBits) - 1L);
+    }
+
+    /**
+     * Render the time an ID was generated at.
+     *
+     * @param id     ID of this layout
+     * @param format target format
+     * @return timestamp string
+     */
+    public String format(final long id, final TimeFormat format) {
+        return format.getTimestampString(Instant.ofEpochMilli(getEpochMillis(id)));
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    private long compose(final long packed) {
+        final long millis = packed >>> sequenceBits;
+        final long sequence = packed & ((1L << sequenceBits) - 1L);
+        return millis << (nodeBits + sequenceBits) | shiftedNodeId | sequence;
+    }
+
+}
@@ -0,0 +1,79 @@
+package uruz7.commons.util.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Lock-free source of strictly increasing (millisecond, sequence) pairs packed into one long, shared by the time
+ * ordered ID generators. A new millisecond restarts the sequence at zero. Within the same millisecond, or while the
+ * clock stands behind the last issued value, the packed value is simply incremented: an exhausted sequence carries
+ * into the millisecond, i.e. borrows it from the future. The clock is allowed to fall behind by a bounded lead only.
+ * <p>
+ */
+final class TimeSequenceState {
+
+    private final EpochClock clock;
+    private final long epochMillis;
+    private final int sequenceBits;
+    private final long maxMillis;
+    private final long maxLeadMillis;
+    private final AtomicLong state = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructor
+     *
+     * @param clock         clock source
+     * @param epochMillis   custom epoch the milliseconds are counted from
+     * @param sequenceBits  width of the sequence
+     * @param millisBits    width of the milliseconds
+     * @param maxLeadMillis how far the issued milliseconds may run ahead of the clock
+     */
+    TimeSequenceState(final EpochClock clock, final long epochMillis, final int sequenceBits, final int millisBits,
+            final long maxLeadMillis) {
+        this.clock = clock;
+        this.epochMillis = epochMillis;
+        this.sequenceBits = sequenceBits;
+        this.maxMillis = (1L << millisBits) - 1L;
+        this.maxLeadMillis = maxLeadMillis;
+    }
+
+    /**
+     * Reserve consecutive packed values.
+     *
+     * @param count number of values
+     * @return the first packed value, (millis since the custom epoch) &lt;&lt; sequenceBits | sequence
+     */
+    long reserve(final int count) {
+        while (true) {
+            final long last = state.get();
+            final long now = clock.currentTimeMillis() - epochMillis;
+            if (now < 0L || now > maxMillis) {
+                throw new IllegalStateException("Clock is outside the range of the generator: " + (now + epochMillis));
+            }
+            final long nowFirst = now << sequenceBits;
+            final long first = last == Long.MIN_VALUE || nowFirst > last ? nowFirst : last + 1L;
+            final long end = first + count - 1L;
+            final long lead = (end >>> sequenceBits) - now;
+            if (lead > maxLeadMillis) {
+                throw new IllegalStateException("Generator runs " + lead + " ms ahead of the clock, which moved back "
+                        + "or cannot keep up with the rate");
+            }
+            if (end >>> sequenceBits > maxMillis) {
+                throw new IllegalStateException("Time bits of the generator are exhausted");
+            }
+            if (state.compareAndSet(last, end)) {
+                return first;
+            }
+        }
+    }
+
+    long getEpochMillis() {
+        return epochMillis;
+    }
+
+    int getSequenceBits() {
+        return sequenceBits;
+    }
+
+}
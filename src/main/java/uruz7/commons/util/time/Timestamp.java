@@ -0,0 +1,178 @@
+package uruz7.commons.util.time;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Immutable timestamp that keeps the original text together with its TimeFormat. The text is parsed on first use
+ * only, the epoch value and the offset are cached, and every rendering into another TimeFormat is memoized, so a
+ * value handed through many layers is parsed once no matter how many times it is compared or converted.
+ * <p>
+ * Ordering, equals and hashCode are based on the instant, two timestamps written in different formats are equal
+ * when they denote the same instant. Instances are safe to share between threads.
+ * <p>
+ */
+public final class Timestamp implements Comparable<Timestamp> {
+
+    private static final int UTC_8_OFFSET_SECONDS = 8 * CivilCalendar.SECONDS_PER_HOUR;
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+    private static final TimeFormat[] FORMATS = TimeFormat.values();
+
+    private final String text;
+    private final TimeFormat format;
+    private final String[] renderings = new String[FORMATS.length];
+    private long epochSecond;
+    private int nano;
+    private int offsetSeconds;
+    private volatile boolean parsed;
+
+    private Timestamp(final String text, final TimeFormat format) {
+        this.text = text;
+        this.format = format;
+    }
+
+    /**
+     * Wrap a timestamp string, nothing is parsed yet.
+     *
+     * @param text   timestamp string
+     * @param format format of the timestamp string
+     * @return timestamp
+     */
+    public static Timestamp of(final String text, final TimeFormat format) {
+        if (StringUtils.isEmpty(text)) {
+            throw new IllegalArgumentException("Timestamp text is empty");
+        }
+        if (null == format) {
+            throw new IllegalArgumentException("Time format is null");
+        }
+        return new Timestamp(text, format);
+    }
+
+    /**
+     * Optional input for the factory.
+     *
+     * @param text   timestamp string
+     * @param format format of the timestamp string
+     * @return null if the text is empty, otherwise, it will be a timestamp
+     */
+    public static Timestamp optionalOf(final String text, final TimeFormat format) {
+        return StringUtils.isEmpty(text) ? null : of(text, format);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public TimeFormat getFormat() {
+        return format;
+    }
+
+    public long getEpochSecond() {
+        ensureParsed();
+        return epochSecond;
+    }
+
+    public int getNano() {
+        ensureParsed();
+        return nano;
+    }
+
+    /**
+     * Offset of the value in seconds. For ISO-8601 formats it is the offset written in the text, for the local date
+     * time formats it is the offset of Asia/Taipei at the instant, and it is zero for Unix time.
+     *
+     * @return offset in seconds
+     */
+    public int getOffsetSeconds() {
+        ensureParsed();
+        return offsetSeconds;
+    }
+
+    public Instant toInstant() {
+        ensureParsed();
+        return Instant.ofEpochSecond(epochSecond, nano);
+    }
+
+    /**
+     * Render the timestamp into the specified format, the result is computed once and memoized.
+     *
+     * @param targetFormat target format
+     * @return timestamp string in the target format
+     */
+    public String format(final TimeFormat targetFormat) {
+        final int index = targetFormat.ordinal();
+        String rendering = renderings[index];
+        if (null == rendering) {
+            rendering = targetFormat.getTimestampString(toInstant());
+            renderings[index] = rendering;
+        }
+        return rendering;
+    }
+
+    /**
+     * Distinguish the offset of the value is UTC+8 or not.
+     *
+     * @return is located in utc+8?
+     */
+    public boolean isTimeZoneInUtc8() {
+        return getOffsetSeconds() == UTC_8_OFFSET_SECONDS;
+    }
+
+    @Override
+    public int compareTo(final Timestamp another) {
+        final int compared = Long.compare(getEpochSecond(), another.getEpochSecond());
+        return compared != 0 ? compared : Integer.compare(getNano(), another.getNano());
+    }
+
+    @Override
+    public boolean equals(final Object another) {
+        if (this == another) {
+            return true;
+        }
+        if (!(another instanceof Timestamp)) {
+            return false;
+        }
+        final Timestamp timestamp = (Timestamp) another;
+        return getEpochSecond() == timestamp.getEpochSecond() && getNano() == timestamp.getNano();
+    }
+
+    @Override
+    public int hashCode() {
+        final long seconds = getEpochSecond();
+        return (int) (seconds ^ (seconds >>> 32)) + 51 * getNano();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private void ensureParsed() {
+        if (parsed) {
+            return;
+        }
+        final Instant instant = format.getInstant(text);
+        epochSecond = instant.getEpochSecond();
+        nano = instant.getNano();
+        offsetSeconds = parseOffsetSeconds(instant);
+        parsed = true;
+    }
+
+    private int parseOffsetSeconds(final Instant instant) {
+        switch (format) {
+            case UNIX_TIME:
+            case HTTP_DATE:
+                return 0;
+            case ISO8601UTC:
+            case ISO8601TW:
+                return Iso8601ZoneShifter.parseOffsetSeconds(text);
+            default:
+                return DEFAULT_ZONE_ID.getRules().getOffset(instant).getTotalSeconds();
+        }
+    }
+
+}
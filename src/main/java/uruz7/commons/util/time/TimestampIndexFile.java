@@ -0,0 +1,422 @@
+package uruz7.commons.util.time;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Persistent, append-only index of (epoch second, record offset) entries. Entries are grouped into fixed size blocks
+ * whose headers carry the min and max epoch second of the block, the summaries are kept in memory so that a range
+ * query only maps and reads the blocks overlapping the range.
+ * <p>
+ * File layout, all numbers big-endian:
+ * <pre>
+ * header (64 bytes): magic, version, entries per block, reserved, then two commit slots of
+ *                    (committed entry count, CRC32 of the count, padding)
+ * block:             min epoch second, max epoch second, then (epoch second, record offset) per entry
+ * </pre>
+ * Appends are buffered until commit(), which writes the entries and the block summaries, forces them to disk and only
+ * then publishes the new entry count into the older commit slot. A crash at any point leaves at least one valid slot,
+ * and reopening the file trusts nothing beyond the count of the newest valid slot. Queries see committed entries only.
+ * Methods are synchronized, an instance can be shared between threads.
+ * <p>
+ */
+public final class TimestampIndexFile implements Closeable {
+
+    public static final int DEFAULT_ENTRIES_PER_BLOCK = 4096;
+    public static final int MAX_ENTRIES_PER_BLOCK = 1 << 20;
+
+    private static final int MAGIC = 0x55525A37;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 64;
+    private static final int SLOT_OFFSET = 16;
+    private static final int SLOT_LENGTH = 16;
+    private static final int BLOCK_HEADER_LENGTH = 16;
+    private static final int ENTRY_LENGTH = 16;
+    private static final long MAX_SEGMENT_LENGTH = 64L << 20;
+
+    private final FileChannel channel;
+    private final int entriesPerBlock;
+    private final int blockLength;
+    private final int blocksPerSegment;
+    private long committedCount;
+    private int activeSlot;
+    private long[] blockMin = new long[16];
+    private long[] blockMax = new long[16];
+    private long[] pendingEpochSeconds = new long[64];
+    private long[] pendingRecordOffsets = new long[64];
+    private int pendingCount;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[4];
+
+    private TimestampIndexFile(final FileChannel channel, final int entriesPerBlock) {
+        this.channel = channel;
+        this.entriesPerBlock = entriesPerBlock;
+        this.blockLength = BLOCK_HEADER_LENGTH + entriesPerBlock * ENTRY_LENGTH;
+        this.blocksPerSegment = (int) Math.max(1L, MAX_SEGMENT_LENGTH / blockLength);
+    }
+
+    /**
+     * Open an index file, it will be created with the default block size if it does not exist.
+     *
+     * @param path index file path
+     * @return index file
+     * @throws IOException if the file cannot be opened or is not an index file
+     */
+    public static TimestampIndexFile open(final Path path) throws IOException {
+        return open(path, DEFAULT_ENTRIES_PER_BLOCK);
+    }
+
+    /**
+     * Open an index file, it will be created with the specified block size if it does not exist. An existing file
+     * keeps the block size it was created with.
+     *
+     * @param path            index file path
+     * @param entriesPerBlock entries per block for a new file
+     * @return index file
+     * @throws IOException if the file cannot be opened or is not an index file
+     */
+    public static TimestampIndexFile open(final Path path, final int entriesPerBlock) throws IOException {
+        if (entriesPerBlock < 1 || entriesPerBlock > MAX_ENTRIES_PER_BLOCK) {
+            throw new IllegalArgumentException("Entries per block is out of range: " + entriesPerBlock);
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_LENGTH) {
+                final TimestampIndexFile indexFile = new TimestampIndexFile(channel, entriesPerBlock);
+                indexFile.initialize();
+                return indexFile;
+            }
+            final ByteBuffer header = readFully(channel, 0L, HEADER_LENGTH);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) < 1
+                    || header.getInt(8) > MAX_ENTRIES_PER_BLOCK) {
+                throw new IOException("Not a timestamp index file: " + path);
+            }
+            final TimestampIndexFile indexFile = new TimestampIndexFile(channel, header.getInt(8));
+            indexFile.recover(header);
+            return indexFile;
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Buffer an entry, it becomes durable and visible to queries on the next commit.
+     *
+     * @param epochSecond  epoch second of the record
+     * @param recordOffset offset of the record in the data store
+     */
+    public synchronized void append(final long epochSecond, final long recordOffset) {
+        if (pendingCount == pendingEpochSeconds.length) {
+            pendingEpochSeconds = Arrays.copyOf(pendingEpochSeconds, pendingCount * 2);
+            pendingRecordOffsets = Arrays.copyOf(pendingRecordOffsets, pendingCount * 2);
+        }
+        pendingEpochSeconds[pendingCount] = epochSecond;
+        pendingRecordOffsets[pendingCount] = recordOffset;
+        pendingCount++;
+    }
+
+    /**
+     * Buffer an entry whose time is a timestamp string.
+     *
+     * @param timestamp    timestamp string of the record
+     * @param format       format of the timestamp string
+     * @param recordOffset offset of the record in the data store
+     */
+    public void append(final String timestamp, final TimeFormat format, final long recordOffset) {
+        append(format.getEpochSecond(timestamp), recordOffset);
+    }
+
+    /**
+     * Write the buffered entries, force them to disk and publish the new entry count.
+     *
+     * @throws IOException if writing fails, the committed state is left unchanged
+     */
+    public synchronized void commit() throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+        final long newCount = committedCount + pendingCount;
+        // the summaries in memory only take the new bounds once the commit slot is written
+        final int firstBlock = (int) (committedCount / entriesPerBlock);
+        final long[] newMin = new long[blockCount(newCount) - firstBlock];
+        final long[] newMax = new long[newMin.length];
+        int written = 0;
+        while (written < pendingCount) {
+            final long entryIndex = committedCount + written;
+            final int block = (int) (entryIndex / entriesPerBlock);
+            final int slotInBlock = (int) (entryIndex % entriesPerBlock);
+            final int batch = Math.min(pendingCount - written, entriesPerBlock - slotInBlock);
+            long min = slotInBlock == 0 ? Long.MAX_VALUE : blockMin[block];
+            long max = slotInBlock == 0 ? Long.MIN_VALUE : blockMax[block];
+            final ByteBuffer entries = ByteBuffer.allocate(batch * ENTRY_LENGTH);
+            for (int i = written; i < written + batch; i++) {
+                entries.putLong(pendingEpochSeconds[i]).putLong(pendingRecordOffsets[i]);
+                min = Math.min(min, pendingEpochSeconds[i]);
+                max = Math.max(max, pendingEpochSeconds[i]);
+            }
+            entries.flip();
+            writeFully(entries, blockPosition(block) + BLOCK_HEADER_LENGTH + (long) slotInBlock * ENTRY_LENGTH);
+            final ByteBuffer summary = ByteBuffer.allocate(BLOCK_HEADER_LENGTH);
+            summary.putLong(min).putLong(max).flip();
+            writeFully(summary, blockPosition(block));
+            newMin[block - firstBlock] = min;
+            newMax[block - firstBlock] = max;
+            written += batch;
+        }
+        channel.force(true);
+        writeSlot(1 - activeSlot, newCount);
+        channel.force(false);
+        ensureBlockCapacity(firstBlock + newMin.length - 1);
+        System.arraycopy(newMin, 0, blockMin, firstBlock, newMin.length);
+        System.arraycopy(newMax, 0, blockMax, firstBlock, newMax.length);
+        activeSlot = 1 - activeSlot;
+        committedCount = newCount;
+        pendingCount = 0;
+    }
+
+    /**
+     * Number of committed entries.
+     *
+     * @return committed entry count
+     */
+    public synchronized long size() {
+        return committedCount;
+    }
+
+    /**
+     * Find the record offsets of the committed entries whose time falls in the closed range, in append order.
+     *
+     * @param fromEpochSecond lower bound, inclusive
+     * @param toEpochSecond   upper bound, inclusive
+     * @return record offsets
+     * @throws IOException if reading fails
+     */
+    public long[] query(final long fromEpochSecond, final long toEpochSecond) throws IOException {
+        final long[][] result = {new long[16]};
+        final int[] count = {0};
+        query(fromEpochSecond, toEpochSecond, (epochSecond, recordOffset) -> {
+            if (count[0] == result[0].length) {
+                result[0] = Arrays.copyOf(result[0], count[0] * 2);
+            }
+            result[0][count[0]++] = recordOffset;
+        });
+        return Arrays.copyOf(result[0], count[0]);
+    }
+
+    /**
+     * Find the record offsets of the committed entries whose time falls in the closed range of two timestamps.
+     *
+     * @param from   lower bound, inclusive
+     * @param to     upper bound, inclusive
+     * @param format format of the bounds
+     * @return record offsets
+     * @throws IOException if reading fails
+     */
+    public long[] query(final String from, final String to, final TimeFormat format) throws IOException {
+        return query(format.getEpochSecond(from), format.getEpochSecond(to));
+    }
+
+    /**
+     * Visit the committed entries whose time falls in the closed range, in append order. Blocks whose summary does
+     * not overlap the range are skipped without being read.
+     *
+     * @param fromEpochSecond lower bound, inclusive
+     * @param toEpochSecond   upper bound, inclusive
+     * @param consumer        entry consumer
+     * @throws IOException if reading fails
+     */
+    public synchronized void query(final long fromEpochSecond, final long toEpochSecond, final EntryConsumer consumer)
+            throws IOException {
+        final int blockCount = blockCount(committedCount);
+        for (int block = 0; block < blockCount; block++) {
+            if (blockMax[block] < fromEpochSecond || blockMin[block] > toEpochSecond) {
+                continue;
+            }
+            final ByteBuffer segment = segmentOf(block);
+            final int base = (block % blocksPerSegment) * blockLength + BLOCK_HEADER_LENGTH;
+            final int entries = entriesIn(block);
+            for (int i = 0; i < entries; i++) {
+                final long epochSecond = segment.getLong(base + i * ENTRY_LENGTH);
+                if (epochSecond >= fromEpochSecond && epochSecond <= toEpochSecond) {
+                    consumer.accept(epochSecond, segment.getLong(base + i * ENTRY_LENGTH + 8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the blocks a range query would have to read.
+     *
+     * @param fromEpochSecond lower bound, inclusive
+     * @param toEpochSecond   upper bound, inclusive
+     * @return number of overlapping blocks
+     */
+    synchronized int countOverlappingBlocks(final long fromEpochSecond, final long toEpochSecond) {
+        int overlapping = 0;
+        for (int block = 0; block < blockCount(committedCount); block++) {
+            if (blockMax[block] >= fromEpochSecond && blockMin[block] <= toEpochSecond) {
+                overlapping++;
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Commit the buffered entries and close the file.
+     *
+     * @throws IOException if the final commit fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            segments = new MappedByteBuffer[0];
+            channel.close();
+        }
+    }
+
+    private void initialize() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putInt(VERSION).putInt(entriesPerBlock).putInt(0);
+        header.position(0);
+        writeFully(header, 0L);
+        writeSlot(0, 0L);
+        writeSlot(1, 0L);
+        channel.force(true);
+    }
+
+    private void recover(final ByteBuffer header) throws IOException {
+        final long first = readSlot(header, 0);
+        final long second = readSlot(header, 1);
+        if (first < 0L && second < 0L) {
+            throw new IOException("Both commit slots of the timestamp index file are corrupted");
+        }
+        activeSlot = second > first ? 1 : 0;
+        committedCount = Math.max(first, second);
+        final long available = Math.max(0L, channel.size() - HEADER_LENGTH);
+        final long completeBlocks = available / blockLength;
+        final long availableEntries = completeBlocks * entriesPerBlock
+                + Math.max(0L, (available % blockLength - BLOCK_HEADER_LENGTH) / ENTRY_LENGTH);
+        if (committedCount > availableEntries) {
+            throw new IOException("Timestamp index file is truncated, committed " + committedCount
+                    + " entries but holds " + availableEntries);
+        }
+        final int blockCount = blockCount(committedCount);
+        ensureBlockCapacity(blockCount);
+        for (int block = 0; block < blockCount; block++) {
+            final ByteBuffer segment = segmentOf(block);
+            final int base = (block % blocksPerSegment) * blockLength;
+            if (entriesIn(block) == entriesPerBlock) {
+                blockMin[block] = segment.getLong(base);
+                blockMax[block] = segment.getLong(base + 8);
+            } else {
+                // the summary of the last partial block may cover entries that were never committed
+                blockMin[block] = Long.MAX_VALUE;
+                blockMax[block] = Long.MIN_VALUE;
+                for (int i = 0; i < entriesIn(block); i++) {
+                    final long epochSecond = segment.getLong(base + BLOCK_HEADER_LENGTH + i * ENTRY_LENGTH);
+                    blockMin[block] = Math.min(blockMin[block], epochSecond);
+                    blockMax[block] = Math.max(blockMax[block], epochSecond);
+                }
+            }
+        }
+    }
+
+    private static long readSlot(final ByteBuffer header, final int slot) {
+        final int position = SLOT_OFFSET + slot * SLOT_LENGTH;
+        final long count = header.getLong(position);
+        return count >= 0L && checksum(count) == header.getInt(position + 8) ? count : -1L;
+    }
+
+    private void writeSlot(final int slot, final long count) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SLOT_LENGTH);
+        buffer.putLong(count).putInt(checksum(count)).putInt(0).flip();
+        writeFully(buffer, SLOT_OFFSET + (long) slot * SLOT_LENGTH);
+    }
+
+    private static int checksum(final long count) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(ByteBuffer.allocate(8).putLong(count).array());
+        return (int) crc32.getValue();
+    }
+
+    private int blockCount(final long entryCount) {
+        return (int) ((entryCount + entriesPerBlock - 1) / entriesPerBlock);
+    }
+
+    private int entriesIn(final int block) {
+        return (int) Math.min(entriesPerBlock, committedCount - (long) block * entriesPerBlock);
+    }
+
+    private long blockPosition(final int block) {
+        return HEADER_LENGTH + (long) block * blockLength;
+    }
+
+    private void ensureBlockCapacity(final int block) {
+        if (block >= blockMin.length) {
+            final int length = Math.max(block + 1, blockMin.length * 2);
+            blockMin = Arrays.copyOf(blockMin, length);
+            blockMax = Arrays.copyOf(blockMax, length);
+        }
+    }
+
+    private ByteBuffer segmentOf(final int block) throws IOException {
+        final int segmentIndex = block / blocksPerSegment;
+        if (segmentIndex >= segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(segmentIndex + 1, segments.length * 2));
+        }
+        final long segmentStart = blockPosition(segmentIndex * blocksPerSegment);
+        final long required = blockPosition(block) + BLOCK_HEADER_LENGTH
+                + (long) entriesIn(block) * ENTRY_LENGTH - segmentStart;
+        MappedByteBuffer segment = segments[segmentIndex];
+        if (null == segment || segment.capacity() < required) {
+            final long length = Math.min((long) blocksPerSegment * blockLength, channel.size() - segmentStart);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length);
+            segments[segmentIndex] = segment;
+        }
+        return segment;
+    }
+
+    private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+    private static ByteBuffer readFully(final FileChannel channel, final long position, final int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of timestamp index file");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Receives the entries matched by a range query.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long epochSecond, long recordOffset);
+
+    }
+
+}
@@ -0,0 +1,240 @@
+package uruz7.commons.util.time;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Fixed width binary keys of instants whose unsigned byte order is the chronological order, for key prefixes of
+ * key-value stores and off-heap sort buffers:
+ * <pre>
+ * 8 bytes:  epoch seconds, big-endian, sign bit flipped
+ * 12 bytes: as above, then nano of second (4 bytes, big-endian)
+ * </pre>
+ * Text of any TimeFormat is reduced to its instant first, so 2017-07-27T15:41:00Z and 2017-07-27T23:41:00+08:00 give
+ * the same key. The keys are written big-endian whatever the order of the buffer is.
+ * <p>
+ */
+public final class TimestampKey {
+
+    public static final int SECONDS_LENGTH = 8;
+    public static final int NANOS_LENGTH = 12;
+
+    /**
+     * Constructor
+     */
+    private TimestampKey() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Key length of the layout.
+     *
+     * @param withNanos keep the nano of second?
+     * @return key length in bytes
+     */
+    public static int length(final boolean withNanos) {
+        return withNanos ? NANOS_LENGTH : SECONDS_LENGTH;
+    }
+
+    /**
+     * Write the 8 byte key of epoch seconds.
+     *
+     * @param epochSecond epoch seconds
+     * @param buffer      output buffer
+     */
+    public static void write(final long epochSecond, final ByteBuffer buffer) {
+        putLong(buffer, epochSecond ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Write the 12 byte key of an instant.
+     *
+     * @param epochSecond epoch seconds
+     * @param nano        nano of second
+     * @param buffer      output buffer
+     */
+    public static void write(final long epochSecond, final int nano, final ByteBuffer buffer) {
+        if (nano < 0 || nano >= CivilCalendar.NANOS_PER_SECOND) {
+            throw new DateTimeException("Invalid nano of second: " + nano);
+        }
+        putLong(buffer, epochSecond ^ Long.MIN_VALUE);
+        putInt(buffer, nano);
+    }
+
+    /**
+     * Write the key of a timestamp string.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @param withNanos keep the nano of second?
+     * @param buffer    output buffer
+     */
+    public static void write(final String timestamp, final TimeFormat format, final boolean withNanos,
+            final ByteBuffer buffer) {
+        final Instant instant = format.getInstant(timestamp);
+        write(instant.getEpochSecond(), instant.getNano(), withNanos, buffer);
+    }
+
+    /**
+     * Key of a timestamp string as a byte array.
+     *
+     * @param timestamp timestamp string
+     * @param format    format of the timestamp string
+     * @param withNanos keep the nano of second?
+     * @return key bytes
+     */
+    public static byte[] toBytes(final String timestamp, final TimeFormat format, final boolean withNanos) {
+        final byte[] key = new byte[length(withNanos)];
+        write(timestamp, format, withNanos, ByteBuffer.wrap(key));
+        return key;
+    }
+
+    /**
+     * Write the keys of the timestamps while the buffer has room for a whole key. The text goes through one
+     * MutableTimestamp, so canonical timestamps are encoded without intermediate objects.
+     *
+     * @param timestamps timestamp strings, consumed up to the returned count
+     * @param format     format of the timestamp strings
+     * @param withNanos  keep the nano of second?
+     * @param buffer     output buffer
+     * @return number of keys written
+     */
+    public static int writeAll(final Iterator<? extends CharSequence> timestamps, final TimeFormat format,
+            final boolean withNanos, final ByteBuffer buffer) {
+        final MutableTimestamp holder = new MutableTimestamp();
+        final int length = length(withNanos);
+        int count = 0;
+        while (buffer.remaining() >= length && timestamps.hasNext()) {
+            holder.parse(timestamps.next(), format);
+            write(holder.getEpochSecond(), holder.getNano(), withNanos, buffer);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Read the epoch seconds of a key, the nanos of a 12 byte key are left in the buffer.
+     *
+     * @param buffer input buffer
+     * @return epoch seconds
+     */
+    public static long readEpochSecond(final ByteBuffer buffer) {
+        return getLong(buffer) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Read the nano of second that follows the epoch seconds of a 12 byte key.
+     *
+     * @param buffer input buffer
+     * @return nano of second
+     */
+    public static int readNano(final ByteBuffer buffer) {
+        final int nano = getInt(buffer);
+        if (nano < 0 || nano >= CivilCalendar.NANOS_PER_SECOND) {
+            throw new DateTimeException("Invalid nano of second in key: " + nano);
+        }
+        return nano;
+    }
+
+    /**
+     * Read a key into the holder, its civil fields are viewed in UTC.
+     *
+     * @param buffer    input buffer
+     * @param withNanos does the key keep the nano of second?
+     * @param holder    timestamp holder
+     * @return the timestamp holder
+     */
+    public static MutableTimestamp read(final ByteBuffer buffer, final boolean withNanos,
+            final MutableTimestamp holder) {
+        final long epochSecond = readEpochSecond(buffer);
+        return holder.set(epochSecond, withNanos ? readNano(buffer) : 0);
+    }
+
+    /**
+     * Read a key and render it into the format.
+     *
+     * @param buffer    input buffer
+     * @param withNanos does the key keep the nano of second?
+     * @param format    target format
+     * @return timestamp string
+     */
+    public static String read(final ByteBuffer buffer, final boolean withNanos, final TimeFormat format) {
+        final long epochSecond = readEpochSecond(buffer);
+        return format.getTimestampString(Instant.ofEpochSecond(epochSecond, withNanos ? readNano(buffer) : 0));
+    }
+
+    /**
+     * Read every whole key left in the buffer and render them into the format.
+     *
+     * @param buffer    input buffer
+     * @param withNanos do the keys keep the nano of second?
+     * @param format    target format
+     * @param output    receives the timestamp strings
+     * @return number of keys read
+     */
+    public static int readAll(final ByteBuffer buffer, final boolean withNanos, final TimeFormat format,
+            final Collection<? super String> output) {
+        final MutableTimestamp holder = new MutableTimestamp();
+        final StringBuilder rendering = new StringBuilder(32);
+        final int length = length(withNanos);
+        int count = 0;
+        while (buffer.remaining() >= length) {
+            rendering.setLength(0);
+            output.add(read(buffer, withNanos, holder).format(format, rendering).toString());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Compare two keys as unsigned bytes, like memcmp, a key that is a prefix of the other comes first.
+     *
+     * @param key     a key
+     * @param another another key
+     * @return negative, zero or positive
+     */
+    public static int compare(final byte[] key, final byte[] another) {
+        final int length = Math.min(key.length, another.length);
+        for (int i = 0; i < length; i++) {
+            final int difference = (key[i] & 0xFF) - (another[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return key.length - another.length;
+    }
+
+    private static void write(final long epochSecond, final int nano, final boolean withNanos,
+            final ByteBuffer buffer) {
+        if (withNanos) {
+            write(epochSecond, nano, buffer);
+        } else {
+            write(epochSecond, buffer);
+        }
+    }
+
+    private static void putLong(final ByteBuffer buffer, final long value) {
+        buffer.putLong(buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    private static void putInt(final ByteBuffer buffer, final int value) {
+        buffer.putInt(buffer.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value));
+    }
+
+    private static long getLong(final ByteBuffer buffer) {
+        final long value = buffer.getLong();
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private static int getInt(final ByteBuffer buffer) {
+        final int value = buffer.getInt();
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+}
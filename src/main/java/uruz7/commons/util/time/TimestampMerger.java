@@ -0,0 +1,248 @@
+package uruz7.commons.util.time;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Merges k sources that are each sorted by timestamp into one ordered stream. Only the head element of every source
+ * is held, its timestamp is parsed once into epoch seconds and the heads compete in a loser tree, so every element
+ * costs one parse and log2(k) primitive comparisons. Like TimestampSorter the merge is stable: heads denoting the same
+ * second are taken in source order, and empty timestamps count as the earliest instant. Not thread safe.
+ * <p>
+ */
+public final class TimestampMerger<T> implements Iterator<T>, Closeable {
+
+    private final List<Iterator<? extends T>> sources;
+    private final Function<? super T, String> timestampOf;
+    private final TimeFormat format;
+    private final List<? extends Closeable> closeables;
+    private final int size;
+    private final Object[] heads;
+    private final long[] keys;
+    private final boolean[] exhausted;
+    private final int[] losers;
+    private int winner;
+
+    /**
+     * Constructor
+     *
+     * @param sources     sources sorted by timestamp
+     * @param timestampOf extracts the timestamp string of an element
+     * @param format      format of the timestamps
+     */
+    public TimestampMerger(final List<? extends Iterator<? extends T>> sources,
+            final Function<? super T, String> timestampOf, final TimeFormat format) {
+        this(sources, timestampOf, format, new ArrayList<Closeable>());
+    }
+
+    private TimestampMerger(final List<? extends Iterator<? extends T>> sources,
+            final Function<? super T, String> timestampOf, final TimeFormat format,
+            final List<? extends Closeable> closeables) {
+        this.sources = new ArrayList<>(sources);
+        this.timestampOf = timestampOf;
+        this.format = format;
+        this.closeables = closeables;
+        this.size = sources.size();
+        this.heads = new Object[size];
+        this.keys = new long[size];
+        this.exhausted = new boolean[size];
+        this.losers = new int[size];
+        for (int i = 0; i < size; i++) {
+            advance(i);
+        }
+        winner = size == 0 ? -1 : size == 1 ? 0 : build(1);
+    }
+
+    /**
+     * Merge sorted timestamp strings.
+     *
+     * @param sources sources of timestamp strings, each sorted
+     * @param format  format of the timestamp strings
+     * @return merger
+     */
+    public static TimestampMerger<String> ofTimestamps(final List<? extends Iterator<String>> sources,
+            final TimeFormat format) {
+        return new TimestampMerger<>(sources, Function.identity(), format);
+    }
+
+    /**
+     * Merge the lines of readers, e.g. log files, each sorted by the timestamp of its lines. Closing the merger closes
+     * the readers, read failures are rethrown as UncheckedIOException.
+     *
+     * @param readers     readers of lines sorted by timestamp
+     * @param timestampOf extracts the timestamp string of a line, e.g. line -&gt; line.substring(0, 19)
+     * @param format      format of the timestamps
+     * @return merger
+     */
+    public static TimestampMerger<String> ofLines(final List<? extends Reader> readers,
+            final Function<String, String> timestampOf, final TimeFormat format) {
+        final List<LineIterator> sources = new ArrayList<>(readers.size());
+        for (final Reader reader : readers) {
+            sources.add(new LineIterator(reader instanceof BufferedReader
+                    ? (BufferedReader) reader : new BufferedReader(reader)));
+        }
+        return new TimestampMerger<>(sources, timestampOf, format, sources);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return winner >= 0 && !exhausted[winner];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final int source = winner;
+        final T element = (T) heads[source];
+        advance(source);
+        replay(source);
+        return element;
+    }
+
+    /**
+     * Epoch second of the element next() returns, without taking it.
+     *
+     * @return epoch seconds, Long.MIN_VALUE for an empty timestamp
+     */
+    public long peekEpochSecond() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return keys[winner];
+    }
+
+    /**
+     * Index of the source next() takes its element from.
+     *
+     * @return source index
+     */
+    public int peekSource() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return winner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (final Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                if (null == failure) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private void advance(final int source) {
+        final Iterator<? extends T> iterator = sources.get(source);
+        if (!iterator.hasNext()) {
+            heads[source] = null;
+            exhausted[source] = true;
+            return;
+        }
+        final T element = iterator.next();
+        final String timestamp = timestampOf.apply(element);
+        heads[source] = element;
+        keys[source] = StringUtils.isEmpty(timestamp) ? Long.MIN_VALUE : format.getEpochSecond(timestamp);
+    }
+
+    private int build(final int node) {
+        if (node >= size) {
+            return node - size;
+        }
+        final int left = build(node << 1);
+        final int right = build(node << 1 | 1);
+        if (beats(left, right)) {
+            losers[node] = right;
+            return left;
+        }
+        losers[node] = left;
+        return right;
+    }
+
+    private void replay(final int source) {
+        int candidate = source;
+        for (int node = (source + size) >>> 1; node > 0; node >>>= 1) {
+            if (beats(losers[node], candidate)) {
+                final int loser = candidate;
+                candidate = losers[node];
+                losers[node] = loser;
+            }
+        }
+        winner = candidate;
+    }
+
+    private boolean beats(final int one, final int another) {
+        if (exhausted[one] || exhausted[another]) {
+            return exhausted[another] && (!exhausted[one] || one < another);
+        }
+        return keys[one] < keys[another] || keys[one] == keys[another] && one < another;
+    }
+
+    /**
+     * Lines of a reader as an iterator.
+     */
+    private static final class LineIterator implements Iterator<String>, Closeable {
+
+        private final BufferedReader reader;
+        private String line;
+        private boolean fetched;
+
+        private LineIterator(final BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                try {
+                    line = reader.readLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                fetched = true;
+            }
+            return null != line;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            fetched = false;
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,245 @@
+package uruz7.commons.util.time;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Restores the timestamp order of a nearly sorted stream. Events are held in a binary heap of primitive epoch second
+ * keys until the watermark, the latest epoch second seen minus the lateness window, passes them, and are then
+ * released to the sink in order; events of the same second keep their arrival order. An event older than the
+ * watermark on arrival is dropped as late. Offering costs O(log w) for w buffered events. Optionally events of the
+ * same second with equal deduplication keys are released only once. Not thread safe.
+ * <p>
+ */
+public final class TimestampReorderBuffer<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long latenessSeconds;
+    private final Function<? super T, String> timestampOf;
+    private final TimeFormat format;
+    private final Function<? super T, ?> deduplicationKeyOf;
+    private final Consumer<? super T> sink;
+    private final Set<Object> releasedKeys = new HashSet<>();
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private Object[] events = new Object[INITIAL_CAPACITY];
+    private int size;
+    private long nextSequence;
+    private long watermark = Long.MIN_VALUE;
+    private long releasedSecond = Long.MIN_VALUE;
+    private long lateCount;
+    private long duplicateCount;
+
+    /**
+     * Constructor
+     *
+     * @param latenessSeconds how many seconds an event may arrive behind the latest one
+     * @param timestampOf     extracts the timestamp string of an event
+     * @param format          format of the timestamps
+     * @param sink            receives the events in order
+     */
+    public TimestampReorderBuffer(final long latenessSeconds, final Function<? super T, String> timestampOf,
+            final TimeFormat format, final Consumer<? super T> sink) {
+        this(latenessSeconds, timestampOf, format, null, sink);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param latenessSeconds    how many seconds an event may arrive behind the latest one
+     * @param timestampOf        extracts the timestamp string of an event
+     * @param format             format of the timestamps
+     * @param deduplicationKeyOf extracts the key events of the same second are deduplicated by, null to keep all
+     * @param sink               receives the events in order
+     */
+    public TimestampReorderBuffer(final long latenessSeconds, final Function<? super T, String> timestampOf,
+            final TimeFormat format, final Function<? super T, ?> deduplicationKeyOf,
+            final Consumer<? super T> sink) {
+        if (latenessSeconds < 0L) {
+            throw new IllegalArgumentException("Lateness must not be negative: " + latenessSeconds);
+        }
+        this.latenessSeconds = latenessSeconds;
+        this.timestampOf = timestampOf;
+        this.format = format;
+        this.deduplicationKeyOf = deduplicationKeyOf;
+        this.sink = sink;
+    }
+
+    /**
+     * Reorder timestamp strings themselves.
+     *
+     * @param latenessSeconds how many seconds a timestamp may arrive behind the latest one
+     * @param format          format of the timestamps
+     * @param deduplicate     release identical timestamps once?
+     * @param sink            receives the timestamps in order
+     * @return reorder buffer
+     */
+    public static TimestampReorderBuffer<String> ofTimestamps(final long latenessSeconds, final TimeFormat format,
+            final boolean deduplicate, final Consumer<? super String> sink) {
+        return new TimestampReorderBuffer<>(latenessSeconds, Function.identity(), format,
+                deduplicate ? Function.identity() : null, sink);
+    }
+
+    /**
+     * Add an event, and release every buffered event the advanced watermark has passed.
+     *
+     * @param event event
+     * @return false if the event was late and dropped
+     */
+    public boolean offer(final T event) {
+        final String timestamp = timestampOf.apply(event);
+        final long epochSecond = StringUtils.isEmpty(timestamp) ? Long.MIN_VALUE : format.getEpochSecond(timestamp);
+        if (epochSecond < watermark) {
+            lateCount++;
+            return false;
+        }
+        push(epochSecond, event);
+        final long candidate = epochSecond - latenessSeconds;
+        advanceWatermark(candidate > epochSecond ? Long.MIN_VALUE : candidate);
+        return true;
+    }
+
+    /**
+     * Move the watermark forward without an event, e.g. when an idle source reports its clock, and release every
+     * buffered event before it.
+     *
+     * @param epochSecond new watermark, ignored if not ahead of the current one
+     */
+    public void advanceWatermark(final long epochSecond) {
+        if (epochSecond <= watermark) {
+            return;
+        }
+        watermark = epochSecond;
+        while (size > 0 && keys[0] < watermark) {
+            release();
+        }
+    }
+
+    /**
+     * Release every buffered event, e.g. at the end of the stream. Events older than the last flushed one are late
+     * from then on.
+     */
+    public void flush() {
+        while (size > 0) {
+            final long epochSecond = keys[0];
+            release();
+            watermark = Math.max(watermark, epochSecond);
+        }
+    }
+
+    /**
+     * Number of buffered events.
+     *
+     * @return buffered event count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Events older than this epoch second are late.
+     *
+     * @return watermark in epoch seconds
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public long getLateCount() {
+        return lateCount;
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public long getLatenessSeconds() {
+        return latenessSeconds;
+    }
+
+    private void push(final long key, final Object event) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            sequences = Arrays.copyOf(sequences, size << 1);
+            events = Arrays.copyOf(events, size << 1);
+        }
+        final long sequence = nextSequence++;
+        int index = size++;
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!before(key, sequence, parent)) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        keys[index] = key;
+        sequences[index] = sequence;
+        events[index] = event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release() {
+        final long key = keys[0];
+        final T event = (T) events[0];
+        size--;
+        if (size > 0) {
+            siftDown(keys[size], sequences[size], events[size]);
+        }
+        events[size] = null;
+        if (null != deduplicationKeyOf) {
+            if (key != releasedSecond) {
+                releasedKeys.clear();
+                releasedSecond = key;
+            }
+            if (!releasedKeys.add(deduplicationKeyOf.apply(event))) {
+                duplicateCount++;
+                return;
+            }
+        }
+        sink.accept(event);
+    }
+
+    private void siftDown(final long key, final long sequence, final Object event) {
+        int index = 0;
+        final int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            if (child + 1 < size && before(keys[child + 1], sequences[child + 1], child)) {
+                child++;
+            }
+            if (!before(keys[child], sequences[child], key, sequence)) {
+                break;
+            }
+            move(child, index);
+            index = child;
+        }
+        keys[index] = key;
+        sequences[index] = sequence;
+        events[index] = event;
+    }
+
+    private boolean before(final long key, final long sequence, final int index) {
+        return before(key, sequence, keys[index], sequences[index]);
+    }
+
+    private static boolean before(final long key, final long sequence, final long anotherKey,
+            final long anotherSequence) {
+        return key < anotherKey || key == anotherKey && sequence < anotherSequence;
+    }
+
+    private void move(final int from, final int to) {
+        keys[to] = keys[from];
+        sequences[to] = sequences[from];
+        events[to] = events[from];
+    }
+
+}
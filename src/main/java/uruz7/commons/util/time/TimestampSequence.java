@@ -0,0 +1,243 @@
+package uruz7.commons.util.time;
+
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Evenly spaced timestamps from a start (inclusive) to an end (exclusive), rendered in one TimeFormat, e.g. every
+ * minute of a day for partition names. A cursor keeps the current rendering in a reusable buffer: within a day and an
+ * offset window a step only rewrites the time digits, and a Unix timestamp is incremented digit by digit. The TimeFormat
+ * renders the value again on every day or offset rollover, so the output is the same as getTimestampString().
+ * <p>
+ */
+public final class TimestampSequence implements Iterable<String> {
+
+    private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Asia/Taipei");
+
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+    private final long stepSeconds;
+    private final TimeFormat format;
+
+    /**
+     * Constructor
+     *
+     * @param startEpochSecond first epoch second, inclusive
+     * @param endEpochSecond   last epoch second, exclusive
+     * @param stepSeconds      step in seconds
+     * @param format           format of the rendered timestamps
+     */
+    public TimestampSequence(final long startEpochSecond, final long endEpochSecond, final long stepSeconds,
+            final TimeFormat format) {
+        if (stepSeconds <= 0L) {
+            throw new IllegalArgumentException("Step must be positive: " + stepSeconds);
+        }
+        if (startEpochSecond > endEpochSecond) {
+            throw new IllegalArgumentException("Sequence ends before it starts: " + startEpochSecond + " > "
+                    + endEpochSecond);
+        }
+        if (null == format) {
+            throw new IllegalArgumentException("Format must not be null");
+        }
+        this.startEpochSecond = startEpochSecond;
+        this.endEpochSecond = endEpochSecond;
+        this.stepSeconds = stepSeconds;
+        this.format = format;
+    }
+
+    /**
+     * Constructor with bounds in the same format as the output.
+     *
+     * @param start       first timestamp, inclusive
+     * @param end         last timestamp, exclusive
+     * @param stepSeconds step in seconds
+     * @param format      format of the bounds and of the rendered timestamps
+     */
+    public TimestampSequence(final String start, final String end, final long stepSeconds, final TimeFormat format) {
+        this(format.getEpochSecond(start), format.getEpochSecond(end), stepSeconds, format);
+    }
+
+    /**
+     * Number of timestamps in the sequence.
+     *
+     * @return timestamp count
+     */
+    public long size() {
+        final long span = endEpochSecond - startEpochSecond;
+        return span / stepSeconds + (span % stepSeconds == 0L ? 0L : 1L);
+    }
+
+    @Override
+    public Cursor iterator() {
+        return new Cursor();
+    }
+
+    /**
+     * Render the whole sequence.
+     *
+     * @return timestamp strings
+     */
+    public String[] toArray() {
+        final long size = size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Sequence is too long for an array: " + size);
+        }
+        final String[] timestamps = new String[(int) size];
+        iterator().fill(timestamps, 0, timestamps.length);
+        return timestamps;
+    }
+
+    /**
+     * Stateful position in the sequence, not thread safe.
+     */
+    public final class Cursor implements Iterator<String> {
+
+        private final ZoneOffsetLookup lookup;
+        private final boolean civilLayout;
+        private char[] buffer = new char[32];
+        private int length;
+        private long next = startEpochSecond;
+        private long current;
+        private boolean rendered;
+        private long incrementalUntil;
+        private int secondOfDay;
+
+        private Cursor() {
+            civilLayout = format == TimeFormat.ISO8601UTC || format == TimeFormat.ISO8601TW
+                    || format == TimeFormat.DB_DATE_TIME || format == TimeFormat.MYSQL_DATE_TIME;
+            lookup = format == TimeFormat.ISO8601UTC || !civilLayout
+                    ? null : new ZoneOffsetLookup(DEFAULT_ZONE_ID);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < endEpochSecond;
+        }
+
+        @Override
+        public String next() {
+            advance();
+            return new String(buffer, 0, length);
+        }
+
+        /**
+         * Append the next timestamp to the output instead of creating a string.
+         *
+         * @param output output buffer
+         * @return the output buffer
+         */
+        public StringBuilder nextInto(final StringBuilder output) {
+            advance();
+            return output.append(buffer, 0, length);
+        }
+
+        /**
+         * Render the following timestamps into the target array.
+         *
+         * @param target target array
+         * @param offset first index to fill
+         * @param count  maximum number of timestamps
+         * @return number of timestamps filled, smaller than count only at the end of the sequence
+         */
+        public int fill(final String[] target, final int offset, final int count) {
+            if (offset < 0 || count < 0 || offset + count > target.length) {
+                throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + count) + ") is out of "
+                        + target.length + " elements");
+            }
+            int filled = 0;
+            while (filled < count && hasNext()) {
+                target[offset + filled] = next();
+                filled++;
+            }
+            return filled;
+        }
+
+        /**
+         * Epoch second of the timestamp returned last.
+         *
+         * @return epoch seconds
+         */
+        public long getEpochSecond() {
+            return current;
+        }
+
+        private void advance() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final long epochSecond = next;
+            if (rendered && epochSecond < incrementalUntil && epochSecond - current == stepSeconds) {
+                increment();
+            } else {
+                render(epochSecond);
+            }
+            current = epochSecond;
+            rendered = true;
+            // stop at the end instead of overflowing past Long.MAX_VALUE
+            next = endEpochSecond - epochSecond > stepSeconds ? epochSecond + stepSeconds : endEpochSecond;
+        }
+
+        private void increment() {
+            if (civilLayout) {
+                secondOfDay += (int) stepSeconds;
+                writeTime();
+                return;
+            }
+            long carry = stepSeconds;
+            int index = length - 1;
+            while (carry != 0L && index >= 0) {
+                final long digit = buffer[index] - '0' + carry;
+                buffer[index] = (char) ('0' + digit % 10);
+                carry = digit / 10;
+                index--;
+            }
+            if (carry != 0L) {
+                render(current + stepSeconds);
+            }
+        }
+
+        private void render(final long epochSecond) {
+            final String timestamp = format.getTimestampString(epochSecond);
+            length = timestamp.length();
+            if (buffer.length < length) {
+                buffer = new char[length];
+            }
+            timestamp.getChars(0, length, buffer, 0);
+            incrementalUntil = Long.MIN_VALUE;
+            if (!civilLayout) {
+                // a Unix timestamp can be incremented digit by digit while it is not negative, others render again
+                incrementalUntil = format == TimeFormat.UNIX_TIME && epochSecond >= 0L
+                        && stepSeconds <= Integer.MAX_VALUE ? Long.MAX_VALUE : Long.MIN_VALUE;
+                return;
+            }
+            if (stepSeconds >= CivilCalendar.SECONDS_PER_DAY || length < 19 || buffer[13] != ':'
+                    || buffer[16] != ':') {
+                return;
+            }
+            final int offsetSeconds = null == lookup ? 0 : lookup.offsetAt(epochSecond);
+            final long localEpochSecond = epochSecond + offsetSeconds;
+            secondOfDay = (int) Math.floorMod(localEpochSecond, (long) CivilCalendar.SECONDS_PER_DAY);
+            if (secondOfDay / CivilCalendar.SECONDS_PER_HOUR != CivilCalendar.digits(timestamp, 11, 2)) {
+                return;
+            }
+            final long endOfDay = epochSecond + CivilCalendar.SECONDS_PER_DAY - secondOfDay;
+            incrementalUntil = null == lookup ? endOfDay : Math.min(endOfDay, lookup.validUntil(epochSecond));
+        }
+
+        private void writeTime() {
+            writeTwoDigits(11, secondOfDay / CivilCalendar.SECONDS_PER_HOUR);
+            writeTwoDigits(14, secondOfDay / CivilCalendar.SECONDS_PER_MINUTE % 60);
+            writeTwoDigits(17, secondOfDay % 60);
+        }
+
+        private void writeTwoDigits(final int index, final int value) {
+            buffer[index] = (char) ('0' + value / 10);
+            buffer[index + 1] = (char) ('0' + value % 10);
+        }
+
+    }
+
+}
@@ -0,0 +1,299 @@
+package uruz7.commons.util.time;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Compact binary codec for sequences of epoch values, meant for mostly monotonic series such as the Unix timestamps
+ * produced by TimeFormat.UNIX_TIME. Every value is stored as the zig-zag encoded delta of its delta, packed into a
+ * Gorilla-style variable length bit bucket:
+ * <p>
+ * '0' for zero, '10' + 7 bits, '110' + 9 bits, '1110' + 12 bits, '11110' + 32 bits, '111110' + 64 bits,
+ * and '111111' marks the end of the sequence, after which the stream is padded to a whole byte.
+ * <p>
+ * A series sampled at a fixed interval costs one bit per value, a series with small jitter costs about one byte.
+ * <p>
+ */
+public final class TimestampSequenceCodec {
+
+    private static final int MAX_BYTES_PER_VALUE = 9;
+    private static final int END_OF_SEQUENCE = 6;
+
+    /**
+     * Constructor
+     */
+    private TimestampSequenceCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Encode the values into a new buffer, ready to be read.
+     *
+     * @param values epoch values
+     * @return encoded buffer
+     */
+    public static ByteBuffer encode(final long[] values) {
+        final ByteBuffer buffer = ByteBuffer.allocate(maxEncodedLength(values.length));
+        final Encoder encoder = new Encoder(buffer);
+        for (final long value : values) {
+            encoder.write(value);
+        }
+        encoder.finish();
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Parse the timestamps into epoch seconds and encode them into a new buffer, ready to be read.
+     *
+     * @param timestamps timestamp strings
+     * @param format     format of the timestamp strings
+     * @return encoded buffer
+     */
+    public static ByteBuffer encode(final List<String> timestamps, final TimeFormat format) {
+        final long[] values = new long[timestamps.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = format.getEpochSecond(timestamps.get(i));
+        }
+        return encode(values);
+    }
+
+    /**
+     * Decode a whole sequence from the buffer.
+     *
+     * @param buffer encoded buffer
+     * @return epoch values
+     */
+    public static long[] decode(final ByteBuffer buffer) {
+        final Decoder decoder = new Decoder(buffer);
+        long[] values = new long[16];
+        int count = 0;
+        while (decoder.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = decoder.next();
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Decode a whole sequence of epoch seconds from the buffer straight into timestamp strings.
+     *
+     * @param buffer encoded buffer
+     * @param format target format
+     * @return timestamp strings
+     */
+    public static List<String> decode(final ByteBuffer buffer, final TimeFormat format) {
+        final Decoder decoder = new Decoder(buffer);
+        final List<String> timestamps = new ArrayList<>();
+        while (decoder.hasNext()) {
+            timestamps.add(decoder.nextTimestampString(format));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Upper bound of the encoded size of a sequence.
+     *
+     * @param count number of values
+     * @return size in bytes
+     */
+    public static int maxEncodedLength(final int count) {
+        return count * MAX_BYTES_PER_VALUE + 1;
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * Streaming encoder that writes into a ByteBuffer, finish() must be called once after the last value.
+     * Not thread safe.
+     */
+    public static final class Encoder {
+
+        private final ByteBuffer buffer;
+        private long pending;
+        private int pendingBits;
+        private long previousValue;
+        private long previousDelta;
+        private int count;
+        private boolean finished;
+
+        public Encoder(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Append a value to the sequence.
+         *
+         * @param value epoch value
+         */
+        public void write(final long value) {
+            if (finished) {
+                throw new IllegalStateException("Encoder is already finished");
+            }
+            final long delta = value - previousValue;
+            final long deltaOfDelta = zigZag(delta - previousDelta);
+            if (deltaOfDelta == 0L) {
+                writeBits(0L, 1);
+            } else if (deltaOfDelta >>> 7 == 0L) {
+                writeBits(0b10L, 2);
+                writeBits(deltaOfDelta, 7);
+            } else if (deltaOfDelta >>> 9 == 0L) {
+                writeBits(0b110L, 3);
+                writeBits(deltaOfDelta, 9);
+            } else if (deltaOfDelta >>> 12 == 0L) {
+                writeBits(0b1110L, 4);
+                writeBits(deltaOfDelta, 12);
+            } else if (deltaOfDelta >>> 32 == 0L) {
+                writeBits(0b11110L, 5);
+                writeBits(deltaOfDelta, 32);
+            } else {
+                writeBits(0b111110L, 6);
+                writeBits(deltaOfDelta >>> 32, 32);
+                writeBits(deltaOfDelta, 32);
+            }
+            // the first value is stored against zero, the delta chain starts from the second one
+            previousDelta = count == 0 ? 0L : delta;
+            previousValue = value;
+            count++;
+        }
+
+        /**
+         * Write the end marker and flush the last partial byte.
+         */
+        public void finish() {
+            if (!finished) {
+                writeBits(0b111111L, END_OF_SEQUENCE);
+                if (pendingBits > 0) {
+                    writeBits(0L, 8 - pendingBits);
+                }
+                finished = true;
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        private void writeBits(final long value, final int bitCount) {
+            pending = (pending << bitCount) | (value & ((1L << bitCount) - 1L));
+            pendingBits += bitCount;
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                buffer.put((byte) (pending >>> pendingBits));
+            }
+            pending &= (1L << pendingBits) - 1L;
+        }
+
+    }
+
+    /**
+     * Streaming decoder that reads from a ByteBuffer up to the end marker. Not thread safe.
+     */
+    public static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private long available;
+        private int availableBits;
+        private long previousValue;
+        private long previousDelta;
+        private int count;
+        private long nextValue;
+        private boolean hasNextValue;
+        private boolean ended;
+
+        public Decoder(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public boolean hasNext() {
+            if (!hasNextValue && !ended) {
+                readNext();
+            }
+            return hasNextValue;
+        }
+
+        /**
+         * Read the next value.
+         *
+         * @return epoch value
+         */
+        public long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNextValue = false;
+            return nextValue;
+        }
+
+        /**
+         * Read the next value as epoch seconds rendered into the target format.
+         *
+         * @param format target format
+         * @return timestamp string
+         */
+        public String nextTimestampString(final TimeFormat format) {
+            return format.getTimestampString(next());
+        }
+
+        private void readNext() {
+            int ones = 0;
+            while (ones < END_OF_SEQUENCE && readBits(1) == 1L) {
+                ones++;
+            }
+            final long deltaOfDelta;
+            switch (ones) {
+                case 0:
+                    deltaOfDelta = 0L;
+                    break;
+                case 1:
+                    deltaOfDelta = readBits(7);
+                    break;
+                case 2:
+                    deltaOfDelta = readBits(9);
+                    break;
+                case 3:
+                    deltaOfDelta = readBits(12);
+                    break;
+                case 4:
+                    deltaOfDelta = readBits(32);
+                    break;
+                case 5:
+                    deltaOfDelta = readBits(32) << 32 | readBits(32);
+                    break;
+                default:
+                    ended = true;
+                    return;
+            }
+            final long delta = previousDelta + unZigZag(deltaOfDelta);
+            nextValue = previousValue + delta;
+            previousDelta = count == 0 ? 0L : delta;
+            previousValue = nextValue;
+            count++;
+            hasNextValue = true;
+        }
+
+        private long readBits(final int bitCount) {
+            while (availableBits < bitCount) {
+                available = (available << 8) | (buffer.get() & 0xFFL);
+                availableBits += 8;
+            }
+            availableBits -= bitCount;
+            return (available >>> availableBits) & ((1L << bitCount) - 1L);
+        }
+
+    }
+
+}
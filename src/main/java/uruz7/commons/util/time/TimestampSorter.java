@@ -0,0 +1,178 @@
+package uruz7.commons.util.time;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Sorts timestamp strings of any TimeFormat by parsing every element exactly once. The epoch second keys are
+ * extracted in parallel for large inputs, sorted as primitives while carrying the original indices, and the input
+ * is then permuted. The order is always stable: elements denoting the same second keep their input order, and
+ * empty elements are placed first.
+ * <p>
+ */
+public final class TimestampSorter {
+
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Constructor
+     */
+    private TimestampSorter() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sort the timestamps into a new list, the input is left untouched.
+     *
+     * @param timestamps timestamp strings
+     * @param format     format of the timestamp strings
+     * @return sorted timestamp strings
+     */
+    public static List<String> sort(final List<String> timestamps, final TimeFormat format) {
+        final String[] source = timestamps.toArray(new String[0]);
+        final int[] order = sortIndices(extractKeys(source, format));
+        final List<String> sorted = new ArrayList<>(source.length);
+        for (final int index : order) {
+            sorted.add(source[index]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Sort the timestamp array in place.
+     *
+     * @param timestamps timestamp strings
+     * @param format     format of the timestamp strings
+     */
+    public static void sortInPlace(final String[] timestamps, final TimeFormat format) {
+        final int[] order = sortIndices(extractKeys(timestamps, format));
+        final String[] source = timestamps.clone();
+        for (int i = 0; i < order.length; i++) {
+            timestamps[i] = source[order[i]];
+        }
+    }
+
+    /**
+     * Compute the stable sorting permutation of the timestamps: element i of the result is the index of the i-th
+     * smallest timestamp of the input.
+     *
+     * @param timestamps timestamp strings
+     * @param format     format of the timestamp strings
+     * @return sorting permutation
+     */
+    public static int[] sortedOrder(final String[] timestamps, final TimeFormat format) {
+        return sortIndices(extractKeys(timestamps, format));
+    }
+
+    /**
+     * Parse every timestamp once into epoch seconds, in parallel for large inputs. Empty timestamps get
+     * Long.MIN_VALUE.
+     *
+     * @param timestamps timestamp strings
+     * @param format     format of the timestamp strings
+     * @return epoch second keys
+     */
+    static long[] extractKeys(final String[] timestamps, final TimeFormat format) {
+        final long[] keys = new long[timestamps.length];
+        final IntToLongFunction extractor = index -> StringUtils.isEmpty(timestamps[index])
+                ? Long.MIN_VALUE : format.getEpochSecond(timestamps[index]);
+        if (keys.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(keys, extractor);
+        } else {
+            Arrays.setAll(keys, extractor);
+        }
+        return keys;
+    }
+
+    /**
+     * Compute the stable sorting permutation of primitive keys. Large inputs whose key range leaves room for the
+     * index are packed into single longs and sorted in parallel, everything else goes through an LSD radix sort.
+     *
+     * @param keys keys to sort, left untouched
+     * @return sorting permutation
+     */
+    static int[] sortIndices(final long[] keys) {
+        if (keys.length >= PARALLEL_THRESHOLD) {
+            final int[] packed = packedParallelSort(keys);
+            if (null != packed) {
+                return packed;
+            }
+        }
+        return radixSort(keys);
+    }
+
+    private static int[] packedParallelSort(final long[] keys) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (final long key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        final int indexBits = Integer.SIZE - Integer.numberOfLeadingZeros(keys.length - 1);
+        final long range = max - min;
+        if (range < 0L || range >= 1L << (Long.SIZE - 1 - indexBits)) {
+            return null;
+        }
+        final long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            packed[i] = (keys[i] - min) << indexBits | i;
+        }
+        Arrays.parallelSort(packed);
+        final long indexMask = (1L << indexBits) - 1L;
+        final int[] order = new int[keys.length];
+        for (int i = 0; i < packed.length; i++) {
+            order[i] = (int) (packed[i] & indexMask);
+        }
+        return order;
+    }
+
+    private static int[] radixSort(final long[] keys) {
+        final int length = keys.length;
+        long[] currentKeys = new long[length];
+        long[] nextKeys = new long[length];
+        int[] currentOrder = new int[length];
+        int[] nextOrder = new int[length];
+        for (int i = 0; i < length; i++) {
+            currentKeys[i] = keys[i] ^ Long.MIN_VALUE;
+            currentOrder[i] = i;
+        }
+        final int[] counts = new int[RADIX];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (final long key : currentKeys) {
+                counts[(int) (key >>> shift) & (RADIX - 1)]++;
+            }
+            if (length == 0 || counts[(int) (currentKeys[0] >>> shift) & (RADIX - 1)] == length) {
+                continue;
+            }
+            int position = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                final int count = counts[digit];
+                counts[digit] = position;
+                position += count;
+            }
+            for (int i = 0; i < length; i++) {
+                final int target = counts[(int) (currentKeys[i] >>> shift) & (RADIX - 1)]++;
+                nextKeys[target] = currentKeys[i];
+                nextOrder[target] = currentOrder[i];
+            }
+            final long[] swappedKeys = currentKeys;
+            currentKeys = nextKeys;
+            nextKeys = swappedKeys;
+            final int[] swappedOrder = currentOrder;
+            currentOrder = nextOrder;
+            nextOrder = swappedOrder;
+        }
+        return currentOrder;
+    }
+
+}
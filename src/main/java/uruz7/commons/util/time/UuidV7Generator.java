@@ -0,0 +1,105 @@
+package uruz7.commons.util.time;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Lock-free generator of version 7 UUIDs as specified by RFC 9562: 48 bits of Unix epoch milliseconds, the version,
+ * 12 bits of sub-millisecond counter (method 1 of the RFC), the variant and 62 random bits. The counter makes the
+ * UUIDs of one generator strictly increasing, with the same handling of clock regression and exhaustion as
+ * TimeOrderedIdGenerator. The random bits come from ThreadLocalRandom and are not meant to be unguessable.
+ * <p>
+ */
+public final class UuidV7Generator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final int MILLIS_BITS = 48;
+    private static final long VERSION = 7L << COUNTER_BITS;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private final TimeSequenceState state;
+
+    /**
+     * Constructor
+     *
+     * @param maxLeadMillis how far the UUIDs may run ahead of the clock
+     * @param clock         clock source
+     */
+    public UuidV7Generator(final long maxLeadMillis, final EpochClock clock) {
+        if (maxLeadMillis < 0L) {
+            throw new IllegalArgumentException("Lead must not be negative: " + maxLeadMillis);
+        }
+        this.state = new TimeSequenceState(clock, 0L, COUNTER_BITS, MILLIS_BITS, maxLeadMillis);
+    }
+
+    /**
+     * Constructor on the system clock.
+     */
+    public UuidV7Generator() {
+        this(TimeOrderedIdGenerator.DEFAULT_MAX_LEAD_MILLIS, EpochClock.SYSTEM);
+    }
+
+    /**
+     * Generate the next UUID.
+     *
+     * @return UUID
+     */
+    public UUID next() {
+        return compose(state.reserve(1), ThreadLocalRandom.current());
+    }
+
+    /**
+     * Reserve consecutive UUIDs with a single atomic update.
+     *
+     * @param count number of UUIDs
+     * @return UUIDs
+     */
+    public UUID[] next(final int count) {
+        final UUID[] uuids = new UUID[count];
+        if (count == 0) {
+            return uuids;
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long packed = state.reserve(count);
+        for (int i = 0; i < count; i++) {
+            uuids[i] = compose(packed++, random);
+        }
+        return uuids;
+    }
+
+    /**
+     * Epoch milliseconds a version 7 UUID was generated at.
+     *
+     * @param uuid version 7 UUID
+     * @return epoch milliseconds
+     */
+    public static long getEpochMillis(final UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> (Long.SIZE - MILLIS_BITS);
+    }
+
+    /**
+     * Render the time a version 7 UUID was generated at.
+     *
+     * @param uuid   version 7 UUID
+     * @param format target format
+     * @return timestamp string
+     */
+    public static String format(final UUID uuid, final TimeFormat format) {
+        return format.getTimestampString(Instant.ofEpochMilli(getEpochMillis(uuid)));
+    }
+
+    private static UUID compose(final long packed, final ThreadLocalRandom random) {
+        final long millis = packed >>> COUNTER_BITS;
+        final long counter = packed & ((1L << COUNTER_BITS) - 1L);
+        return new UUID(millis << (Long.SIZE - MILLIS_BITS) | VERSION | counter,
+                VARIANT | random.nextLong() & RANDOM_MASK);
+    }
+
+}
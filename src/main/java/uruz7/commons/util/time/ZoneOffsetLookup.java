@@ -0,0 +1,111 @@
+package uruz7.commons.util.time;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Remembers the offset of a zone together with the window of instants it stays valid for, so that consecutive
+ * lookups in the same window are answered without touching ZoneRules. Not thread safe, use one instance per thread.
+ * <p>
+ */
+final class ZoneOffsetLookup {
+
+    private static final long SAFE_MARGIN = CivilCalendar.SECONDS_PER_DAY;
+
+    private final ZoneId zoneId;
+    private final ZoneRules rules;
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+    private int offsetSeconds;
+
+    ZoneOffsetLookup(final ZoneId zoneId) {
+        this.zoneId = zoneId;
+        this.rules = zoneId.getRules();
+        if (rules.isFixedOffset()) {
+            validFrom = Long.MIN_VALUE;
+            validUntil = Long.MAX_VALUE;
+            offsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+        }
+    }
+
+    ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Offset of the zone at the given instant.
+     *
+     * @param epochSecond instant in epoch seconds
+     * @return offset in seconds
+     */
+    int offsetAt(final long epochSecond) {
+        if (epochSecond < validFrom || epochSecond >= validUntil) {
+            refresh(epochSecond);
+        }
+        return offsetSeconds;
+    }
+
+    /**
+     * End of the window the offset at the given instant stays valid in.
+     *
+     * @param epochSecond instant in epoch seconds
+     * @return first epoch second that may have another offset, Long.MAX_VALUE if the offset never changes again
+     */
+    long validUntil(final long epochSecond) {
+        offsetAt(epochSecond);
+        return validUntil;
+    }
+
+    /**
+     * Resolve a wall clock time of the zone to an instant, the same way LocalDateTime.atZone does: the earlier
+     * offset wins in an overlap and a time in a gap is pushed forward by the length of the gap.
+     *
+     * @param localEpochSecond seconds since 1970-01-01T00:00:00 on the wall clock
+     * @return instant in epoch seconds
+     */
+    long toEpochSecond(final long localEpochSecond) {
+        final long candidate = localEpochSecond - offsetSeconds;
+        if (isSafelyInside(candidate)) {
+            return candidate;
+        }
+        final LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+        final List<ZoneOffset> validOffsets = rules.getValidOffsets(localDateTime);
+        final long epochSecond;
+        if (validOffsets.isEmpty()) {
+            epochSecond = localEpochSecond - rules.getTransition(localDateTime).getOffsetBefore().getTotalSeconds();
+        } else {
+            epochSecond = localEpochSecond - validOffsets.get(0).getTotalSeconds();
+        }
+        refresh(epochSecond);
+        return epochSecond;
+    }
+
+    private boolean isSafelyInside(final long epochSecond) {
+        final boolean afterStart = validFrom == Long.MIN_VALUE
+                || epochSecond >= validFrom && epochSecond - validFrom >= SAFE_MARGIN;
+        final boolean beforeEnd = validUntil == Long.MAX_VALUE
+                || epochSecond < validUntil && validUntil - epochSecond >= SAFE_MARGIN;
+        return afterStart && beforeEnd;
+    }
+
+    private void refresh(final long epochSecond) {
+        final Instant instant = Instant.ofEpochSecond(epochSecond);
+        offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+        final ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1L));
+        final ZoneOffsetTransition next = rules.nextTransition(instant);
+        validFrom = null == previous ? Long.MIN_VALUE : previous.toEpochSecond();
+        validUntil = null == next ? Long.MAX_VALUE : next.toEpochSecond();
+        if (epochSecond < validFrom || epochSecond >= validUntil) {
+            validFrom = epochSecond;
+            validUntil = epochSecond + 1L;
+        }
+    }
+
+}
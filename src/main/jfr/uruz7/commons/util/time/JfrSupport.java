@@ -0,0 +1,112 @@
+package uruz7.commons.util.time;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * The JFR side of ConversionEvents. It is compiled from its own source root by the jfr profile on JDK 11 and later,
+ * and ConversionEvents loads it reflectively, so the rest of the library builds and runs without jdk.jfr.
+ * <p>
+ */
+final class JfrSupport implements ConversionEvents.Sink {
+
+    /**
+     * Constructor, follows the recordings from now on.
+     */
+    JfrSupport() {
+        FlightRecorder.addListener(new RecordingListener());
+    }
+
+    @Override
+    public void commit(final String operation, final String fromFormat, final String toFormat, final int inputLength,
+            final String inputShape, final long durationNanos, final Throwable failure, final boolean fallback) {
+        final TimestampConversionEvent event = new TimestampConversionEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.operation = operation;
+        event.fromFormat = fromFormat;
+        event.toFormat = toFormat;
+        event.inputLength = inputLength;
+        event.inputShape = inputShape;
+        event.conversionDuration = durationNanos;
+        event.failed = null != failure;
+        event.failure = null == failure ? null : failure.getClass().getName() + ": " + failure.getMessage();
+        event.fallback = fallback;
+        event.commit();
+    }
+
+    private static void refresh(final FlightRecorder recorder) {
+        boolean running = false;
+        for (final Recording recording : recorder.getRecordings()) {
+            running |= recording.getState() == RecordingState.RUNNING;
+        }
+        ConversionEvents.setRecording(running);
+    }
+
+    /**
+     * Follows the recordings, so that conversions are timed only while one runs.
+     */
+    private static final class RecordingListener implements FlightRecorderListener {
+
+        @Override
+        public void recorderInitialized(final FlightRecorder recorder) {
+            refresh(recorder);
+        }
+
+        @Override
+        public void recordingStateChanged(final Recording recording) {
+            refresh(FlightRecorder.getFlightRecorder());
+        }
+
+    }
+
+    @Name(ConversionEvents.EVENT_NAME)
+    @Label("Timestamp Conversion")
+    @Category({"uruz7", "Time"})
+    @Description("A timestamp conversion that failed or exceeded the threshold of ConversionEvents")
+    @StackTrace
+    static final class TimestampConversionEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("From Format")
+        String fromFormat;
+
+        @Label("To Format")
+        String toFormat;
+
+        @Label("Input Length")
+        int inputLength;
+
+        @Label("Input Shape")
+        String inputShape;
+
+        @Label("Conversion Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long conversionDuration;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("Failure")
+        String failure;
+
+        @Label("Fallback")
+        boolean fallback;
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class BusinessCalendarTest {
+
+    private static final long MID_AUTUMN = LocalDate.of(2017, 10, 4).toEpochDay();
+
+    @Test
+    public void testIsBusinessDay() throws IOException {
+        BusinessCalendar calendar = BusinessCalendar.load(new StringReader(
+                "# Taiwan 2017\n2017-10-04\n\n2017-10-09\n2017-10-10\n+ 2017-09-30\n"));
+        assertFalse(calendar.isBusinessDay(MID_AUTUMN));
+        assertTrue(calendar.isBusinessDay(MID_AUTUMN + 1L));
+        assertTrue(calendar.isBusinessDay(LocalDate.of(2017, 9, 30).toEpochDay()));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2017, 10, 1).toEpochDay()));
+        assertTrue(calendar.isBusinessDay("2017-10-03 23:59:59", TimeFormat.MYSQL_DATE_TIME));
+        // 2017-10-03T16:00:00Z is already October 4th in Taipei
+        assertFalse(calendar.isBusinessDay("2017-10-03T16:00:00Z", TimeFormat.ISO8601UTC));
+        assertTrue(calendar.isBusinessDayAt(1507046399L));
+        assertEquals(1970, calendar.getFirstYear());
+        assertEquals(2099, calendar.getLastYear());
+        assertEquals("Asia/Taipei", calendar.getZoneId().getId());
+    }
+
+    @Test
+    public void testCountBusinessDays() {
+        BusinessCalendar calendar = new BusinessCalendar(Arrays.asList(LocalDate.of(2017, 10, 4),
+                LocalDate.of(2017, 10, 9), LocalDate.of(2017, 10, 10)));
+        long first = LocalDate.of(2017, 10, 1).toEpochDay();
+        long last = LocalDate.of(2017, 11, 1).toEpochDay();
+        assertEquals(19, calendar.countBusinessDays(first, last));
+        assertEquals(-19, calendar.countBusinessDays(last, first));
+        assertEquals(0, calendar.countBusinessDays(first, first));
+        assertEquals(19, calendar.countBusinessDays("2017-09-30T16:00:00Z", "2017-10-31T16:00:00Z",
+                TimeFormat.ISO8601UTC));
+    }
+
+    @Test
+    public void testAddBusinessDays() {
+        BusinessCalendar calendar = new BusinessCalendar(Arrays.asList(LocalDate.of(2017, 10, 4),
+                LocalDate.of(2017, 10, 9), LocalDate.of(2017, 10, 10)));
+        long tuesday = LocalDate.of(2017, 10, 3).toEpochDay();
+        assertEquals(LocalDate.of(2017, 10, 5).toEpochDay(), calendar.addBusinessDays(tuesday, 1));
+        assertEquals(LocalDate.of(2017, 10, 11).toEpochDay(), calendar.addBusinessDays(tuesday, 3));
+        assertEquals(LocalDate.of(2017, 9, 28).toEpochDay(), calendar.addBusinessDays(tuesday, -3));
+        assertEquals(MID_AUTUMN, calendar.addBusinessDays(MID_AUTUMN, 0));
+        assertEquals(LocalDate.of(2017, 10, 3).toEpochDay(), calendar.addBusinessDays(MID_AUTUMN, -1));
+        assertEquals(LocalDate.of(2017, 10, 5).toEpochDay(), calendar.nextOrSameBusinessDay(MID_AUTUMN));
+        assertEquals(LocalDate.of(2017, 10, 3).toEpochDay(), calendar.previousOrSameBusinessDay(MID_AUTUMN));
+        assertEquals(tuesday, calendar.nextOrSameBusinessDay(tuesday));
+        assertEquals(tuesday, calendar.previousOrSameBusinessDay(tuesday));
+        assertEquals("2017-10-11 09:30:00", calendar.addBusinessDays("2017-10-03 09:30:00",
+                TimeFormat.MYSQL_DATE_TIME, 3));
+        assertEquals("2017-10-11T01:30:00Z", calendar.addBusinessDays("2017-10-03T01:30:00Z",
+                TimeFormat.ISO8601UTC, 3));
+    }
+
+    @Test
+    public void testMatchesLocalDateLoop() {
+        Random random = new Random(1022L);
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            holidays.add(LocalDate.of(2000, 1, 1).plusDays(random.nextInt(3650)));
+        }
+        List<LocalDate> workingDays = Collections.singletonList(LocalDate.of(2001, 6, 2));
+        Set<DayOfWeek> weekend = EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+        BusinessCalendar calendar = new BusinessCalendar(ZoneOffset.UTC, weekend, holidays, workingDays, 2000, 2009);
+        for (int i = 0; i < 300; i++) {
+            LocalDate from = LocalDate.of(2000, 3, 1).plusDays(random.nextInt(3000));
+            LocalDate to = from.plusDays(random.nextInt(300));
+            int expected = 0;
+            for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1L)) {
+                expected += isWorking(day, weekend, holidays, workingDays) ? 1 : 0;
+            }
+            assertEquals(expected, calendar.countBusinessDays(from.toEpochDay(), to.toEpochDay()));
+            int n = random.nextInt(120) - 60;
+            LocalDate moved = from;
+            for (int step = 0; step < Math.abs(n); step++) {
+                do {
+                    moved = moved.plusDays(n > 0 ? 1L : -1L);
+                } while (!isWorking(moved, weekend, holidays, workingDays));
+            }
+            assertEquals(moved.toEpochDay(), calendar.addBusinessDays(from.toEpochDay(), n));
+            assertEquals(isWorking(from, weekend, holidays, workingDays), calendar.isBusinessDay(from.toEpochDay()));
+        }
+        assertTrue(calendar.isBusinessDay(LocalDate.of(2001, 6, 2).toEpochDay()));
+        assertEquals(calendar.countBusinessDays(LocalDate.of(2000, 1, 1).toEpochDay(),
+                LocalDate.of(2010, 1, 1).toEpochDay()) - 1, calendar.countBusinessDays(
+                calendar.nextOrSameBusinessDay(LocalDate.of(2000, 1, 1).toEpochDay()) + 1L,
+                LocalDate.of(2010, 1, 1).toEpochDay()));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testAddBeyondLastYear() {
+        new BusinessCalendar(Collections.emptyList()).addBusinessDays(LocalDate.of(2099, 12, 30).toEpochDay(), 5);
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testAddBeforeFirstYear() {
+        new BusinessCalendar(Collections.emptyList()).addBusinessDays(LocalDate.of(1970, 1, 2).toEpochDay(), -5);
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testOutOfRange() {
+        new BusinessCalendar(Collections.emptyList()).isBusinessDay(-1L);
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testCountOutOfRange() {
+        new BusinessCalendar(Collections.emptyList()).countBusinessDays(0L, LocalDate.of(2100, 1, 2).toEpochDay());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidYears() {
+        new BusinessCalendar(ZoneOffset.UTC, EnumSet.noneOf(DayOfWeek.class), Collections.emptyList(),
+                Collections.emptyList(), 2001, 2000);
+    }
+
+    private static boolean isWorking(LocalDate day, Set<DayOfWeek> weekend, Set<LocalDate> holidays,
+            List<LocalDate> workingDays) {
+        return workingDays.contains(day) || !weekend.contains(day.getDayOfWeek()) && !holidays.contains(day);
+    }
+
+}
@@ -0,0 +1,78 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class CalendarFieldsTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<CalendarFields> constructor = CalendarFields.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testDefaultZone() {
+        // Which means: 2017-07-27 23:41:00 and 2017-07-28 00:00:00 in Asia/Taipei
+        long[] epochSeconds = {1501170060L, 1501171200L};
+        assertArrayEquals(new int[]{2017, 2017}, CalendarFields.years(epochSeconds));
+        assertArrayEquals(new byte[]{7, 7}, CalendarFields.months(epochSeconds));
+        assertArrayEquals(new byte[]{27, 28}, CalendarFields.days(epochSeconds));
+        assertArrayEquals(new byte[]{23, 0}, CalendarFields.hours(epochSeconds));
+        assertArrayEquals(new byte[]{4, 5}, CalendarFields.daysOfWeek(epochSeconds));
+    }
+
+    @Test
+    public void testAgainstZonedDateTime() {
+        ZoneId[] zoneIds = {ZoneId.of("Asia/Taipei"), ZoneId.of("America/New_York"), ZoneId.of("UTC")};
+        Random random = new Random(1022L);
+        long[] epochSeconds = new long[CalendarFields.CHUNK_SIZE * 3 + 17];
+        long current = -2000000000L;
+        for (int i = 0; i < epochSeconds.length; i++) {
+            current += random.nextInt(500000);
+            epochSeconds[i] = random.nextInt(10) == 0 ? -random.nextInt(Integer.MAX_VALUE) : current;
+        }
+        for (ZoneId zoneId : zoneIds) {
+            int[] years = new int[epochSeconds.length];
+            byte[] months = new byte[epochSeconds.length];
+            byte[] days = new byte[epochSeconds.length];
+            byte[] hours = new byte[epochSeconds.length];
+            byte[] daysOfWeek = new byte[epochSeconds.length];
+            CalendarFields.extract(epochSeconds, zoneId, years, months, days, hours, daysOfWeek);
+            for (int i = 0; i < epochSeconds.length; i++) {
+                ZonedDateTime expected = Instant.ofEpochSecond(epochSeconds[i]).atZone(zoneId);
+                assertEquals(expected.getYear(), years[i]);
+                assertEquals(expected.getMonthValue(), months[i]);
+                assertEquals(expected.getDayOfMonth(), days[i]);
+                assertEquals(expected.getHour(), hours[i]);
+                assertEquals(expected.getDayOfWeek().getValue(), daysOfWeek[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSkipNullColumns() {
+        byte[] hours = new byte[1];
+        CalendarFields.extract(new long[]{1501170060L}, ZoneId.of("UTC"), null, null, null, hours, null);
+        assertArrayEquals(new byte[]{15}, hours);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortColumn() {
+        CalendarFields.extract(new long[2], ZoneId.of("UTC"), null, new byte[1], null, null, null);
+    }
+
+}
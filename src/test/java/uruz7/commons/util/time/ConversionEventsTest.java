@@ -0,0 +1,66 @@
+package uruz7.commons.util.time;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class ConversionEventsTest {
+
+    private Duration threshold;
+
+    @Before
+    public void setUp() {
+        threshold = ConversionEvents.getThreshold();
+    }
+
+    @After
+    public void tearDown() {
+        ConversionEvents.setThreshold(threshold);
+    }
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<ConversionEvents> constructor = ConversionEvents.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testNotRecordingByDefault() {
+        assertFalse(ConversionEvents.isRecording());
+        assertEquals(ConversionEvents.NOT_RECORDING, ConversionEvents.start());
+        assertEquals(ConversionEvents.DEFAULT_THRESHOLD, threshold);
+        assertEquals("1501170060", TimeFormat.convert("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC,
+                TimeFormat.UNIX_TIME));
+    }
+
+    @Test
+    public void testShapeOf() {
+        assertEquals("9999-99-99T99:99:99+99:99", ConversionEvents.shapeOf("2017-07-27T23:41:00+08:00"));
+        assertEquals("aaa, 99 aaa 9999", ConversionEvents.shapeOf("Mon, 31 Jul 2017"));
+        assertEquals(ConversionEvents.MAX_SHAPE_LENGTH, ConversionEvents.shapeOf(new String(new char[100])).length());
+        assertNull(ConversionEvents.shapeOf(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreshold() {
+        ConversionEvents.setThreshold(Duration.ofMillis(-1L));
+    }
+
+    @Test
+    public void testMissingSink() {
+        assertNull(ConversionEvents.loadSink("uruz7.commons.util.time.NoSuchSink"));
+        assertNull(ConversionEvents.loadSink(String.class.getName()));
+    }
+
+}
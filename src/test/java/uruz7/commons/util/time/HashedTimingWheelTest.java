@@ -0,0 +1,141 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class HashedTimingWheelTest {
+
+    private static final long START_MILLIS = 1501170060000L;
+
+    @Test
+    public void testExpireInDeadlineOrder() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000L, now::get);
+        wheel.schedule("b", "2017-07-27T15:41:05Z", TimeFormat.ISO8601UTC);
+        wheel.schedule("a", "1501170062", TimeFormat.UNIX_TIME);
+        wheel.scheduleAtEpochSecond("c", 1501170060L + 3600L);
+        List<String> expired = new ArrayList<>();
+
+        assertEquals(0, wheel.advance(expired::addAll));
+        now.set(START_MILLIS + 2000L);
+        assertEquals(1, wheel.advance(expired::addAll));
+        now.set(START_MILLIS + 10000L);
+        assertEquals(1, wheel.advance(expired::addAll));
+        assertEquals(1L, wheel.size());
+        now.set(START_MILLIS + 3600000L);
+        assertEquals(1, wheel.advance(expired::addAll));
+        assertEquals(Arrays.asList("a", "b", "c"), expired);
+        assertEquals(0L, wheel.size());
+    }
+
+    @Test
+    public void testBatchPerTick() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(10L, now::get);
+        for (int i = 0; i < 5; i++) {
+            wheel.schedule(i, START_MILLIS + 55L);
+        }
+        wheel.schedule(5, START_MILLIS + 75L);
+        List<Integer> batchSizes = new ArrayList<>();
+        now.set(START_MILLIS + 100L);
+        assertEquals(6, wheel.advance(batch -> batchSizes.add(batch.size())));
+        assertEquals(Arrays.asList(5, 1), batchSizes);
+    }
+
+    @Test
+    public void testOverdueDeadlineExpiresOnNextAdvance() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000L, now::get);
+        wheel.schedule("late", START_MILLIS - 60000L);
+        List<String> expired = new ArrayList<>();
+        assertEquals(1, wheel.advance(expired::addAll));
+        assertEquals(Collections.singletonList("late"), expired);
+    }
+
+    @Test
+    public void testCancel() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000L, now::get);
+        HashedTimingWheel.Timeout<String> kept = wheel.schedule("kept", START_MILLIS + 5000L);
+        HashedTimingWheel.Timeout<String> dropped = wheel.schedule("dropped", START_MILLIS + 5000L);
+        HashedTimingWheel.Timeout<String> droppedBeforeApplied = wheel.schedule("early", START_MILLIS + 5000L);
+        assertTrue(droppedBeforeApplied.cancel());
+        wheel.advance(batch -> fail());
+        assertTrue(dropped.cancel());
+        assertFalse(dropped.cancel());
+        assertTrue(dropped.isCancelled());
+        assertEquals(1L, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        now.set(START_MILLIS + 5000L);
+        wheel.advance(expired::addAll);
+        assertEquals(Collections.singletonList("kept"), expired);
+        assertTrue(kept.isExpired());
+        assertFalse(kept.isPending());
+        assertFalse(kept.cancel());
+        assertEquals("kept", kept.getTask());
+        assertEquals(START_MILLIS + 5000L, kept.getDeadlineMillis());
+    }
+
+    @Test
+    public void testRandomDeadlinesAcrossLevels() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(1L, now::get);
+        Random random = new Random(1022L);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = START_MILLIS + (random.nextInt(4) == 0 ? random.nextInt(50000000) : random.nextInt(5000));
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        List<Long> expired = new ArrayList<>();
+        List<Long> remaining = new ArrayList<>(deadlines);
+        while (wheel.size() > 0L) {
+            now.addAndGet(1 + random.nextInt(100000));
+            int before = expired.size();
+            wheel.advance(expired::addAll);
+            for (int i = before; i < expired.size(); i++) {
+                assertTrue(expired.get(i) <= now.get());
+                remaining.remove(expired.get(i));
+            }
+            for (Long deadline : remaining) {
+                assertTrue(deadline > now.get());
+            }
+        }
+        Collections.sort(deadlines);
+        Collections.sort(expired);
+        assertEquals(deadlines, expired);
+    }
+
+    @Test
+    public void testDefaultConstructor() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>();
+        wheel.schedule("now", System.currentTimeMillis() - 1000L);
+        assertEquals(1, wheel.advance(batch -> assertEquals(Collections.singletonList("now"), batch)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTick() {
+        new HashedTimingWheel<String>(0L, EpochClock.SYSTEM);
+    }
+
+    @Test
+    public void testEpochClock() {
+        EpochClock clock = () -> 1501170060999L;
+        assertEquals(1501170060L, clock.currentEpochSecond());
+        EpochClock beforeEpoch = () -> -1L;
+        assertEquals(-1L, beforeEpoch.currentEpochSecond());
+    }
+
+}
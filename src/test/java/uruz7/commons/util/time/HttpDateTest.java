@@ -0,0 +1,106 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class HttpDateTest {
+
+    private static final DateTimeFormatter IMF_FIXDATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'",
+            java.util.Locale.US).withZone(ZoneOffset.UTC);
+
+    @Test
+    public void testParseAllLayouts() {
+        assertEquals(784111777L, HttpDate.parseEpochSecond("Sun, 06 Nov 1994 08:49:37 GMT"));
+        assertEquals(784111777L, HttpDate.parseEpochSecond("Sunday, 06-Nov-94 08:49:37 GMT"));
+        assertEquals(784111777L, HttpDate.parseEpochSecond("Sun Nov  6 08:49:37 1994"));
+        assertEquals(1501170060L, HttpDate.parseEpochSecond("Thu, 27 Jul 2017 15:41:00 GMT"));
+        assertEquals(1501170060L, HttpDate.parseEpochSecond("Thursday, 27-Jul-17 15:41:00 GMT"));
+        assertEquals(1501170060L, HttpDate.parseEpochSecond("Thu Jul 27 15:41:00 2017"));
+        assertEquals(0L, HttpDate.parseEpochSecond("Thursday, 01-Jan-70 00:00:00 GMT"));
+        assertEquals(3155759999L, HttpDate.parseEpochSecond("Tuesday, 31-Dec-69 23:59:59 GMT"));
+    }
+
+    @Test
+    public void testFormatLikeRfc1123() {
+        Random random = new Random(1022L);
+        for (int i = 0; i < 10000; i++) {
+            long epochSecond = random.nextLong() % 253402300800L;
+            String expected = IMF_FIXDATE.format(Instant.ofEpochSecond(Math.abs(epochSecond)));
+            assertEquals(expected, HttpDate.format(Math.abs(epochSecond)));
+            assertEquals(Math.abs(epochSecond), HttpDate.parseEpochSecond(expected));
+        }
+        assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", HttpDate.format(0L));
+        assertEquals("Wed, 31 Dec 1969 23:59:59 GMT", HttpDate.format(-1L));
+        assertEquals("Sat, 01 Jan 10000 00:00:00 GMT", HttpDate.format(253402300800L));
+        assertEquals("x:Sun, 06 Nov 1994 08:49:37 GMT",
+                HttpDate.format(784111777L, new StringBuilder("x:")).toString());
+    }
+
+    @Test
+    public void testRejectMalformed() {
+        String[] invalid = {"", "Sun", "Mon, 06 Nov 1994 08:49:37 GMT", "Sun, 06 Nov 1994 08:49:37 UTC",
+                "Sun, 06 Nov 1994 08:49:37 +0000", "Sun, 6 Nov 1994 08:49:37 GMT", "Sun, 06 Xyz 1994 08:49:37 GMT",
+                "Sun, 06 nov 1994 08:49:37 GMT", "Sun, 31 Nov 1994 08:49:37 GMT", "Sun, 06 Nov 1994 24:00:00 GMT",
+                "Sun, 06 Nov 1994 08:60:37 GMT", "Sun, 06 Nov 1994 08:49:60 GMT", "Sun, 06 Nov 1994 08-49-37 GMT",
+                "Sun, 06 Nov 1994 08:49:37 GMTX", "Sunday, 06-Nov-1994 08:49:37 GMT", "Sun, 06-Nov-94 08:49:37 GMT",
+                "Sunday, 06 Nov 94 08:49:37 GMT", "Monday, 06-Nov-94 08:49:37 GMT", "Sun Nov 6 08:49:37 1994",
+                "Sun Nov  6 08:49:37 94", "Mon Nov  6 08:49:37 1994", "Sun Nov 0x 08:49:37 1994",
+                "2017-07-27T15:41:00Z"};
+        for (String text : invalid) {
+            try {
+                HttpDate.parseEpochSecond(text);
+                fail(text);
+            } catch (DateTimeParseException expected) {
+                assertEquals(text, expected.getParsedString());
+            }
+        }
+    }
+
+    @Test
+    public void testTimeFormat() {
+        assertEquals("Thu, 27 Jul 2017 15:41:00 GMT",
+                TimeFormat.convert("2017-07-27 23:41:00", TimeFormat.MYSQL_DATE_TIME, TimeFormat.HTTP_DATE));
+        assertEquals("2017-07-27T15:41:00Z",
+                TimeFormat.convert("Thu Jul 27 15:41:00 2017", TimeFormat.HTTP_DATE, TimeFormat.ISO8601UTC));
+        assertEquals(1501170060L, TimeFormat.HTTP_DATE.getEpochSecond("Thu, 27 Jul 2017 15:41:00 GMT"));
+        assertEquals("Thu, 27 Jul 2017 15:41:00 GMT", TimeFormat.HTTP_DATE.getTimestampString(1501170060L));
+        MutableTimestamp timestamp = new MutableTimestamp().parse("Thursday, 27-Jul-17 15:41:00 GMT",
+                TimeFormat.HTTP_DATE);
+        assertEquals(1501170060L, timestamp.getEpochSecond());
+        assertEquals("Thu, 27 Jul 2017 15:41:00 GMT", timestamp.format(TimeFormat.HTTP_DATE));
+        assertEquals(0, Timestamp.of("Thu, 27 Jul 2017 15:41:00 GMT", TimeFormat.HTTP_DATE).getOffsetSeconds());
+    }
+
+    @Test
+    public void testCurrentDateRendersOncePerSecond() {
+        AtomicLong millis = new AtomicLong(784111777000L);
+        HttpDate.CurrentDate currentDate = new HttpDate.CurrentDate(millis::get);
+        String first = currentDate.get();
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", first);
+        millis.set(784111777999L);
+        assertSame(first, currentDate.get());
+        millis.set(784111778000L);
+        assertEquals("Sun, 06 Nov 1994 08:49:38 GMT", currentDate.get());
+        millis.set(784111777500L);
+        assertEquals(first, currentDate.get());
+    }
+
+    @Test
+    public void testNow() {
+        long before = System.currentTimeMillis() / 1000L;
+        long now = HttpDate.parseEpochSecond(HttpDate.now());
+        assertTrue(now >= before && now <= System.currentTimeMillis() / 1000L);
+    }
+
+}
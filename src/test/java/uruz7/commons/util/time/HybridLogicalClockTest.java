@@ -0,0 +1,192 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class HybridLogicalClockTest {
+
+    private static final long NOW = 1501170060123L;
+
+    @Test
+    public void testSendFollowsTheClock() {
+        AtomicLong millis = new AtomicLong(NOW);
+        HybridLogicalClock clock = new HybridLogicalClock(millis::get, 100L);
+        assertEquals(HybridLogicalClock.pack(NOW, 0), clock.send());
+        assertEquals(HybridLogicalClock.pack(NOW, 1), clock.send());
+        millis.set(NOW - 50L);
+        // the clock moved back, the counter keeps the order
+        assertEquals(HybridLogicalClock.pack(NOW, 2), clock.send());
+        millis.set(NOW + 1L);
+        assertEquals(HybridLogicalClock.pack(NOW + 1L, 0), clock.send());
+        assertEquals(HybridLogicalClock.pack(NOW + 1L, 0), clock.get());
+    }
+
+    @Test
+    public void testReceiveMergesTheRemoteValue() {
+        AtomicLong millis = new AtomicLong(NOW);
+        HybridLogicalClock clock = new HybridLogicalClock(millis::get, 100L);
+        clock.send();
+        assertEquals(HybridLogicalClock.pack(NOW + 40L, 8), clock.receive(HybridLogicalClock.pack(NOW + 40L, 7)));
+        assertEquals(HybridLogicalClock.pack(NOW + 40L, 9), clock.receive(HybridLogicalClock.pack(NOW - 10L, 3)));
+        assertEquals(HybridLogicalClock.pack(NOW + 40L, 10), clock.send());
+        millis.set(NOW + 41L);
+        assertEquals(HybridLogicalClock.pack(NOW + 41L, 0), clock.receive(HybridLogicalClock.pack(NOW + 40L, 99)));
+    }
+
+    @Test
+    public void testMultiProcessSimulation() {
+        // three processes whose clocks are skewed by up to 80 ms and tick at different rates
+        Random random = new Random(1022L);
+        long[] skews = {0L, 80L, -60L};
+        AtomicLong world = new AtomicLong(NOW);
+        HybridLogicalClock[] processes = new HybridLogicalClock[skews.length];
+        long[] lastValues = new long[skews.length];
+        for (int i = 0; i < processes.length; i++) {
+            final long skew = skews[i];
+            processes[i] = new HybridLogicalClock(() -> world.get() + skew, 200L);
+        }
+        List<long[]> inFlight = new ArrayList<>();
+        for (int step = 0; step < 20000; step++) {
+            if (random.nextInt(4) == 0) {
+                world.addAndGet(random.nextInt(3));
+            }
+            int process = random.nextInt(processes.length);
+            long value;
+            if (!inFlight.isEmpty() && random.nextBoolean()) {
+                long[] message = inFlight.remove(random.nextInt(inFlight.size()));
+                value = processes[(int) message[1]].receive(message[0]);
+                // happened-before: a receive is after its send
+                assertTrue(value > message[0]);
+                process = (int) message[1];
+            } else {
+                value = processes[process].send();
+                inFlight.add(new long[]{value, random.nextInt(processes.length)});
+            }
+            assertTrue(value > lastValues[process]);
+            lastValues[process] = value;
+            long drift = HybridLogicalClock.physicalMillis(value) - (world.get() + skews[process]);
+            assertTrue("drift " + drift, drift >= 0L && drift <= 140L);
+        }
+    }
+
+    @Test
+    public void testRemoteDriftIsRejected() {
+        HybridLogicalClock clock = new HybridLogicalClock(() -> NOW, 100L);
+        long remote = HybridLogicalClock.pack(NOW + 101L, 0);
+        assertFalse(clock.isWithinDrift(remote));
+        assertTrue(clock.isWithinDrift(HybridLogicalClock.pack(NOW + 100L, 0)));
+        assertFalse(clock.isWithinDrift(-1L));
+        try {
+            clock.receive(remote);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals(0L, clock.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLocalDriftFromCounterCarry() {
+        HybridLogicalClock clock = new HybridLogicalClock(() -> NOW, 0L);
+        for (int i = 0; i <= 1 << HybridLogicalClock.LOGICAL_BITS; i++) {
+            clock.send();
+        }
+    }
+
+    @Test
+    public void testCounterCarriesIntoMillis() {
+        HybridLogicalClock clock = new HybridLogicalClock(() -> NOW, 1L);
+        long value = 0L;
+        for (int i = 0; i <= 1 << HybridLogicalClock.LOGICAL_BITS; i++) {
+            value = clock.send();
+        }
+        assertEquals(NOW + 1L, HybridLogicalClock.physicalMillis(value));
+        assertEquals(0, HybridLogicalClock.logical(value));
+    }
+
+    @Test
+    public void testConcurrentSendsAreUnique() throws Exception {
+        HybridLogicalClock clock = new HybridLogicalClock();
+        int threads = 4;
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long[] values = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    values[i] = clock.send();
+                }
+                return values;
+            }));
+        }
+        start.countDown();
+        Set<Long> seen = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            long previous = -1L;
+            for (long value : future.get()) {
+                assertTrue(value > previous);
+                assertTrue(seen.add(value));
+                previous = value;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRendering() {
+        long value = HybridLogicalClock.pack(NOW, 5);
+        assertEquals("2017-07-27T15:41:00.123Z#5", HybridLogicalClock.toString(value));
+        assertEquals("2017-07-27T15:41:00Z", HybridLogicalClock.format(value, TimeFormat.ISO8601UTC));
+        assertEquals("2017-07-27 23:41:00", HybridLogicalClock.format(value, TimeFormat.MYSQL_DATE_TIME));
+        assertEquals("1501170060", HybridLogicalClock.format(value, TimeFormat.UNIX_TIME));
+        assertEquals(HybridLogicalClock.pack(NOW - 123L, 0),
+                HybridLogicalClock.lowerBound("2017-07-27T23:41:00+08:00", TimeFormat.ISO8601TW));
+        assertTrue(HybridLogicalClock.lowerBound("2017-07-27T15:41:01Z", TimeFormat.ISO8601UTC) > value);
+        assertEquals(HybridLogicalClock.pack(NOW, 0),
+                HybridLogicalClock.lowerBound("2017-07-27T15:41:00.123Z", TimeFormat.ISO8601UTC));
+        assertEquals(HybridLogicalClock.pack(NOW - 122L, 0),
+                HybridLogicalClock.lowerBound("2017-07-27T15:41:00.0005Z", TimeFormat.ISO8601UTC));
+        assertEquals(HybridLogicalClock.pack(NOW, 0),
+                HybridLogicalClock.lowerBound("2017-07-27T15:41:00.122000001Z", TimeFormat.ISO8601UTC));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPackRejectsWideCounter() {
+        HybridLogicalClock.pack(NOW, 1 << HybridLogicalClock.LOGICAL_BITS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPackRejectsNegativeMillis() {
+        HybridLogicalClock.pack(-1L, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClockOutOfRange() {
+        new HybridLogicalClock(() -> -1L, 0L).send();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDrift() {
+        new HybridLogicalClock(EpochClock.SYSTEM, -1L);
+    }
+
+}
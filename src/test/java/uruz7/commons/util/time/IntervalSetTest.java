@@ -0,0 +1,104 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class IntervalSetTest {
+
+    @Test
+    public void testBuildMergesOverlappingAndAdjacentRanges() {
+        IntervalSet intervalSet = IntervalSet.of(new long[]{30L, 10L, 15L, 50L, 40L, 60L},
+                new long[]{40L, 20L, 18L, 55L, 45L, 60L});
+        assertEquals("{[10, 20), [30, 45), [50, 55)}", intervalSet.toString());
+        assertEquals(3, intervalSet.size());
+        assertEquals(30L, intervalSet.getStart(1));
+        assertEquals(45L, intervalSet.getEnd(1));
+        assertEquals(30L, intervalSet.totalLength());
+    }
+
+    @Test
+    public void testBuildFromTimeFormat() {
+        String[] starts = {"2017-07-27T01:00:00Z", "2017-07-27T00:30:00Z", "2017-07-27T06:00:00Z"};
+        String[] ends = {"2017-07-27T04:00:00Z", "2017-07-27T02:00:00Z", "2017-07-27T07:00:00Z"};
+        IntervalSet intervalSet = IntervalSet.of(starts, ends, TimeFormat.ISO8601UTC);
+        assertEquals(IntervalSet.of(new long[]{1501115400L, 1501135200L}, new long[]{1501128000L, 1501138800L}),
+                intervalSet);
+    }
+
+    @Test
+    public void testContainsAndOverlaps() {
+        IntervalSet intervalSet = IntervalSet.of(new long[]{10L, 30L}, new long[]{20L, 40L});
+        assertFalse(intervalSet.contains(9L));
+        assertTrue(intervalSet.contains(10L));
+        assertTrue(intervalSet.contains(19L));
+        assertFalse(intervalSet.contains(20L));
+        assertTrue(intervalSet.overlaps(19L, 30L));
+        assertFalse(intervalSet.overlaps(20L, 30L));
+        assertFalse(intervalSet.overlaps(0L, 10L));
+        assertFalse(intervalSet.overlaps(15L, 15L));
+        assertFalse(IntervalSet.EMPTY.contains(0L));
+    }
+
+    @Test
+    public void testSetOperations() {
+        IntervalSet left = IntervalSet.of(new long[]{0L, 20L, 40L}, new long[]{10L, 30L, 50L});
+        IntervalSet right = IntervalSet.of(new long[]{5L, 25L}, new long[]{22L, 45L});
+        assertEquals("{[0, 50)}", left.union(right).toString());
+        assertEquals("{[5, 10), [20, 22), [25, 30), [40, 45)}", left.intersect(right).toString());
+        assertEquals("{[0, 5), [22, 25), [45, 50)}", left.difference(right).toString());
+        assertEquals("{[10, 20), [30, 40)}", left.gaps().toString());
+        assertEquals("{[-5, 0), [10, 20), [30, 40)}", left.gaps(-5L, 45L).toString());
+        assertTrue(IntervalSet.EMPTY.gaps().isEmpty());
+        assertSame(IntervalSet.EMPTY, left.intersect(IntervalSet.EMPTY));
+    }
+
+    @Test
+    public void testLargeInputAgainstBitmap() {
+        Random random = new Random(1022L);
+        int count = TimestampSorter.PARALLEL_THRESHOLD * 2;
+        int span = 200000;
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        boolean[] covered = new boolean[span];
+        for (int i = 0; i < count; i++) {
+            starts[i] = random.nextInt(span - 20);
+            ends[i] = starts[i] + random.nextInt(20);
+            for (long value = starts[i]; value < ends[i]; value++) {
+                covered[(int) value] = true;
+            }
+        }
+        IntervalSet intervalSet = IntervalSet.of(starts, ends);
+        IntervalSet gaps = intervalSet.gaps(0L, span);
+        long coveredLength = 0L;
+        for (int value = 0; value < span; value++) {
+            assertEquals(covered[value], intervalSet.contains(value));
+            assertEquals(!covered[value], gaps.contains(value));
+            coveredLength += covered[value] ? 1L : 0L;
+        }
+        assertEquals(coveredLength, intervalSet.totalLength());
+        assertEquals(IntervalSet.of(0L, span), intervalSet.union(gaps));
+        assertTrue(intervalSet.intersect(gaps).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversedRange() {
+        IntervalSet.of(20L, 10L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLengthMismatch() {
+        IntervalSet.of(new long[]{1L}, new long[0]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() {
+        IntervalSet.EMPTY.getStart(0);
+    }
+
+}
@@ -0,0 +1,139 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class Iso8601ZoneShifterTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<Iso8601ZoneShifter> constructor = Iso8601ZoneShifter.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testShiftToDefaultZone() {
+        String input = "2017-08-08T16:00:00Z";
+        String expected = "2017-08-09T00:00:00+08:00";
+        String actual = Iso8601ZoneShifter.shift(input);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testShiftWithMillisecond() {
+        String input = "2017-08-08T16:00:00.777Z";
+        String expected = "2017-08-09T00:00:00+08:00";
+        String actual = Iso8601ZoneShifter.shift(input);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testShiftWithOffsetInput() {
+        String input = "2017-08-09T00:00:00+08:00";
+        String expected = "2017-08-08T16:00:00Z";
+        String actual = Iso8601ZoneShifter.shift(input, ZoneId.of("UTC"));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testShiftToNegativeOffset() {
+        String input = "2017-03-01T02:30:00Z";
+        String expected = "2017-02-28T16:30:00-10:00";
+        String actual = Iso8601ZoneShifter.shift(input, ZoneId.of("Pacific/Honolulu"));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testShiftAcrossDaylightSavingTransition() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        assertEquals("2017-03-12T01:59:59-05:00", Iso8601ZoneShifter.shift("2017-03-12T06:59:59Z", newYork));
+        assertEquals("2017-03-12T03:00:00-04:00", Iso8601ZoneShifter.shift("2017-03-12T07:00:00Z", newYork));
+    }
+
+    @Test
+    public void testShiftWithLeapSecond() {
+        String input = "2016-12-31T23:59:60Z";
+        String expected = "2017-01-01T07:59:59+08:00";
+        String actual = Iso8601ZoneShifter.shift(input);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testShiftIntoBuffer() {
+        StringBuilder buffer = new StringBuilder("at ");
+        Iso8601ZoneShifter.shift("2017-08-08T16:00:00Z", ZoneId.of("Asia/Taipei"), buffer);
+        assertEquals("at 2017-08-09T00:00:00+08:00", buffer.toString());
+    }
+
+    @Test
+    public void testShiftWithEmptyInput() {
+        assertNull(Iso8601ZoneShifter.shift(""));
+        assertNull(Iso8601ZoneShifter.shift(null));
+    }
+
+    @Test
+    public void testShiftAll() {
+        String[] input = {"2017-08-08T16:00:00Z", null, "", "2017-08-09T00:00:00+08:00"};
+        String[] actual = Iso8601ZoneShifter.shiftAll(input, ZoneId.of("Asia/Taipei"));
+        assertArrayEquals(new String[]{"2017-08-09T00:00:00+08:00", null, null, "2017-08-09T00:00:00+08:00"}, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShiftAllWithShortOutput() {
+        Iso8601ZoneShifter.shiftAll(new String[2], ZoneId.of("UTC"), new String[1]);
+    }
+
+    @Test
+    public void testShiftMatchesFormatter() {
+        ZoneId[] zoneIds = {ZoneId.of("Asia/Taipei"), ZoneId.of("Europe/London"), ZoneId.of("America/Sao_Paulo")};
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+        Random random = new Random(1022L);
+        for (int i = 0; i < 5000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE) * 2L - Integer.MAX_VALUE);
+            ZoneId zoneId = zoneIds[i % zoneIds.length];
+            String expected = formatter.format(instant.atZone(zoneId));
+            String actual = Iso8601ZoneShifter.shift(instant.toString(), zoneId);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftWithParseException() {
+        Iso8601ZoneShifter.shift("2017-08-0823:25:51Z");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftWithInvalidDate() {
+        Iso8601ZoneShifter.shift("2017-02-29T23:25:51Z");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftWithoutOffset() {
+        Iso8601ZoneShifter.shift("2017-08-08T23:25:51");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftWithInvalidOffset() {
+        Iso8601ZoneShifter.shift("2017-08-08T23:25:51+19:00");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftWithEmptyFraction() {
+        Iso8601ZoneShifter.shift("2017-08-08T23:25:51.Z");
+    }
+
+}
@@ -190,6 +190,20 @@ public class JdkIso8601TimeUtilTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testShiftTimeZoneForIso8601TimestampOutsideTheShifter() {
+        assertEquals("2017-08-09T08:00:00+08:00", JdkIso8601TimeUtil.shiftTimeZoneForIso8601Timestamp(
+                "2017-08-08T24:00:00Z"));
+        assertEquals("+12017-08-09T00:00:00+08:00", JdkIso8601TimeUtil.shiftTimeZoneForIso8601Timestamp(
+                "+12017-08-08T16:00:00Z"));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testShiftTimeZoneForIso8601TimestampWithoutSeconds() {
+        // rejected by Instant.parse as well
+        JdkIso8601TimeUtil.shiftTimeZoneForIso8601Timestamp("2017-08-08T16:00Z");
+    }
+
     @Test
     public void testShiftTimeZoneForIso8601TimestampWithEmptyInput() {
         String input = "";
@@ -0,0 +1,98 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class LogTimestampRewriterTest {
+
+    @Test
+    public void testRewriteMixedFormats() {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.ISO8601UTC);
+        String line = "[2017-07-27T23:41:00+08:00] INFO saved at 2017-07-27 23:41:00.5, ts=1501170060 id=15011700601";
+        assertEquals("[2017-07-27T15:41:00Z] INFO saved at 2017-07-27T15:41:00Z, ts=2017-07-27T15:41:00Z "
+                + "id=15011700601", rewriter.rewrite(line));
+        assertEquals(3, rewriter.getRewrittenCount());
+    }
+
+    @Test
+    public void testCopyInvalidAndEmbeddedTokensThrough() {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.UNIX_TIME);
+        String line = "2017-02-29 10:00:00 x2017-07-27T15:41:00Z 2017-07-27T15:41:00 2017-07-27T15:41:00Zulu "
+                + "abc1501170060 no timestamps";
+        assertEquals(line, rewriter.rewrite(line));
+        assertEquals(0, rewriter.getRewrittenCount());
+        assertEquals("", rewriter.rewrite(""));
+    }
+
+    @Test
+    public void testRewriteIntoEveryFormat() {
+        String line = "at 2017-07-27T15:41:00.987654321Z.";
+        for (TimeFormat format : TimeFormat.values()) {
+            String expected = "at " + TimeFormat.convert("2017-07-27T15:41:00.987654321Z", TimeFormat.ISO8601UTC,
+                    format) + ".";
+            assertEquals(expected, new LogTimestampRewriter(format).rewrite(line));
+        }
+    }
+
+    @Test
+    public void testRewriteOffsetsAndAdjacentTokens() {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.MYSQL_DATE_TIME);
+        assertEquals("2017-07-28 05:41:00|2017-07-27 23:41:00",
+                rewriter.rewrite("2017-07-27t15:41:00-06:00|1501170060"));
+        StringBuilder output = new StringBuilder(">");
+        assertSame(output, rewriter.rewrite("1501170060", output));
+        assertEquals(">2017-07-27 23:41:00", output.toString());
+    }
+
+    @Test
+    public void testRewriteMySqlDateTimeWithOffset() {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.ISO8601UTC);
+        assertEquals("a 2017-07-27T15:41:00Z b 2017-07-27T23:41:00Z c",
+                rewriter.rewrite("a 2017-07-27 23:41:00+08:00 b 2017-07-27 23:41:00.5Z c"));
+        assertEquals(2, rewriter.getRewrittenCount());
+        // an offset that cannot be read leaves the whole token alone
+        String invalidOffset = "2017-07-27 23:41:00+25:00 2017-07-27 23:41:00-8";
+        assertEquals(invalidOffset, rewriter.rewrite(invalidOffset));
+        assertEquals("2017-07-27T15:41:00Z - done", rewriter.rewrite("2017-07-27 23:41:00 - done"));
+    }
+
+    @Test
+    public void testRewriteBytes() throws IOException {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.ISO8601TW);
+        byte[] line = "時間 2017-07-27T15:41:00Z 完成".getBytes(StandardCharsets.UTF_8);
+        assertEquals("時間 2017-07-27T23:41:00+08:00 完成",
+                new String(rewriter.rewrite(line), StandardCharsets.UTF_8));
+
+        byte[] padded = "x1501170060 1501170060".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        rewriter.rewrite(padded, 1, 10, output);
+        assertEquals("2017-07-27T23:41:00+08:00", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRewriteOutOfRangeYearThroughFormatter() {
+        LogTimestampRewriter rewriter = new LogTimestampRewriter(TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(TimeFormat.convert("0000-01-01T00:00:00Z", TimeFormat.ISO8601UTC, TimeFormat.MYSQL_DATE_TIME),
+                rewriter.rewrite("0000-01-01T00:00:00Z"));
+        assertEquals(TimeFormat.MYSQL_DATE_TIME, rewriter.getTargetFormat());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTargetFormat() {
+        new LogTimestampRewriter(null);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidByteRange() throws IOException {
+        new LogTimestampRewriter(TimeFormat.UNIX_TIME).rewrite(new byte[2], 1, 2, new ByteArrayOutputStream());
+    }
+
+}
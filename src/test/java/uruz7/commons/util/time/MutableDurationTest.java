@@ -0,0 +1,147 @@
+package uruz7.commons.util.time;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class MutableDurationTest {
+
+    private static final String[] VALID = {"PT15M", "P1DT2H", "PT0S", "P0D", "PT1.5S", "PT-1.5S", "-PT1H30M",
+            "P-2DT3H", "pt8h6m12.345s", "PT0,25S", "+PT1S", "PT1.S", "PT36H", "-P1D",
+            "PT2562047788015215H30M7.999999999S", "P106751991167300DT15H30M7.999999999S"};
+    private static final String[] INVALID = {"", "P", "PT", "T1H", "P1H", "PT1D", "PT1M1H", "PT1S1S", "PT.5S",
+            "PT1.1234567891S", "P1Y", "P1W", "PT1", "P1DT", "PTxS", "PT1.5M", "PT1.5S2S",
+            "P106751991167301D", "PT99999999999999999999S", "--PT1S"};
+
+    @Test
+    public void testParseLikeDuration() {
+        MutableDuration duration = new MutableDuration();
+        for (String text : VALID) {
+            Duration expected = Duration.parse(text);
+            duration.parse(text);
+            assertEquals(text, expected.getSeconds(), duration.getSeconds());
+            assertEquals(text, expected.getNano(), duration.getNano());
+            assertEquals(expected, duration.toDuration());
+        }
+    }
+
+    @Test
+    public void testNegativeZeroFraction() {
+        // unlike Duration.parse of Java 8, the sign of "-0" applies to the fraction
+        assertEquals(Duration.ofMillis(-500L), new MutableDuration().parse("PT-0.5S").toDuration());
+        assertEquals(Duration.ofNanos(-1L), new MutableDuration().parse("PT-0.000000001S").toDuration());
+    }
+
+    @Test
+    public void testRejectLikeDuration() {
+        MutableDuration duration = new MutableDuration();
+        for (String text : INVALID) {
+            try {
+                duration.parse(text);
+                fail(text);
+            } catch (DateTimeParseException expected) {
+                assertEquals(text, expected.getParsedString());
+            }
+        }
+    }
+
+    @Test
+    public void testFormatLikeDuration() {
+        MutableDuration duration = new MutableDuration();
+        Random random = new Random(1022L);
+        for (int i = 0; i < 10000; i++) {
+            long seconds = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(200000) - 100000;
+            int nano = random.nextBoolean() ? 0 : random.nextInt(1000000000);
+            String text = duration.set(seconds, nano).format();
+            if (seconds >= 0L || nano == 0) {
+                // the layouts of Java 8 and of Java 9 and later only differ for negative fractions
+                assertEquals(Duration.ofSeconds(seconds, nano).toString(), text);
+            }
+            duration.set(0L, 0L).parse(text);
+            assertEquals(text, seconds, duration.getSeconds());
+            assertEquals(text, nano, duration.getNano());
+        }
+        assertEquals("PT0S", duration.set(Duration.ZERO).toString());
+        assertEquals("x:PT-0.5S", duration.set(0L, -500000000L).format(new StringBuilder("x:")).toString());
+        assertTrue(duration.isNegative());
+        assertEquals("PT1H", duration.set(new MutableDuration().parse("PT60M")).format());
+    }
+
+    @Test
+    public void testFormatNegativeFraction() {
+        MutableDuration duration = new MutableDuration();
+        assertEquals("PT-0.5S", duration.set(-1L, 500000000L).format());
+        assertEquals("PT-0.000000001S", duration.set(-1L, 999999999L).format());
+        assertEquals("PT-1.5S", duration.set(-2L, 500000000L).format());
+        assertEquals("PT-4H-24M-59.999423229S", duration.set(-15900L, 576771L).format());
+        assertEquals("PT-1H-0.5S", duration.set(-3601L, 500000000L).format());
+        assertEquals("PT-2562047788015215H-30M-7.999999999S", duration.set(Long.MIN_VALUE, 1L).format());
+    }
+
+    @Test
+    public void testAddToAndSubtractFrom() {
+        MutableTimestamp timestamp = new MutableTimestamp().set(1501170060L, 900000000, 28800);
+        MutableDuration duration = new MutableDuration().parse("PT15M0.2S");
+        duration.addTo(timestamp);
+        assertEquals(1501170961L, timestamp.getEpochSecond());
+        assertEquals(100000000, timestamp.getNano());
+        assertEquals(28800, timestamp.getOffsetSeconds());
+        duration.subtractFrom(timestamp);
+        assertEquals(1501170060L, timestamp.getEpochSecond());
+        assertEquals(900000000, timestamp.getNano());
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testAddOverflow() {
+        new MutableDuration().set(Long.MAX_VALUE, 0L).addTo(new MutableTimestamp().set(1L, 0));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testSubtractOverflow() {
+        new MutableDuration().set(Long.MAX_VALUE, 0L).subtractFrom(new MutableTimestamp().set(-2L, 0));
+    }
+
+    @Test
+    public void testParseAndFormatAllocateNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        MutableDuration duration = new MutableDuration();
+        MutableInterval interval = new MutableInterval();
+        StringBuilder buffer = new StringBuilder(128);
+        String durationText = "P1DT2H3M4.5S";
+        String intervalText = "2017-07-27T15:41:00Z/PT15M";
+        long checksum = 0L;
+        for (int i = 0; i < 20000; i++) {
+            checksum += run(duration, interval, buffer, durationText, intervalText);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10000; i++) {
+            checksum += run(duration, interval, buffer, durationText, intervalText);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(checksum > 0L);
+        assertTrue("allocated " + allocated + " bytes", allocated < 10000L);
+    }
+
+    private static long run(MutableDuration duration, MutableInterval interval, StringBuilder buffer,
+            String durationText, String intervalText) {
+        buffer.setLength(0);
+        duration.parse(durationText).format(buffer);
+        interval.parse(intervalText, TimeFormat.ISO8601UTC).format(TimeFormat.ISO8601UTC, buffer);
+        return duration.getSeconds() + interval.getEndEpochSecond() + buffer.length();
+    }
+
+}
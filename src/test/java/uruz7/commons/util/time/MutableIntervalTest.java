@@ -0,0 +1,90 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class MutableIntervalTest {
+
+    @Test
+    public void testParseStartAndEnd() {
+        MutableInterval interval = new MutableInterval().parse("2017-07-27T15:41:00Z/2017-07-27T16:41:00Z",
+                TimeFormat.ISO8601UTC);
+        assertEquals(1501170060L, interval.getStartEpochSecond());
+        assertEquals(1501173660L, interval.getEndEpochSecond());
+        assertEquals(0, interval.getStartNano());
+        assertEquals(0, interval.getEndNano());
+        assertEquals("PT1H", interval.getDuration(new MutableDuration()).format());
+        assertEquals("2017-07-27 23:41:00/2017-07-28 00:41:00", interval.format(TimeFormat.MYSQL_DATE_TIME));
+    }
+
+    @Test
+    public void testParseStartAndDuration() {
+        MutableInterval interval = new MutableInterval().parse("2017-07-27 23:41:00/P1DT0.5S",
+                TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(1501170060L, interval.getStartEpochSecond());
+        assertEquals(1501256460L, interval.getEndEpochSecond());
+        assertEquals(500000000, interval.getEndNano());
+        assertEquals("2017-07-27T15:41:00Z/PT24H0.5S",
+                interval.formatWithDuration(TimeFormat.ISO8601UTC, new StringBuilder()).toString());
+        assertTrue(interval.contains(1501170060L, 0));
+        assertTrue(interval.contains(1501256460L, 499999999));
+        assertFalse(interval.contains(1501256460L, 500000000));
+        assertFalse(interval.contains(1501170059L, 999999999));
+    }
+
+    @Test
+    public void testParseDurationAndEnd() {
+        MutableInterval interval = new MutableInterval().parse("PT15M/1501170960", TimeFormat.UNIX_TIME);
+        assertEquals(1501170060L, interval.getStartEpochSecond());
+        assertEquals(1501170960L, interval.getEndEpochSecond());
+        assertEquals("2017-07-27T15:41:00Z/2017-07-27T15:56:00Z", interval.toString());
+    }
+
+    @Test
+    public void testParseNegativeUnixTimes() {
+        MutableInterval interval = new MutableInterval().parse("-60/-PT0S", TimeFormat.UNIX_TIME);
+        assertEquals(-60L, interval.getStartEpochSecond());
+        assertEquals(-60L, interval.getEndEpochSecond());
+    }
+
+    @Test
+    public void testNonCanonicalEndpointsGoThroughFormat() {
+        MutableInterval interval = new MutableInterval().parse("2017-07-27T15:41:00.250Z/PT0.75S",
+                TimeFormat.ISO8601UTC);
+        assertEquals(250000000, interval.getStartNano());
+        assertEquals(1501170061L, interval.getEndEpochSecond());
+        assertEquals(0, interval.getEndNano());
+    }
+
+    @Test
+    public void testInvalidIntervals() {
+        String[] invalid = {"2017-07-27T15:41:00Z", "/2017-07-27T15:41:00Z", "2017-07-27T15:41:00Z/",
+                "PT1H/PT1H", "2017-07-27T15:41:00Z/PT1H/PT1H", "2017-07-27T15:41:00Z/PT1X"};
+        for (String text : invalid) {
+            try {
+                new MutableInterval().parse(text, TimeFormat.ISO8601UTC);
+                fail(text);
+            } catch (DateTimeParseException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testEndBeforeStart() {
+        new MutableInterval().parse("2017-07-27T15:41:00Z/-PT1S", TimeFormat.ISO8601UTC);
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testSetEndBeforeStart() {
+        new MutableInterval().set(10L, 5, 10L, 4);
+    }
+
+}
@@ -0,0 +1,136 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class MutableTimestampTest {
+
+    @Test
+    public void testParseIntoCivilFields() {
+        MutableTimestamp timestamp = new MutableTimestamp();
+        timestamp.parse("2017-07-27 23:41:00", TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(1501170060L, timestamp.getEpochSecond());
+        assertEquals(28800, timestamp.getOffsetSeconds());
+        assertEquals(2017, timestamp.getYear());
+        assertEquals(7, timestamp.getMonth());
+        assertEquals(27, timestamp.getDayOfMonth());
+        assertEquals(23, timestamp.getHour());
+        assertEquals(41, timestamp.getMinute());
+        assertEquals(0, timestamp.getSecond());
+        assertEquals(4, timestamp.getDayOfWeek());
+        assertEquals("2017-07-27T23:41:00+08:00", timestamp.toString());
+
+        timestamp.parse("1501170060", TimeFormat.UNIX_TIME);
+        assertEquals(15, timestamp.getHour());
+        assertEquals("2017-07-27T15:41:00Z", timestamp.toString());
+    }
+
+    @Test
+    public void testFormatIntoEveryFormat() {
+        MutableTimestamp timestamp = new MutableTimestamp().set(1501170060L, 987654321);
+        StringBuilder buffer = new StringBuilder();
+        for (TimeFormat format : TimeFormat.values()) {
+            String expected = format.getTimestampString(Instant.ofEpochSecond(1501170060L, 987654321));
+            assertEquals(expected, timestamp.format(format));
+            buffer.setLength(0);
+            assertEquals(expected, timestamp.format(format, buffer).toString());
+        }
+        assertEquals("2017-07-27T15:41:00.987654321Z", timestamp.toString());
+    }
+
+    @Test
+    public void testRoundTripAgainstTimeFormat() {
+        Random random = new Random(1022L);
+        MutableTimestamp timestamp = new MutableTimestamp();
+        for (int i = 0; i < 20000; i++) {
+            long epochSecond = random.nextLong() % 20000000000L;
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            for (TimeFormat format : TimeFormat.values()) {
+                String text = format.getTimestampString(instant);
+                assertEquals(text, timestamp.set(epochSecond, 0).format(format));
+                assertEquals(format.getInstant(text), timestamp.parse(text, format).toInstant());
+            }
+        }
+    }
+
+    @Test
+    public void testNonCanonicalTextFollowsTimeFormat() {
+        MutableTimestamp timestamp = new MutableTimestamp();
+        String[][] cases = {
+                {"2017-07-27t15:41:00.5z", "ISO8601UTC"},
+                {"2016-12-31T23:59:60Z", "ISO8601UTC"},
+                {"2017-02-30T10:00:00+08:00", "ISO8601TW"},
+                {"2017-07-27T10:00:00+00:00", "ISO8601TW"},
+                {"2017-02-29 10:00:00.1", "DB_DATE_TIME"},
+                {"+1501170060", "UNIX_TIME"},
+                {"-1501170060", "UNIX_TIME"}
+        };
+        for (String[] testCase : cases) {
+            TimeFormat format = TimeFormat.valueOf(testCase[1]);
+            assertEquals(format.getInstant(testCase[0]), timestamp.parse(testCase[0], format).toInstant());
+        }
+        assertEquals(28800, timestamp.atZone(ZoneId.of("Asia/Taipei")).getOffsetSeconds());
+        assertEquals(-14400, timestamp.atZone(ZoneId.of("America/New_York")).getOffsetSeconds());
+        assertEquals(timestamp.getEpochSecond(), new MutableTimestamp().set(timestamp).getEpochSecond());
+    }
+
+    @Test
+    public void testZeroAndMaximumOffsets() {
+        MutableTimestamp timestamp = new MutableTimestamp();
+        for (String offset : new String[]{"+00:00", "-00:00", "+18:00", "-18:00"}) {
+            String text = "2017-07-27T10:00:00" + offset;
+            assertEquals(TimeFormat.ISO8601TW.getInstant(text), timestamp.parse(text, TimeFormat.ISO8601TW).toInstant());
+        }
+        try {
+            timestamp.parse("2017-07-27T10:00:00+18:01", TimeFormat.ISO8601TW);
+            fail();
+        } catch (DateTimeParseException expected) {
+            // out of the offset range, like TimeFormat.ISO8601TW
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testInvalidText() {
+        new MutableTimestamp().parse("0000-01-01 00:00:00", TimeFormat.MYSQL_DATE_TIME);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidEpoch() {
+        new MutableTimestamp().parse("15011700601501170060", TimeFormat.UNIX_TIME);
+    }
+
+    @Test
+    public void testEpochOutOfInstantRange() {
+        MutableTimestamp timestamp = new MutableTimestamp();
+        assertEquals(Instant.MIN.getEpochSecond(),
+                timestamp.parse(String.valueOf(Instant.MIN.getEpochSecond()), TimeFormat.UNIX_TIME).getEpochSecond());
+        assertEquals(Instant.MAX.getEpochSecond(),
+                timestamp.parse(String.valueOf(Instant.MAX.getEpochSecond()), TimeFormat.UNIX_TIME).getEpochSecond());
+        String[] outOfRange = {String.valueOf(Instant.MIN.getEpochSecond() - 1L),
+                String.valueOf(Instant.MAX.getEpochSecond() + 1L), "-999999999999999999"};
+        for (String text : outOfRange) {
+            try {
+                timestamp.parse(text, TimeFormat.UNIX_TIME);
+                fail(text);
+            } catch (DateTimeException expected) {
+                assertEquals(text, Instant.MAX.getEpochSecond(), timestamp.getEpochSecond());
+            }
+        }
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testInvalidNano() {
+        new MutableTimestamp().set(0L, -1);
+    }
+
+}
@@ -0,0 +1,134 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class MySqlBinaryDateTimeTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<MySqlBinaryDateTime> constructor = MySqlBinaryDateTime.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testWriteSevenBytes() {
+        // Which means: 2017-07-27 23:41:00 in Asia/Taipei
+        ByteBuffer buffer = ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH);
+        MySqlBinaryDateTime.write(1501170060L, buffer);
+        byte[] expected = {7, (byte) 0xE1, 0x07, 7, 27, 23, 41, 0};
+        assertArrayEquals(expected, toArray(buffer));
+    }
+
+    @Test
+    public void testWriteFourBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH);
+        MySqlBinaryDateTime.write("2017-07-27 00:00:00", TimeFormat.MYSQL_DATE_TIME, buffer);
+        byte[] expected = {4, (byte) 0xE1, 0x07, 7, 27};
+        assertArrayEquals(expected, toArray(buffer));
+    }
+
+    @Test
+    public void testWriteElevenBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        MySqlBinaryDateTime.writeEpochMicros(1501170060123456L, ZoneOffset.UTC, buffer);
+        byte[] expected = {11, (byte) 0xE1, 0x07, 7, 27, 15, 41, 0, 0x40, (byte) 0xE2, 0x01, 0};
+        assertArrayEquals(expected, toArray(buffer));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        ZoneId[] zoneIds = {ZoneId.of("Asia/Taipei"), ZoneOffset.UTC, ZoneId.of("America/New_York")};
+        long[] epochMicros = {1501170060123456L, 1501170060000000L, 1501113600000000L, -1L, 0L, 253402243199000000L};
+        for (ZoneId zoneId : zoneIds) {
+            for (long expected : epochMicros) {
+                ByteBuffer buffer = ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH);
+                MySqlBinaryDateTime.writeEpochMicros(expected, zoneId, buffer);
+                buffer.flip();
+                assertEquals(expected, MySqlBinaryDateTime.readEpochMicros(buffer, zoneId));
+                assertFalse(buffer.hasRemaining());
+            }
+        }
+    }
+
+    @Test
+    public void testReadIntoTimeFormat() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{7, (byte) 0xE1, 0x07, 7, 27, 23, 41, 0, 4, (byte) 0xE1, 0x07,
+                7, 28});
+        assertEquals("2017-07-27T15:41:00Z", MySqlBinaryDateTime.read(buffer, TimeFormat.ISO8601UTC));
+        assertEquals(1501171200L, MySqlBinaryDateTime.readEpochSecond(buffer));
+    }
+
+    @Test
+    public void testReadElevenBytesIntoDbDateTime() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{11, (byte) 0xE1, 0x07, 7, 27, 23, 41, 0, 0x20, (byte) 0xA1,
+                0x07, 0});
+        assertEquals("2017-07-27 23:41:00.5", MySqlBinaryDateTime.read(buffer, TimeFormat.DB_DATE_TIME));
+    }
+
+    @Test
+    public void testZero() {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        MySqlBinaryDateTime.writeZero(buffer);
+        buffer.flip();
+        assertTrue(MySqlBinaryDateTime.isZero(buffer));
+        assertNull(MySqlBinaryDateTime.read(buffer, TimeFormat.MYSQL_DATE_TIME));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testReadZeroAsEpoch() {
+        MySqlBinaryDateTime.readEpochSecond(ByteBuffer.wrap(new byte[]{0}));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testReadInvalidLength() {
+        MySqlBinaryDateTime.readEpochSecond(ByteBuffer.wrap(new byte[]{5, 0, 0, 0, 0, 0}));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testReadInvalidDate() {
+        MySqlBinaryDateTime.readEpochSecond(ByteBuffer.wrap(new byte[]{4, (byte) 0xE1, 0x07, 2, 29}));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testWriteYearOutOfRange() {
+        MySqlBinaryDateTime.write(253402300800L, 0, ZoneOffset.UTC,
+                ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH));
+    }
+
+    @Test
+    public void testWriteInvalidNano() {
+        ByteBuffer buffer = ByteBuffer.allocate(MySqlBinaryDateTime.MAX_ENCODED_LENGTH);
+        for (int nano : new int[]{-1, 1000000000}) {
+            try {
+                MySqlBinaryDateTime.write(1501170060L, nano, ZoneOffset.UTC, buffer);
+                fail();
+            } catch (DateTimeException expected) {
+                assertEquals(0, buffer.position());
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,82 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class SlidingWindowCounterTest {
+
+    private static final long START_MILLIS = 1501170060000L;
+
+    @Test
+    public void testSlidingSums() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        SlidingWindowCounter counter = new SlidingWindowCounter(60, 2, now::get);
+        for (int second = 0; second < 120; second++) {
+            now.set(START_MILLIS + second * 1000L + 500L);
+            for (int i = 0; i <= second % 3; i++) {
+                assertTrue(counter.increment(now.get() / 1000L));
+            }
+        }
+        // seconds 60 to 119 hold 1, 2 and 3 events in turn
+        assertEquals(120L, counter.sum());
+        assertEquals(2.0, counter.rate(), 0.0);
+        assertEquals(6L, counter.sum(3));
+        assertEquals(2.0, counter.rate(3), 0.0);
+        assertEquals(3L, counter.get(1501170060L + 119L));
+        assertEquals(0L, counter.get(1501170060L));
+        assertEquals(60, counter.getWindowSeconds());
+    }
+
+    @Test
+    public void testToleranceAndTimeFormatInput() {
+        AtomicLong now = new AtomicLong(START_MILLIS);
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 2, now::get);
+        assertTrue(counter.increment("2017-07-27T23:40:58+08:00", TimeFormat.ISO8601TW));
+        assertTrue(counter.increment("2017-07-27 23:41:02", TimeFormat.MYSQL_DATE_TIME));
+        assertFalse(counter.increment("1501170057", TimeFormat.UNIX_TIME));
+        assertFalse(counter.add(1501170063L, 5L));
+        assertEquals(2L, counter.getDroppedCount());
+        // the early event only counts once the clock reaches it
+        assertEquals(1L, counter.sum());
+        now.addAndGet(2000L);
+        assertEquals(2L, counter.sum());
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(3600);
+        int threads = 4;
+        int perThread = 50000;
+        long second = EpochClock.SYSTEM.currentEpochSecond();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment(second);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        assertEquals((long) threads * perThread, counter.get(second));
+        assertEquals((long) threads * perThread, counter.sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWindow() {
+        new SlidingWindowCounter(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSumBeyondWindow() {
+        new SlidingWindowCounter(10).sum(11);
+    }
+
+}
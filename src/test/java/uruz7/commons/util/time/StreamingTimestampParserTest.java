@@ -0,0 +1,97 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class StreamingTimestampParserTest {
+
+    @Test
+    public void testPrefixHits() {
+        StreamingTimestampParser parser = new StreamingTimestampParser(TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(1501170060L, parser.parseEpochSecond("2017-07-27 23:41:00"));
+        assertEquals(1501170119L, parser.parseEpochSecond("2017-07-27 23:41:59"));
+        assertEquals(1501170120L, parser.parseEpochSecond("2017-07-27 23:42:00"));
+        assertEquals(1501171200L, parser.parseEpochSecond("2017-07-28 00:00:00"));
+        assertEquals(1L, parser.getMinutePrefixHits());
+        assertEquals(1L, parser.getDatePrefixHits());
+        parser.reset();
+        assertEquals(1501171201L, parser.parseEpochSecond("2017-07-28 00:00:01"));
+        assertEquals(1L, parser.getMinutePrefixHits());
+        assertEquals(TimeFormat.MYSQL_DATE_TIME, parser.getFormat());
+    }
+
+    @Test
+    public void testNearlySortedStreamsAgainstTimeFormat() {
+        // 1974 and 1975 cover daylight saving transitions of Asia/Taipei
+        long[] starts = {1501170060L, 120000000L, 165000000L};
+        for (TimeFormat format : TimeFormat.values()) {
+            Random random = new Random(1022L);
+            StreamingTimestampParser parser = new StreamingTimestampParser(format);
+            for (long start : starts) {
+                long epochSecond = start;
+                for (int i = 0; i < 20000; i++) {
+                    epochSecond += random.nextInt(10) == 0 ? -random.nextInt(600) : random.nextInt(2000);
+                    String timestamp = format.getTimestampString(Instant.ofEpochSecond(epochSecond));
+                    assertEquals(timestamp, format.getEpochSecond(timestamp), parser.parseEpochSecond(timestamp));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNonCanonicalTextFollowsTimeFormat() {
+        String[][] cases = {
+                {"2017-07-27T15:41:00.123456789Z", "ISO8601UTC"},
+                {"2017-07-27T15:41:00.5Z", "ISO8601UTC"},
+                {"2017-07-27t15:41:00z", "ISO8601UTC"},
+                {"2016-12-31T23:59:60Z", "ISO8601UTC"},
+                {"2017-07-27T15:41:00-05:00", "ISO8601TW"},
+                {"2017-07-27T15:41:00+00:00", "ISO8601TW"},
+                {"2017-02-30T10:00:00+08:00", "ISO8601TW"},
+                {"2017-07-27 23:41:00.9", "DB_DATE_TIME"},
+                {"+1501170060", "UNIX_TIME"},
+                {"-1501170060", "UNIX_TIME"}
+        };
+        for (String[] testCase : cases) {
+            TimeFormat format = TimeFormat.valueOf(testCase[1]);
+            StreamingTimestampParser parser = new StreamingTimestampParser(format);
+            // a first pass fills the prefixes, the second one goes through them
+            for (int pass = 0; pass < 2; pass++) {
+                assertEquals(format.getEpochSecond(testCase[0]), parser.parseEpochSecond(testCase[0]));
+            }
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testInvalidSecondAfterPrefixHit() {
+        StreamingTimestampParser parser = new StreamingTimestampParser(TimeFormat.MYSQL_DATE_TIME);
+        parser.parseEpochSecond("2017-07-27 23:41:00");
+        parser.parseEpochSecond("2017-07-27 23:41:6x");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testYearZero() {
+        new StreamingTimestampParser(TimeFormat.MYSQL_DATE_TIME).parseEpochSecond("0000-01-01 00:00:00");
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testEpochBeforeInstantMin() {
+        new StreamingTimestampParser(TimeFormat.UNIX_TIME).parseEpochSecond(
+                String.valueOf(Instant.MIN.getEpochSecond() - 1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullFormat() {
+        new StreamingTimestampParser(null);
+    }
+
+}
@@ -0,0 +1,103 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimeFormatConverterTest {
+
+    @Test
+    public void testFusedPairs() {
+        assertEquals("1501170060", TimeFormat.converter(TimeFormat.ISO8601UTC, TimeFormat.UNIX_TIME)
+                .convert("2017-07-27T15:41:00Z"));
+        assertEquals("2017-07-27T23:41:00+08:00", TimeFormat.converter(TimeFormat.MYSQL_DATE_TIME, TimeFormat.ISO8601TW)
+                .convert("2017-07-27 23:41:00"));
+        assertEquals("2017-07-27 23:41:00.0", TimeFormat.converter(TimeFormat.ISO8601TW, TimeFormat.DB_DATE_TIME)
+                .convert("2017-07-27T23:41:00Z"));
+        assertEquals("2017-07-27T15:41:00Z", TimeFormat.converter(TimeFormat.DB_DATE_TIME, TimeFormat.ISO8601UTC)
+                .convert("2017-07-27 23:41:00.5"));
+        assertEquals("2017-07-27 23:41:00", TimeFormat.converter(TimeFormat.UNIX_TIME, TimeFormat.MYSQL_DATE_TIME)
+                .convert("1501170060"));
+    }
+
+    @Test
+    public void testSameConverterPerPair() {
+        assertSame(TimeFormat.converter(TimeFormat.UNIX_TIME, TimeFormat.ISO8601TW),
+                TimeFormat.converter(TimeFormat.UNIX_TIME, TimeFormat.ISO8601TW));
+    }
+
+    @Test
+    public void testEveryPairAgainstConvert() {
+        Random random = new Random(1022L);
+        for (int i = 0; i < 5000; i++) {
+            // from year 1336 to 2603, across the historical offsets of Asia/Taipei
+            Instant instant = Instant.ofEpochSecond(random.nextLong() % 20000000000L);
+            for (TimeFormat from : TimeFormat.values()) {
+                String timestamp = from.getTimestampString(instant);
+                for (TimeFormat to : TimeFormat.values()) {
+                    assertEquals(from + " -> " + to, TimeFormat.convert(timestamp, from, to),
+                            TimeFormat.converter(from, to).convert(timestamp));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNonCanonicalInputAgainstConvert() {
+        String[][] cases = {
+                {"2017-07-27t15:41:00.5z", "ISO8601UTC"},
+                {"2016-12-31T23:59:60Z", "ISO8601UTC"},
+                {"0000-01-01T00:00:00Z", "ISO8601UTC"},
+                {"9999-12-31T23:59:59Z", "ISO8601UTC"},
+                {"2017-02-30T10:00:00+08:00", "ISO8601TW"},
+                {"2017-07-27T10:00:00-05:30", "ISO8601TW"},
+                {"2017-07-27T10:00:00+00:00", "ISO8601TW"},
+                {"2017-07-27T10:00:00-18:00", "ISO8601TW"},
+                {"2017-02-29 10:00:00.1", "DB_DATE_TIME"},
+                {"1975-04-01 00:30:00", "MYSQL_DATE_TIME"},
+                {"+1501170060", "UNIX_TIME"},
+                {"-99999999999", "UNIX_TIME"},
+                {"253402300800", "UNIX_TIME"}
+        };
+        for (String[] testCase : cases) {
+            TimeFormat from = TimeFormat.valueOf(testCase[1]);
+            for (TimeFormat to : TimeFormat.values()) {
+                assertEquals(TimeFormat.convert(testCase[0], from, to),
+                        TimeFormat.converter(from, to).convert(testCase[0]));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyInput() {
+        for (TimeFormat from : TimeFormat.values()) {
+            for (TimeFormat to : TimeFormat.values()) {
+                assertNull(TimeFormat.converter(from, to).convert(null));
+                assertNull(TimeFormat.converter(from, to).convert(""));
+            }
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseException() {
+        TimeFormat.converter(TimeFormat.MYSQL_DATE_TIME, TimeFormat.UNIX_TIME).convert("2017-07-27T23:41:00");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNumberFormatException() {
+        TimeFormat.converter(TimeFormat.UNIX_TIME, TimeFormat.ISO8601UTC).convert("1501170060x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullFormat() {
+        TimeFormat.converter(null, TimeFormat.UNIX_TIME);
+    }
+
+}
@@ -0,0 +1,167 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW_MILLIS = 1501170060123L;
+
+    @Test
+    public void testLayoutAndDecoding() {
+        AtomicLong now = new AtomicLong(NOW_MILLIS);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.DEFAULT_EPOCH_MILLIS,
+                10, 12, 513L, 1000L, now::get);
+        long first = generator.next();
+        long second = generator.next();
+        assertEquals(((NOW_MILLIS - TimeOrderedIdGenerator.DEFAULT_EPOCH_MILLIS) << 22) | (513L << 12), first);
+        assertEquals(first + 1L, second);
+        assertEquals(NOW_MILLIS, generator.getEpochMillis(second));
+        assertEquals(513L, generator.getNodeId(second));
+        assertEquals(1L, generator.getSequence(second));
+        assertEquals(513L, generator.getNodeId());
+        assertEquals("2017-07-27 23:41:00.1", generator.format(second, TimeFormat.DB_DATE_TIME));
+
+        now.addAndGet(5L);
+        assertEquals(0L, generator.getSequence(generator.next()));
+    }
+
+    @Test
+    public void testClockRegressionAndExhaustion() {
+        AtomicLong now = new AtomicLong(NOW_MILLIS);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0L, 2, 2, 1L, 3L, now::get);
+        long last = generator.next();
+        now.addAndGet(-2L);
+        for (int i = 0; i < 7; i++) {
+            long id = generator.next();
+            assertTrue(id > last);
+            last = id;
+        }
+        // the clock moved back by 2 ms and the sequences run out, 3 ms of lead are allowed
+        assertEquals(NOW_MILLIS + 1L, generator.getEpochMillis(last));
+        try {
+            generator.next();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("ahead of the clock"));
+        }
+        now.set(NOW_MILLIS + 50L);
+        assertEquals(NOW_MILLIS + 50L, generator.getEpochMillis(generator.next()));
+    }
+
+    @Test
+    public void testBatchReservation() {
+        AtomicLong now = new AtomicLong(NOW_MILLIS);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.DEFAULT_EPOCH_MILLIS,
+                4, 4, 3L, 10L, now::get);
+        long[] ids = generator.next(20);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+            assertEquals(3L, generator.getNodeId(ids[i]));
+        }
+        assertEquals(NOW_MILLIS + 1L, generator.getEpochMillis(ids[19]));
+        assertEquals(3L, generator.getSequence(ids[19]));
+        long[] target = new long[3];
+        generator.next(target, 1, 2);
+        assertEquals(0L, target[0]);
+        assertTrue(target[1] > ids[19] && target[2] > target[1]);
+        generator.next(target, 0, 0);
+    }
+
+    @Test
+    public void testConcurrentUniqueness() throws InterruptedException {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7L);
+        UuidV7Generator uuidGenerator = new UuidV7Generator();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+        int threads = 4;
+        int perThread = 20000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong failures = new AtomicLong();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    long last = Long.MIN_VALUE;
+                    UUID lastUuid = null;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = generator.next();
+                        UUID uuid = uuidGenerator.next();
+                        if (id <= last || null != lastUuid && compareUnsigned(uuid, lastUuid) <= 0) {
+                            failures.incrementAndGet();
+                        }
+                        last = id;
+                        lastUuid = uuid;
+                        ids.add(id);
+                        uuids.add(uuid);
+                    }
+                } catch (IllegalStateException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        assertEquals(0L, failures.get());
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(threads * perThread, uuids.size());
+    }
+
+    @Test
+    public void testUuidV7() {
+        AtomicLong now = new AtomicLong(NOW_MILLIS);
+        UuidV7Generator generator = new UuidV7Generator(10L, now::get);
+        UUID[] uuids = generator.next(3);
+        UUID single = generator.next();
+        Set<UUID> distinct = new HashSet<>();
+        for (UUID uuid : new UUID[]{uuids[0], uuids[1], uuids[2], single}) {
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertEquals(NOW_MILLIS, UuidV7Generator.getEpochMillis(uuid));
+            distinct.add(uuid);
+        }
+        assertEquals(4, distinct.size());
+        assertEquals(3L, single.getMostSignificantBits() & 0xFFFL);
+        assertTrue(single.toString().startsWith("015d84b5-4b5b-7"));
+        assertEquals("2017-07-27T15:41:00Z", UuidV7Generator.format(single, TimeFormat.ISO8601UTC));
+        assertEquals(0, generator.next(0).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotUuidV7() {
+        UuidV7Generator.getEpochMillis(UUID.randomUUID());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNodeIdTooLarge() {
+        new TimeOrderedIdGenerator(1024L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLayout() {
+        new TimeOrderedIdGenerator(0L, 40, 23, 0L, 0L, EpochClock.SYSTEM);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClockBeforeEpoch() {
+        new TimeOrderedIdGenerator(0L, 1, 1, 0L, 0L, () -> -1L).next();
+    }
+
+    private static int compareUnsigned(UUID left, UUID right) {
+        int compared = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return compared != 0 ? compared
+                : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+
+}
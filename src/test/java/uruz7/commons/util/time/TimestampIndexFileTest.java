@@ -0,0 +1,159 @@
+package uruz7.commons.util.time;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampIndexFileTest {
+
+    private static final long BASE = 1501170060L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testQueryWithTimeFormat() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path)) {
+            indexFile.append("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC, 0L);
+            indexFile.append("2017-07-27T15:42:00Z", TimeFormat.ISO8601UTC, 100L);
+            indexFile.append("2017-07-27T15:43:00Z", TimeFormat.ISO8601UTC, 200L);
+            indexFile.commit();
+            long[] actual = indexFile.query("2017-07-27T23:41:30+08:00", "2017-07-27T23:43:00+08:00",
+                    TimeFormat.ISO8601TW);
+            assertArrayEquals(new long[]{100L, 200L}, actual);
+        }
+    }
+
+    @Test
+    public void testQueryPrunesBlocks() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path, 100)) {
+            for (int i = 0; i < 1050; i++) {
+                indexFile.append(BASE + i, i * 10L);
+            }
+            indexFile.commit();
+            assertEquals(1050L, indexFile.size());
+            assertEquals(1, indexFile.countOverlappingBlocks(BASE + 310, BASE + 320));
+            assertEquals(2, indexFile.countOverlappingBlocks(BASE + 399, BASE + 400));
+            assertEquals(0, indexFile.countOverlappingBlocks(BASE + 2000, BASE + 3000));
+            long[] actual = indexFile.query(BASE + 399, BASE + 401);
+            assertArrayEquals(new long[]{3990L, 4000L, 4010L}, actual);
+            assertEquals(50, indexFile.query(BASE + 1000, BASE + 2000).length);
+        }
+    }
+
+    @Test
+    public void testUncommittedEntriesAreInvisible() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path)) {
+            indexFile.append(BASE, 1L);
+            assertEquals(0L, indexFile.size());
+            assertEquals(0, indexFile.query(BASE, BASE).length);
+            indexFile.commit();
+            indexFile.commit();
+            assertArrayEquals(new long[]{1L}, indexFile.query(BASE, BASE));
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path, 8)) {
+            for (int i = 0; i < 20; i++) {
+                indexFile.append(BASE + i, i);
+            }
+        }
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path, 64)) {
+            assertEquals(20L, indexFile.size());
+            assertEquals(1, indexFile.countOverlappingBlocks(BASE + 17, BASE + 17));
+            indexFile.append(BASE + 100, 100L);
+            indexFile.commit();
+            assertArrayEquals(new long[]{18L, 19L, 100L}, indexFile.query(BASE + 18, BASE + 100));
+        }
+    }
+
+    @Test
+    public void testReopenAfterCrashIgnoresUncommittedTail() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        TimestampIndexFile crashed = TimestampIndexFile.open(path, 8);
+        for (int i = 0; i < 5; i++) {
+            crashed.append(BASE + i, i);
+        }
+        crashed.commit();
+        for (int i = 5; i < 12; i++) {
+            crashed.append(BASE + 1000 + i, i);
+        }
+        // simulate a crash after the entries hit the disk but before the commit slot was published
+        simulateTornCommit(path, 8, BASE + 1000);
+
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path)) {
+            assertEquals(5L, indexFile.size());
+            assertEquals(0, indexFile.countOverlappingBlocks(BASE + 1000, BASE + 2000));
+            assertArrayEquals(new long[]{0L, 1L, 2L, 3L, 4L}, indexFile.query(BASE, BASE + 2000));
+        }
+    }
+
+    @Test
+    public void testReopenWithOneCorruptedSlot() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path, 8)) {
+            indexFile.append(BASE, 1L);
+            indexFile.commit();
+            indexFile.append(BASE + 1, 2L);
+            indexFile.commit();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // the second commit went into slot 0, tear its checksum
+            file.seek(16L + 8L);
+            file.writeInt(0);
+        }
+        try (TimestampIndexFile indexFile = TimestampIndexFile.open(path)) {
+            assertEquals(1L, indexFile.size());
+            assertArrayEquals(new long[]{1L}, indexFile.query(BASE, BASE + 1));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenWithInvalidFile() throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.write(new byte[128]);
+        }
+        TimestampIndexFile.open(path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenWithInvalidBlockSize() throws IOException {
+        TimestampIndexFile.open(temporaryFolder.newFile().toPath(), 0);
+    }
+
+    private static void simulateTornCommit(Path path, int entriesPerBlock, long epochSecond) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long blockLength = 16L + entriesPerBlock * 16L;
+            file.seek(64L);
+            file.writeLong(0L);
+            file.writeLong(epochSecond + 100L);
+            file.seek(64L + 16L + 5 * 16L);
+            for (int i = 5; i < 12; i++) {
+                if (i == entriesPerBlock) {
+                    file.seek(64L + blockLength);
+                    file.writeLong(epochSecond);
+                    file.writeLong(epochSecond + 100L);
+                }
+                file.writeLong(epochSecond + i);
+                file.writeLong(i);
+            }
+        }
+    }
+
+}
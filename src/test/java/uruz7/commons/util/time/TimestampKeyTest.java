@@ -0,0 +1,129 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampKeyTest {
+
+    @Test
+    public void testLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(TimestampKey.NANOS_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        TimestampKey.write(1L, 2, buffer);
+        byte[] expected = {(byte) 0x80, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 2};
+        assertArrayEquals(expected, buffer.array());
+        byte[] negative = {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF};
+        assertArrayEquals(negative, TimestampKey.toBytes("-1", TimeFormat.UNIX_TIME, false));
+    }
+
+    @Test
+    public void testOffsetsGiveTheSameKey() {
+        byte[] utc = TimestampKey.toBytes("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC, true);
+        assertArrayEquals(utc, TimestampKey.toBytes("2017-07-27T23:41:00+08:00", TimeFormat.ISO8601TW, true));
+        assertArrayEquals(utc, TimestampKey.toBytes("2017-07-27 23:41:00", TimeFormat.MYSQL_DATE_TIME, true));
+        assertArrayEquals(utc, TimestampKey.toBytes("Thu, 27 Jul 2017 15:41:00 GMT", TimeFormat.HTTP_DATE, true));
+        assertTrue(TimestampKey.compare(utc,
+                TimestampKey.toBytes("2017-07-27T15:40:59.999Z", TimeFormat.ISO8601UTC, true)) > 0);
+    }
+
+    @Test
+    public void testByteOrderIsChronologicalOrder() {
+        Random random = new Random(1022L);
+        long[][] instants = new long[5000][];
+        byte[][] keys = new byte[instants.length][];
+        for (int i = 0; i < instants.length; i++) {
+            long epochSecond = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(2000) - 1000;
+            int nano = random.nextBoolean() ? 0 : random.nextInt(1000000000);
+            instants[i] = new long[]{epochSecond, nano};
+            ByteBuffer buffer = ByteBuffer.allocate(TimestampKey.NANOS_LENGTH);
+            TimestampKey.write(epochSecond, nano, buffer);
+            keys[i] = buffer.array();
+        }
+        for (int i = 1; i < instants.length; i++) {
+            int chronological = Long.compare(instants[i - 1][0], instants[i][0]);
+            if (chronological == 0) {
+                chronological = Long.compare(instants[i - 1][1], instants[i][1]);
+            }
+            assertEquals(Integer.signum(chronological), Integer.signum(TimestampKey.compare(keys[i - 1], keys[i])));
+        }
+    }
+
+    @Test
+    public void testReadBackIntoEveryFormat() {
+        Instant instant = Instant.ofEpochSecond(1501170060L, 123456789);
+        for (TimeFormat format : TimeFormat.values()) {
+            for (boolean withNanos : new boolean[]{false, true}) {
+                String timestamp = format.getTimestampString(instant);
+                // the key keeps what the format parses, e.g. DB_DATE_TIME drops its fraction
+                Instant parsed = format.getInstant(timestamp);
+                String expected = format.getTimestampString(withNanos ? parsed
+                        : Instant.ofEpochSecond(parsed.getEpochSecond()));
+                ByteBuffer buffer = ByteBuffer.allocate(TimestampKey.length(withNanos));
+                TimestampKey.write(timestamp, format, withNanos, buffer);
+                assertFalse(buffer.hasRemaining());
+                buffer.flip();
+                assertEquals(expected, TimestampKey.read(buffer, withNanos, format));
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(TimestampKey.NANOS_LENGTH);
+        TimestampKey.write("2017-07-27T15:41:00.5Z", TimeFormat.ISO8601UTC, true, buffer);
+        buffer.flip();
+        MutableTimestamp holder = TimestampKey.read(buffer, true, new MutableTimestamp());
+        assertEquals(1501170060L, holder.getEpochSecond());
+        assertEquals(500000000, holder.getNano());
+    }
+
+    @Test
+    public void testBulkRoundTrip() {
+        List<String> timestamps = Arrays.asList("2017-07-27 23:41:00", "1970-01-01 08:00:00", "2038-01-19 11:14:08");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2 * TimestampKey.SECONDS_LENGTH + 3);
+        Iterator<String> iterator = timestamps.iterator();
+        assertEquals(2, TimestampKey.writeAll(iterator, TimeFormat.MYSQL_DATE_TIME, false, buffer));
+        assertTrue(iterator.hasNext());
+        buffer.flip();
+        List<String> decoded = new ArrayList<>();
+        assertEquals(2, TimestampKey.readAll(buffer, false, TimeFormat.UNIX_TIME, decoded));
+        assertEquals(Arrays.asList("1501170060", "0"), decoded);
+
+        buffer = ByteBuffer.allocate(3 * TimestampKey.NANOS_LENGTH);
+        assertEquals(3, TimestampKey.writeAll(timestamps.iterator(), TimeFormat.MYSQL_DATE_TIME, true, buffer));
+        buffer.flip();
+        decoded.clear();
+        assertEquals(3, TimestampKey.readAll(buffer, true, TimeFormat.MYSQL_DATE_TIME, decoded));
+        assertEquals(timestamps, decoded);
+    }
+
+    @Test
+    public void testCompare() {
+        assertTrue(TimestampKey.compare(new byte[]{1}, new byte[]{1, 0}) < 0);
+        assertTrue(TimestampKey.compare(new byte[]{(byte) 0x80}, new byte[]{0x7F}) > 0);
+        assertEquals(0, TimestampKey.compare(new byte[]{1, 2}, new byte[]{1, 2}));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testInvalidNano() {
+        TimestampKey.write(0L, 1000000000, ByteBuffer.allocate(TimestampKey.NANOS_LENGTH));
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testReadInvalidNano() {
+        ByteBuffer buffer = ByteBuffer.allocate(TimestampKey.NANOS_LENGTH);
+        buffer.putLong(Long.MIN_VALUE).putInt(-1).flip();
+        TimestampKey.read(buffer, true, TimeFormat.UNIX_TIME);
+    }
+
+}
@@ -0,0 +1,141 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampMergerTest {
+
+    @Test
+    public void testMergeIso8601() {
+        List<Iterator<String>> sources = Arrays.asList(
+                Arrays.asList("2017-07-27T15:41:00Z", "2017-07-27T15:41:03Z").iterator(),
+                Arrays.asList("2017-07-27T15:41:01Z", "2017-07-27T15:41:02Z").iterator(),
+                Collections.<String>emptyIterator());
+        TimestampMerger<String> merger = TimestampMerger.ofTimestamps(sources, TimeFormat.ISO8601UTC);
+        assertEquals(1501170060L, merger.peekEpochSecond());
+        assertEquals(0, merger.peekSource());
+        List<String> merged = new ArrayList<>();
+        merger.forEachRemaining(merged::add);
+        assertEquals(Arrays.asList("2017-07-27T15:41:00Z", "2017-07-27T15:41:01Z", "2017-07-27T15:41:02Z",
+                "2017-07-27T15:41:03Z"), merged);
+        assertFalse(merger.hasNext());
+    }
+
+    @Test
+    public void testStableOnEqualSeconds() {
+        List<Iterator<String[]>> sources = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sources.add(Arrays.asList(new String[]{"2017-07-27 23:41:00", "node" + i},
+                    new String[]{"2017-07-27 23:41:01", "late" + i}).iterator());
+        }
+        sources.set(2, Collections.singletonList(new String[]{"", "empty"}).iterator());
+        TimestampMerger<String[]> merger = new TimestampMerger<>(sources, row -> row[0], TimeFormat.MYSQL_DATE_TIME);
+        List<String> merged = new ArrayList<>();
+        merger.forEachRemaining(row -> merged.add(row[1]));
+        assertEquals(Arrays.asList("empty", "node0", "node1", "node3", "node4", "late0", "late1", "late3", "late4"),
+                merged);
+    }
+
+    @Test
+    public void testRandomSourcesMatchSorter() {
+        Random random = new Random(1022L);
+        for (int sourceCount = 1; sourceCount <= 17; sourceCount++) {
+            List<Iterator<String>> sources = new ArrayList<>();
+            List<String> all = new ArrayList<>();
+            for (int i = 0; i < sourceCount; i++) {
+                List<String> source = new ArrayList<>();
+                long epochSecond = 1501170060L + random.nextInt(100);
+                for (int j = random.nextInt(50); j > 0; j--) {
+                    epochSecond += random.nextInt(3);
+                    source.add(TimeFormat.UNIX_TIME.getTimestampString(epochSecond));
+                }
+                all.addAll(source);
+                sources.add(source.iterator());
+            }
+            List<String> merged = new ArrayList<>();
+            TimestampMerger.ofTimestamps(sources, TimeFormat.UNIX_TIME).forEachRemaining(merged::add);
+            assertEquals(TimestampSorter.sort(all, TimeFormat.UNIX_TIME), merged);
+        }
+    }
+
+    @Test
+    public void testMergeReaders() throws IOException {
+        AtomicInteger closed = new AtomicInteger();
+        List<Reader> readers = Arrays.asList(
+                new CountingReader("2017-07-27 23:41:00 a started\n2017-07-27 23:41:05 a stopped\n", closed),
+                new CountingReader("2017-07-27 23:41:02 b started\n", closed),
+                new CountingReader("", closed));
+        List<String> merged = new ArrayList<>();
+        try (TimestampMerger<String> merger = TimestampMerger.ofLines(readers, line -> line.substring(0, 19),
+                TimeFormat.MYSQL_DATE_TIME)) {
+            merger.forEachRemaining(merged::add);
+        }
+        assertEquals(Arrays.asList("2017-07-27 23:41:00 a started", "2017-07-27 23:41:02 b started",
+                "2017-07-27 23:41:05 a stopped"), merged);
+        assertEquals(3, closed.get());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNoSources() {
+        TimestampMerger<String> merger = TimestampMerger.ofTimestamps(Collections.emptyList(), TimeFormat.UNIX_TIME);
+        assertFalse(merger.hasNext());
+        merger.next();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPeekExhausted() {
+        TimestampMerger.ofTimestamps(Collections.singletonList(Collections.<String>emptyIterator()),
+                TimeFormat.UNIX_TIME).peekEpochSecond();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCloseFailure() throws IOException {
+        Reader broken = new CountingReader("", new AtomicInteger()) {
+            @Override
+            public void close() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        TimestampMerger.ofLines(Arrays.asList(broken, broken), line -> line, TimeFormat.UNIX_TIME).close();
+    }
+
+    private static class CountingReader extends Reader {
+
+        private final StringReader content;
+        private final AtomicInteger closed;
+
+        CountingReader(String content, AtomicInteger closed) {
+            this.content = new StringReader(content);
+            this.closed = closed;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return content.read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            content.close();
+            closed.incrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampReorderBufferTest {
+
+    @Test
+    public void testReleaseWhenWatermarkAdvances() {
+        List<String> released = new ArrayList<>();
+        TimestampReorderBuffer<String> buffer = TimestampReorderBuffer.ofTimestamps(2L, TimeFormat.MYSQL_DATE_TIME,
+                false, released::add);
+        assertTrue(buffer.offer("2017-07-27 23:41:01"));
+        assertTrue(buffer.offer("2017-07-27 23:41:00"));
+        assertTrue(buffer.offer("2017-07-27 23:41:02"));
+        assertEquals(Collections.emptyList(), released);
+        assertTrue(buffer.offer("2017-07-27 23:41:03"));
+        assertEquals(Collections.singletonList("2017-07-27 23:41:00"), released);
+        assertEquals(1501170061L, buffer.getWatermark());
+
+        assertFalse(buffer.offer("2017-07-27 23:41:00"));
+        assertEquals(1L, buffer.getLateCount());
+        assertTrue(buffer.offer("2017-07-27 23:41:01"));
+
+        buffer.advanceWatermark(1501170063L);
+        assertEquals(Arrays.asList("2017-07-27 23:41:00", "2017-07-27 23:41:01", "2017-07-27 23:41:01",
+                "2017-07-27 23:41:02"), released);
+        assertEquals(1, buffer.size());
+        buffer.flush();
+        assertEquals("2017-07-27 23:41:03", released.get(released.size() - 1));
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.offer("2017-07-27 23:41:02"));
+        assertEquals(2L, buffer.getLateCount());
+        assertEquals(2L, buffer.getLatenessSeconds());
+    }
+
+    @Test
+    public void testDeduplicateTimestampAndKey() {
+        List<String[]> released = new ArrayList<>();
+        TimestampReorderBuffer<String[]> buffer = new TimestampReorderBuffer<>(5L, event -> event[0],
+                TimeFormat.UNIX_TIME, event -> event[1], released::add);
+        buffer.offer(new String[]{"1501170061", "a"});
+        buffer.offer(new String[]{"1501170060", "a"});
+        buffer.offer(new String[]{"1501170061", "a"});
+        buffer.offer(new String[]{"1501170061", "b"});
+        buffer.offer(new String[]{"1501170060", "a"});
+        buffer.flush();
+        buffer.offer(new String[]{"1501170061", "b"});
+        buffer.offer(new String[]{"1501170062", "b"});
+        buffer.flush();
+        List<String> flattened = new ArrayList<>();
+        for (String[] event : released) {
+            flattened.add(event[0] + event[1]);
+        }
+        assertEquals(Arrays.asList("1501170060a", "1501170061a", "1501170061b", "1501170062b"), flattened);
+        assertEquals(3L, buffer.getDuplicateCount());
+    }
+
+    @Test
+    public void testRandomStragglersAreSortedStably() {
+        Random random = new Random(1022L);
+        List<long[]> arrivals = new ArrayList<>();
+        long now = 1501170060L;
+        for (int i = 0; i < 20000; i++) {
+            now += random.nextInt(3) == 0 ? 1 : 0;
+            arrivals.add(new long[]{now - random.nextInt(4), i});
+        }
+        List<long[]> released = new ArrayList<>();
+        TimestampReorderBuffer<long[]> buffer = new TimestampReorderBuffer<>(3L, event -> String.valueOf(event[0]),
+                TimeFormat.UNIX_TIME, released::add);
+        for (long[] event : arrivals) {
+            assertTrue(buffer.offer(event));
+            assertTrue(buffer.size() < 200);
+        }
+        buffer.flush();
+        List<long[]> expected = new ArrayList<>(arrivals);
+        expected.sort((one, another) -> Long.compare(one[0], another[0]));
+        assertEquals(expected.size(), released.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), released.get(i));
+        }
+    }
+
+    @Test
+    public void testEmptyTimestampAndZeroLateness() {
+        List<String> released = new ArrayList<>();
+        TimestampReorderBuffer<String> buffer = TimestampReorderBuffer.ofTimestamps(0L, TimeFormat.UNIX_TIME, true,
+                released::add);
+        assertTrue(buffer.offer(""));
+        assertTrue(buffer.offer("1501170060"));
+        assertEquals(Collections.singletonList(""), released);
+        assertFalse(buffer.offer(null));
+        buffer.advanceWatermark(Long.MIN_VALUE);
+        assertEquals(1501170060L, buffer.getWatermark());
+    }
+
+    @Test
+    public void testHugeLatenessDoesNotOverflow() {
+        List<String> released = new ArrayList<>();
+        TimestampReorderBuffer<String> buffer = TimestampReorderBuffer.ofTimestamps(Long.MAX_VALUE,
+                TimeFormat.UNIX_TIME, false, released::add);
+        buffer.offer("-1501170060");
+        buffer.offer("-1501170061");
+        assertEquals(Long.MIN_VALUE, buffer.getWatermark());
+        assertEquals(2, buffer.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLateness() {
+        TimestampReorderBuffer.ofTimestamps(-1L, TimeFormat.UNIX_TIME, false, timestamp -> fail());
+    }
+
+}
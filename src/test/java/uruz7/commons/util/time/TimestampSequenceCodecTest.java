@@ -0,0 +1,112 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampSequenceCodecTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<TimestampSequenceCodec> constructor = TimestampSequenceCodec.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        long[] values = {1501170060L, 1501170061L, 1501170062L, 1501170070L, 1501170065L, 0L, -1L,
+                Long.MAX_VALUE, Long.MIN_VALUE, 1501170060L};
+        long[] actual = TimestampSequenceCodec.decode(TimestampSequenceCodec.encode(values));
+        assertArrayEquals(values, actual);
+    }
+
+    @Test
+    public void testRoundTripEmpty() {
+        ByteBuffer encoded = TimestampSequenceCodec.encode(new long[0]);
+        assertEquals(1, encoded.remaining());
+        assertEquals(0, TimestampSequenceCodec.decode(encoded).length);
+    }
+
+    @Test
+    public void testRoundTripRandomJitter() {
+        Random random = new Random(1022L);
+        long[] values = new long[10000];
+        long current = 1501170060L;
+        for (int i = 0; i < values.length; i++) {
+            current += random.nextInt(i % 100 == 0 ? 100000 : 5);
+            values[i] = current;
+        }
+        ByteBuffer encoded = TimestampSequenceCodec.encode(values);
+        assertTrue(encoded.remaining() < values.length * 2);
+        assertArrayEquals(values, TimestampSequenceCodec.decode(encoded));
+    }
+
+    @Test
+    public void testFixedIntervalCostsOneBitPerValue() {
+        long[] values = new long[800];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1501170060L + i * 60L;
+        }
+        ByteBuffer encoded = TimestampSequenceCodec.encode(values);
+        assertTrue(encoded.remaining() <= 100 + 8);
+        assertArrayEquals(values, TimestampSequenceCodec.decode(encoded));
+    }
+
+    @Test
+    public void testEncodeFromTimeFormatAndDecodeToTimeFormat() {
+        List<String> input = Arrays.asList("2017-07-27T15:41:00Z", "2017-07-27T15:42:00Z", "2017-07-27T15:43:00Z");
+        ByteBuffer encoded = TimestampSequenceCodec.encode(input, TimeFormat.ISO8601UTC);
+        List<String> actual = TimestampSequenceCodec.decode(encoded, TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(Arrays.asList("2017-07-27 23:41:00", "2017-07-27 23:42:00", "2017-07-27 23:43:00"), actual);
+    }
+
+    @Test
+    public void testStreamingEncoderAndDecoder() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 42);
+        TimestampSequenceCodec.Encoder encoder = new TimestampSequenceCodec.Encoder(buffer);
+        encoder.write(1501170060L);
+        encoder.write(1501170061L);
+        encoder.finish();
+        encoder.finish();
+        assertEquals(2, encoder.getCount());
+        buffer.put((byte) 24);
+        buffer.flip();
+
+        assertEquals(42, buffer.get());
+        TimestampSequenceCodec.Decoder decoder = new TimestampSequenceCodec.Decoder(buffer);
+        assertTrue(decoder.hasNext());
+        assertEquals("1501170060", decoder.nextTimestampString(TimeFormat.UNIX_TIME));
+        assertEquals(1501170061L, decoder.next());
+        assertFalse(decoder.hasNext());
+        assertEquals(24, buffer.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterFinish() {
+        TimestampSequenceCodec.Encoder encoder = new TimestampSequenceCodec.Encoder(ByteBuffer.allocate(16));
+        encoder.finish();
+        encoder.write(1L);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextAfterEnd() {
+        TimestampSequenceCodec.Decoder decoder = new TimestampSequenceCodec.Decoder(
+                TimestampSequenceCodec.encode(new long[0]));
+        decoder.next();
+    }
+
+}
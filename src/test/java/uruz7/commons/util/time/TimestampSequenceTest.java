@@ -0,0 +1,92 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampSequenceTest {
+
+    @Test
+    public void testEveryMinuteAcrossMidnight() {
+        TimestampSequence sequence = new TimestampSequence("2017-07-27 23:58:00", "2017-07-28 00:01:00", 60L,
+                TimeFormat.MYSQL_DATE_TIME);
+        assertEquals(3L, sequence.size());
+        List<String> timestamps = new ArrayList<>();
+        for (String timestamp : sequence) {
+            timestamps.add(timestamp);
+        }
+        assertEquals(Arrays.asList("2017-07-27 23:58:00", "2017-07-27 23:59:00", "2017-07-28 00:00:00"), timestamps);
+    }
+
+    @Test
+    public void testEveryFormatAgainstTimeFormat() {
+        // 1974 crosses the daylight saving time of Asia/Taipei, 999999990 crosses a new digit of UNIX_TIME
+        long[][] ranges = {{1501170060L, 1501170060L + 3 * 86400L, 7L}, {134000000L, 160000000L, 3601L},
+                {999999000L, 1000001000L, 3L}, {-200L, 200L, 1L}, {0L, 400000000L, 86400L * 3}};
+        for (TimeFormat format : TimeFormat.values()) {
+            for (long[] range : ranges) {
+                TimestampSequence sequence = new TimestampSequence(range[0], range[1], range[2], format);
+                String[] timestamps = sequence.toArray();
+                assertEquals(sequence.size(), timestamps.length);
+                for (int i = 0; i < timestamps.length; i++) {
+                    assertEquals(format.getTimestampString(Instant.ofEpochSecond(range[0] + i * range[2])),
+                            timestamps[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCursorFill() {
+        TimestampSequence sequence = new TimestampSequence(1501170060L, 1501170065L, 1L, TimeFormat.UNIX_TIME);
+        TimestampSequence.Cursor cursor = sequence.iterator();
+        StringBuilder output = new StringBuilder();
+        cursor.nextInto(output);
+        assertEquals("1501170060", output.toString());
+        assertEquals(1501170060L, cursor.getEpochSecond());
+        String[] target = new String[5];
+        assertEquals(3, cursor.fill(target, 1, 3));
+        assertArrayEquals(new String[]{null, "1501170061", "1501170062", "1501170063", null}, target);
+        assertEquals(1, cursor.fill(target, 0, 5));
+        assertEquals("1501170064", target[0]);
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testStepBeyondEnd() {
+        long max = Instant.MAX.getEpochSecond();
+        TimestampSequence sequence = new TimestampSequence(max - 10L, max, 7L, TimeFormat.UNIX_TIME);
+        assertArrayEquals(new String[]{String.valueOf(max - 10L), String.valueOf(max - 3L)}, sequence.toArray());
+        assertEquals(0, new TimestampSequence(5L, 5L, 1L, TimeFormat.UNIX_TIME).toArray().length);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextAfterEnd() {
+        new TimestampSequence(5L, 5L, 1L, TimeFormat.UNIX_TIME).iterator().next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStep() {
+        new TimestampSequence(0L, 10L, 0L, TimeFormat.UNIX_TIME);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversedBounds() {
+        new TimestampSequence(10L, 0L, 1L, TimeFormat.UNIX_TIME);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidFillRange() {
+        new TimestampSequence(0L, 10L, 1L, TimeFormat.UNIX_TIME).iterator().fill(new String[2], 1, 2);
+    }
+
+}
@@ -0,0 +1,99 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampSorterTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void testPrivateConstructor()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Constructor<TimestampSorter> constructor = TimestampSorter.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void testSortIso8601() {
+        List<String> input = Arrays.asList("2017-08-08T21:45:00Z", "2017-08-08T13:45:00Z", "2017-08-08T17:45:00Z");
+        List<String> expected = Arrays.asList("2017-08-08T13:45:00Z", "2017-08-08T17:45:00Z", "2017-08-08T21:45:00Z");
+        List<String> actual = TimestampSorter.sort(input, TimeFormat.ISO8601UTC);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSortMySqlDateTimeIsStable() {
+        String[] input = {"2017-07-27 23:41:00", "2017-07-27 23:40:00", "2017-07-27 23:41:00", "", "2017-01-01 00:00:00"};
+        int[] actual = TimestampSorter.sortedOrder(input, TimeFormat.MYSQL_DATE_TIME);
+        assertArrayEquals(new int[]{3, 4, 1, 0, 2}, actual);
+    }
+
+    @Test
+    public void testSortInPlace() {
+        String[] input = {"1501170062", "-1", "1501170060", "1501170061"};
+        TimestampSorter.sortInPlace(input, TimeFormat.UNIX_TIME);
+        assertArrayEquals(new String[]{"-1", "1501170060", "1501170061", "1501170062"}, input);
+    }
+
+    @Test
+    public void testSortEmptyInput() {
+        assertTrue(TimestampSorter.sort(new ArrayList<>(), TimeFormat.UNIX_TIME).isEmpty());
+    }
+
+    @Test
+    public void testRadixSortMatchesStableSort() {
+        Random random = new Random(1022L);
+        long[] keys = new long[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i % 3 == 0 ? random.nextLong() : random.nextInt(100) - 50;
+        }
+        assertStableOrder(keys, TimestampSorter.sortIndices(keys));
+    }
+
+    @Test
+    public void testLargeInputMatchesStableSort() {
+        Random random = new Random(1022L);
+        String[] input = new String[TimestampSorter.PARALLEL_THRESHOLD * 4];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = String.valueOf(1501170060L + random.nextInt(86400));
+        }
+        int[] order = TimestampSorter.sortedOrder(input, TimeFormat.UNIX_TIME);
+        long[] keys = TimestampSorter.extractKeys(input, TimeFormat.UNIX_TIME);
+        assertStableOrder(keys, order);
+    }
+
+    @Test
+    public void testLargeInputWithWideRangeMatchesStableSort() {
+        Random random = new Random(1022L);
+        long[] keys = new long[TimestampSorter.PARALLEL_THRESHOLD * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        keys[7] = Long.MIN_VALUE;
+        assertStableOrder(keys, TimestampSorter.sortIndices(keys));
+    }
+
+    private static void assertStableOrder(long[] keys, int[] actual) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            expected.add(i);
+        }
+        expected.sort(Comparator.comparingLong(index -> keys[index]));
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals((int) expected.get(i), actual[i]);
+        }
+    }
+
+}
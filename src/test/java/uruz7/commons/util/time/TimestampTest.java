@@ -0,0 +1,128 @@
+package uruz7.commons.util.time;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ */
+public class TimestampTest {
+
+    @Test
+    public void testEpochSecond() {
+        Timestamp timestamp = Timestamp.of("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC);
+        assertEquals(1501170060L, timestamp.getEpochSecond());
+        assertEquals(0, timestamp.getNano());
+        assertEquals(Instant.ofEpochSecond(1501170060L), timestamp.toInstant());
+    }
+
+    @Test
+    public void testNano() {
+        Timestamp timestamp = Timestamp.of("2017-07-27T15:41:00.250Z", TimeFormat.ISO8601UTC);
+        assertEquals(1501170060L, timestamp.getEpochSecond());
+        assertEquals(250000000, timestamp.getNano());
+    }
+
+    @Test
+    public void testFormatIsMemoized() {
+        Timestamp timestamp = Timestamp.of("1501170060", TimeFormat.UNIX_TIME);
+        String actual = timestamp.format(TimeFormat.ISO8601TW);
+        assertEquals("2017-07-27T23:41:00+08:00", actual);
+        assertSame(actual, timestamp.format(TimeFormat.ISO8601TW));
+        assertEquals("2017-07-27 23:41:00", timestamp.format(TimeFormat.MYSQL_DATE_TIME));
+    }
+
+    @Test
+    public void testFormatMatchesConvert() {
+        String text = "2017-07-27 23:41:00.0";
+        Timestamp timestamp = Timestamp.of(text, TimeFormat.DB_DATE_TIME);
+        for (TimeFormat toType : TimeFormat.values()) {
+            String expected = TimeFormat.convert(text, TimeFormat.DB_DATE_TIME, toType);
+            assertEquals(expected, timestamp.format(toType));
+        }
+    }
+
+    @Test
+    public void testOffsetSeconds() {
+        assertEquals(0, Timestamp.of("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC).getOffsetSeconds());
+        assertEquals(-36000, Timestamp.of("2017-07-27T15:41:00-10:00", TimeFormat.ISO8601TW).getOffsetSeconds());
+        assertEquals(28800, Timestamp.of("2017-07-27 23:41:00", TimeFormat.MYSQL_DATE_TIME).getOffsetSeconds());
+        assertEquals(0, Timestamp.of("1501170060", TimeFormat.UNIX_TIME).getOffsetSeconds());
+    }
+
+    @Test
+    public void testTimeZoneInUtc8() {
+        assertTrue(Timestamp.of("2017-08-08T13:45:00+08:00", TimeFormat.ISO8601TW).isTimeZoneInUtc8());
+        assertFalse(Timestamp.of("2017-08-08T13:45:00Z", TimeFormat.ISO8601UTC).isTimeZoneInUtc8());
+    }
+
+    @Test
+    public void testCompareTo() {
+        Timestamp earlier = Timestamp.of("2017-08-08T13:45:00Z", TimeFormat.ISO8601UTC);
+        Timestamp later = Timestamp.of("2017-08-08T21:45:00Z", TimeFormat.ISO8601UTC);
+        Timestamp laterInTw = Timestamp.of("2017-08-09T05:45:00+08:00", TimeFormat.ISO8601TW);
+        assertTrue(later.compareTo(earlier) > 0);
+        assertTrue(earlier.compareTo(later) < 0);
+        assertEquals(0, later.compareTo(laterInTw));
+    }
+
+    @Test
+    public void testSort() {
+        Timestamp a = Timestamp.of("2017-08-08T13:45:00.5Z", TimeFormat.ISO8601UTC);
+        Timestamp b = Timestamp.of("2017-08-08T13:45:00Z", TimeFormat.ISO8601UTC);
+        Timestamp c = Timestamp.of("1502199000", TimeFormat.UNIX_TIME);
+        List<Timestamp> timestamps = Arrays.asList(a, b, c);
+        timestamps.sort(null);
+        assertEquals(Arrays.asList(c, b, a), timestamps);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Timestamp utc = Timestamp.of("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC);
+        Timestamp unix = Timestamp.of("1501170060", TimeFormat.UNIX_TIME);
+        Timestamp other = Timestamp.of("1501170061", TimeFormat.UNIX_TIME);
+        assertEquals(utc, unix);
+        assertEquals(utc.hashCode(), unix.hashCode());
+        assertNotEquals(utc, other);
+        assertNotEquals(utc, "2017-07-27T15:41:00Z");
+        assertEquals(utc, utc);
+    }
+
+    @Test
+    public void testToString() {
+        Timestamp timestamp = Timestamp.of("2017-07-27T15:41:00Z", TimeFormat.ISO8601UTC);
+        assertEquals("2017-07-27T15:41:00Z", timestamp.toString());
+        assertEquals("2017-07-27T15:41:00Z", timestamp.getText());
+        assertEquals(TimeFormat.ISO8601UTC, timestamp.getFormat());
+    }
+
+    @Test
+    public void testOptionalOf() {
+        assertNull(Timestamp.optionalOf(null, TimeFormat.UNIX_TIME));
+        assertNull(Timestamp.optionalOf("", TimeFormat.UNIX_TIME));
+        assertNotNull(Timestamp.optionalOf("1501170060", TimeFormat.UNIX_TIME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfWithEmptyText() {
+        Timestamp.of("", TimeFormat.UNIX_TIME);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfWithNullFormat() {
+        Timestamp.of("1501170060", null);
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testLazyParseException() {
+        Timestamp timestamp = Timestamp.of("2017-08-0823:25:51Z", TimeFormat.ISO8601UTC);
+        timestamp.getEpochSecond();
+    }
+
+}
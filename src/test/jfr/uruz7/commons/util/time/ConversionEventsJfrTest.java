@@ -0,0 +1,145 @@
+package uruz7.commons.util.time;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Carl Lu
+ * <p>
+ * Compiled and run by the jfr profile only, like JfrSupport.
+ * <p>
+ */
+public class ConversionEventsJfrTest {
+
+    private Duration threshold;
+
+    @Before
+    public void setUp() {
+        threshold = ConversionEvents.getThreshold();
+    }
+
+    @After
+    public void tearDown() {
+        ConversionEvents.setThreshold(threshold);
+    }
+
+    @Test
+    public void testRecordFailedAndSlowConversions() throws IOException, ParseException {
+        assertTrue(ConversionEvents.isAvailable());
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionEvents.EVENT_NAME);
+            recording.start();
+            assertTrue(ConversionEvents.isRecording());
+
+            ConversionEvents.setThreshold(Duration.ofDays(1L));
+            TimeFormat.convert("1501170060", TimeFormat.UNIX_TIME, TimeFormat.ISO8601UTC);
+            try {
+                TimeFormat.convert("2017-07-27 23:41", TimeFormat.MYSQL_DATE_TIME, TimeFormat.UNIX_TIME);
+                fail();
+            } catch (DateTimeParseException expected) {
+                // recorded below
+            }
+            try {
+                Iso8601TimeUtil.convertIso8601ToUnixTimestamp("not a timestamp");
+                fail();
+            } catch (ParseException expected) {
+                // recorded below
+            }
+            ConversionEvents.setThreshold(Duration.ZERO);
+            assertEquals("1501170060", Iso8601TimeUtil.convertIso8601ToUnixTimestamp("2017-07-27T23:41:00.123+08:00"));
+
+            recording.stop();
+            assertFalse(ConversionEvents.isRecording());
+            events = eventsOf(recording);
+        }
+
+        assertEquals(3, events.size());
+        RecordedEvent failed = events.get(0);
+        assertEquals("TimeFormat.convert", failed.getString("operation"));
+        assertEquals("MYSQL_DATE_TIME", failed.getString("fromFormat"));
+        assertEquals("UNIX_TIME", failed.getString("toFormat"));
+        assertEquals(16, failed.getInt("inputLength"));
+        assertEquals("9999-99-99 99:99", failed.getString("inputShape"));
+        assertTrue(failed.getBoolean("failed"));
+        assertTrue(failed.getString("failure").startsWith(DateTimeParseException.class.getName()));
+        assertFalse(failed.getBoolean("fallback"));
+
+        RecordedEvent failedFallback = events.get(1);
+        assertEquals("Iso8601TimeUtil.convertIso8601ToUnixTimestamp", failedFallback.getString("operation"));
+        assertTrue(failedFallback.getBoolean("failed"));
+        assertTrue(failedFallback.getBoolean("fallback"));
+        assertEquals("aaa a aaaaaaaaa", failedFallback.getString("inputShape"));
+
+        RecordedEvent slowFallback = events.get(2);
+        assertFalse(slowFallback.getBoolean("failed"));
+        assertTrue(slowFallback.getBoolean("fallback"));
+        assertNull(slowFallback.getString("failure"));
+        assertTrue(slowFallback.getLong("conversionDuration") >= 0L);
+    }
+
+    @Test
+    public void testRecordFusedConversions() throws IOException {
+        TimeFormatConverter converter = TimeFormat.converter(TimeFormat.MYSQL_DATE_TIME, TimeFormat.UNIX_TIME);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionEvents.EVENT_NAME);
+            recording.start();
+
+            ConversionEvents.setThreshold(Duration.ofDays(1L));
+            assertEquals("1501170060", converter.convert("2017-07-27 23:41:00"));
+            try {
+                converter.convert("2017-07-27 23:41");
+                fail();
+            } catch (DateTimeParseException expected) {
+                // recorded below
+            }
+            ConversionEvents.setThreshold(Duration.ZERO);
+            assertEquals("1501170060", converter.convert("2017-07-27 23:41:00"));
+
+            recording.stop();
+            events = eventsOf(recording);
+        }
+
+        assertEquals(2, events.size());
+        RecordedEvent failed = events.get(0);
+        assertEquals("TimeFormatConverter.convert", failed.getString("operation"));
+        assertEquals("MYSQL_DATE_TIME", failed.getString("fromFormat"));
+        assertEquals("UNIX_TIME", failed.getString("toFormat"));
+        assertTrue(failed.getBoolean("failed"));
+        assertTrue(failed.getBoolean("fallback"));
+
+        RecordedEvent slow = events.get(1);
+        assertEquals("TimeFormatConverter.convert", slow.getString("operation"));
+        assertFalse(slow.getBoolean("failed"));
+        assertFalse(slow.getBoolean("fallback"));
+    }
+
+    private static List<RecordedEvent> eventsOf(Recording recording) throws IOException {
+        Path dump = Files.createTempFile("conversion-events", ".jfr");
+        try {
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> ConversionEvents.EVENT_NAME.equals(event.getEventType().getName()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(dump);
+        }
+    }
+
+}